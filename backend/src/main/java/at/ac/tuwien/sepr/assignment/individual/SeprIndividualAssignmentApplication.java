@@ -2,8 +2,10 @@ package at.ac.tuwien.sepr.assignment.individual;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SeprIndividualAssignmentApplication {
 
   public static void main(String[] args) {
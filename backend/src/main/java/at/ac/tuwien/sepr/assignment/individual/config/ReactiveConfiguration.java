@@ -0,0 +1,83 @@
+package at.ac.tuwien.sepr.assignment.individual.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Configuration of the reactive read endpoints, activate with the "reactive" profile.
+ * The application then runs on Netty with WebFlux instead of Tomcat with Spring MVC, and only serves the read endpoints
+ * of horses, tournaments and breeds, which read the database with R2DBC.
+ * The R2DBC client connects to the same H2 database as the JDBC data source, which is still used by the rest of the application
+ * (e.g. the test data generator). Its connection factory isn't exposed as bean, because Spring Boot doesn't create the data source
+ * next to an R2DBC connection factory.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String JDBC_URL_PREFIX = "jdbc:h2:";
+
+  private ConnectionPool connectionPool;
+
+  /**
+   * Creates the R2DBC client of the database configured for the JDBC data source.
+   *
+   * @param jdbcUrl the JDBC URL of the H2 database
+   * @param username the user connecting to the database
+   * @param password the password of the user
+   * @param maxSize the maximum number of connections to the database
+   * @return the client, using a pool of connections
+   */
+  @Bean
+  public DatabaseClient databaseClient(@Value("${spring.datasource.url}") String jdbcUrl,
+                                       @Value("${spring.datasource.username:sa}") String username,
+                                       @Value("${spring.datasource.password:}") String password,
+                                       @Value("${reactive.r2dbc.pool.max-size}") int maxSize) {
+    LOG.trace("databaseClient({}, {})", jdbcUrl, maxSize);
+    if (!jdbcUrl.startsWith(JDBC_URL_PREFIX)) {
+      throw new IllegalStateException("The reactive endpoints only support H2 databases, but the data source is " + jdbcUrl);
+    }
+    var connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+        .url(jdbcUrl.substring(JDBC_URL_PREFIX.length())) // the R2DBC driver adds the prefix itself
+        .username(username)
+        .password(password)
+        .build());
+    connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+        .maxSize(maxSize)
+        .build());
+    return DatabaseClient.create(connectionPool);
+  }
+
+  /**
+   * Runs WebFlux on Netty, otherwise Spring Boot would prefer Tomcat, which is on the classpath for the servlet stack.
+   *
+   * @return the factory of the Netty server
+   */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /**
+   * Closes the connections to the database.
+   */
+  @PreDestroy
+  public void closeConnectionPool() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package at.ac.tuwien.sepr.assignment.individual.config;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Configuration of the reactive read endpoints ("reactive" profile) corresponding to {@link WebConfig}.
+ * This configuration effectively disables Cross-Origin Resource Sharing (CORS) for non-production profiles.
+ */
+@Profile("reactive & !prod")
+@Configuration
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+  /**
+   * Configures Cross-Origin Resource Sharing (CORS) mappings.
+   * This method allows all origins, the reactive endpoints only serve requests reading data.
+   *
+   * @param registry the CorsRegistry to configure CORS mappings
+   */
+  @Override
+  public void addCorsMappings(CorsRegistry registry) {
+    registry.addMapping("/**").allowedMethods("GET", "OPTIONS", "HEAD")
+        .exposedHeaders(SearchCursor.NEXT_CURSOR_HEADER); // the frontend needs to read the cursor of the next page of a search
+  }
+}
@@ -0,0 +1,111 @@
+package at.ac.tuwien.sepr.assignment.individual.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads which are pinned to their carrier thread, when requests are executed on virtual threads ("virtual-threads" profile).
+ * A virtual thread blocking while it holds a monitor ({@code synchronized}) or runs native code can't be unmounted,
+ * so it blocks one of the few carrier threads, and with it all virtual threads waiting for one.
+ * The pins are recorded by the JDK as {@code jdk.VirtualThreadPinned} Flight Recorder events, which are streamed in-process.
+ * Every pin is counted by the site it happened at: the first frame of its stack trace outside of the JDK,
+ * e.g. in the H2 driver, the connection pool or the application. The first pin at a site is logged as a warning.
+ */
+@Component
+@Profile("virtual-threads")
+public class VirtualThreadPinningMonitor {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String UNKNOWN_SITE = "unknown";
+
+  private final Duration threshold;
+  private final Map<String, LongAdder> pinsBySite = new ConcurrentHashMap<>();
+  private RecordingStream recording;
+
+  public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning-threshold}") Duration threshold) {
+    this.threshold = threshold;
+  }
+
+  /**
+   * Starts recording the pins which take longer than the threshold.
+   */
+  @PostConstruct
+  public void start() {
+    LOG.trace("start()");
+    recording = new RecordingStream();
+    recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recording.onEvent(PINNED_EVENT, this::onPinned);
+    recording.startAsync();
+    LOG.info("Reporting virtual threads pinned to their carrier thread for longer than {} ms", threshold.toMillis());
+  }
+
+  /**
+   * Stops recording and logs how often virtual threads were pinned at each site.
+   */
+  @PreDestroy
+  public void stop() {
+    LOG.trace("stop()");
+    recording.close();
+    if (!pinsBySite.isEmpty()) {
+      LOG.info("Virtual threads were pinned to their carrier thread at: {}", pinnedSites());
+    }
+  }
+
+  /**
+   * Gets how often virtual threads were pinned at each site since the monitor was started.
+   *
+   * @return the number of pins by the site they happened at, sorted by site
+   */
+  public Map<String, Long> pinnedSites() {
+    Map<String, Long> sites = new TreeMap<>();
+    pinsBySite.forEach((site, pins) -> sites.put(site, pins.sum()));
+    return sites;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    String site = site(event.getStackTrace());
+    LongAdder pins = pinsBySite.computeIfAbsent(site, s -> new LongAdder());
+    pins.increment();
+    if (pins.sum() == 1) {
+      LOG.warn("A virtual thread was pinned to its carrier thread for {} ms at {}, further pins at this site are only logged at debug level",
+          event.getDuration().toMillis(), site);
+    } else {
+      LOG.debug("A virtual thread was pinned to its carrier thread for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+  }
+
+  /**
+   * Gets the site of a pin, the first frame of its stack trace which isn't part of the JDK.
+   *
+   * @param stackTrace the stack trace of the pinned virtual thread, {@code null} if it wasn't recorded
+   * @return the site as {@code class.method:line}
+   */
+  private static String site(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return UNKNOWN_SITE;
+    }
+    for (RecordedFrame frame : stackTrace.getFrames()) {
+      String type = frame.getMethod().getType().getName();
+      if (frame.isJavaFrame() && !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+        return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+      }
+    }
+    return UNKNOWN_SITE;
+  }
+}
@@ -1,5 +1,6 @@
 package at.ac.tuwien.sepr.assignment.individual.config;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -24,6 +25,7 @@ public class WebConfig implements WebMvcConfigurer {
    */
   @Override
   public void addCorsMappings(CorsRegistry registry) {
-    registry.addMapping("/**").allowedMethods("GET", "POST", "OPTIONS", "HEAD", "DELETE", "PUT", "PATCH");
+    registry.addMapping("/**").allowedMethods("GET", "POST", "OPTIONS", "HEAD", "DELETE", "PUT", "PATCH")
+        .exposedHeaders(SearchCursor.NEXT_CURSOR_HEADER); // the frontend needs to read the cursor of the next page of a search
   }
 }
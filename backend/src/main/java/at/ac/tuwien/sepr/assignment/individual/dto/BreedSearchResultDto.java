@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the breeds found by a search, together with the version of the stored breeds they were found in.
+ *
+ * @param version the version of the stored breeds searched, which changes whenever the breeds change
+ * @param breeds the breeds matching the search
+ */
+public record BreedSearchResultDto(
+    String version,
+    List<BreedDto> breeds
+) {
+}
@@ -14,6 +14,7 @@ import java.time.LocalDate;
  * @param height      height of the horse
  * @param weight      weight of the horse
  * @param breed       breed of the horse
+ * @param version     version of the horse, incremented by every update (exposed as ETag), {@code null} if unknown
  */
 
 public record HorseDetailDto(
@@ -23,8 +24,13 @@ public record HorseDetailDto(
     LocalDate dateOfBirth,
     float height,
     float weight,
-    BreedDto breed
+    BreedDto breed,
+    Long version
 ) {
+  public HorseDetailDto(Long id, String name, Sex sex, LocalDate dateOfBirth, float height, float weight, BreedDto breed) {
+    this(id, name, sex, dateOfBirth, height, weight, breed, null);
+  }
+
   /**
    * Creates a new {@link HorseDetailDto} with the addition of the identifier {@code newId}.
    *
@@ -39,6 +45,25 @@ public record HorseDetailDto(
         dateOfBirth,
         height,
         weight,
-        breed);
+        breed,
+        version);
+  }
+
+  /**
+   * Creates a new {@link HorseDetailDto} with the version {@code expectedVersion}, which the horse must still have to be updated.
+   *
+   * @param expectedVersion the version of the horse, {@code null} to update the horse regardless of its version
+   * @return a new {@link HorseDetailDto}
+   */
+  public HorseDetailDto withVersion(Long expectedVersion) {
+    return new HorseDetailDto(
+        id,
+        name,
+        sex,
+        dateOfBirth,
+        height,
+        weight,
+        breed,
+        expectedVersion);
   }
 }
@@ -4,6 +4,7 @@ import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.util.Set;
 
 /**
  * DTO to bundle the query parameters used in searching horses.
@@ -15,6 +16,8 @@ import java.time.LocalDate;
  * @param bornLatest   latest birth time of the horse
  * @param breed        breed of the horse
  * @param limit        the maximum amount of horses one wants as the result
+ * @param cursor       the encoded {@link SearchCursor} of the page to get, {@code null} for the first page
+ * @param breedIds     the IDs of the breeds the horse can be of, combined with {@code breed} if both are given
  */
 
 public record HorseSearchDto(
@@ -25,6 +28,8 @@ public record HorseSearchDto(
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     LocalDate bornLatest,
     String breed,
-    Integer limit
+    Integer limit,
+    String cursor,
+    Set<Long> breedIds
 ) {
 }
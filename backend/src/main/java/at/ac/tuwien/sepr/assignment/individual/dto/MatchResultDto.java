@@ -0,0 +1,14 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO with the result of a single match of a tournament, the winner advances from the round of the match to the next round.
+ * The round guards against recording the same result twice, a horse can only win the match of the round it currently reached.
+ *
+ * @param horseId the id of the horse which won the match
+ * @param round the round the match was played in, the round currently reached by the horse
+ */
+public record MatchResultDto(
+    long horseId,
+    Long round
+) {
+}
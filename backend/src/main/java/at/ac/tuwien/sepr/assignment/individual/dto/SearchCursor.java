@@ -0,0 +1,66 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last element of a page of search results, used for keyset pagination.
+ * The next page starts after the element with this sort key and id, so deep pages cost the same as the first one.
+ * Clients only see the encoded form, which they send back unchanged as the {@code cursor} search parameter.
+ *
+ * @param sortKey the value of the column the search results are ordered by
+ * @param id      the identifier of the element, breaks ties between elements with the same sort key
+ */
+public record SearchCursor(
+    String sortKey,
+    long id
+) {
+  /** Name of the response header which contains the cursor of the next page. */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final char SEPARATOR = ':';
+
+  /**
+   * Creates the cursor pointing after the given horse, horses are ordered by their name.
+   *
+   * @param horse the last horse of the current page
+   * @return the cursor of the next page
+   */
+  public static SearchCursor after(HorseListDto horse) {
+    return new SearchCursor(horse.name(), horse.id());
+  }
+
+  /**
+   * Creates the cursor pointing after the given tournament, tournaments are ordered by their start date.
+   *
+   * @param tournament the last tournament of the current page
+   * @return the cursor of the next page
+   */
+  public static SearchCursor after(TournamentListDto tournament) {
+    return new SearchCursor(tournament.startDate().toString(), tournament.id());
+  }
+
+  /**
+   * Encodes this cursor into an opaque token which can be passed around as a URL parameter.
+   *
+   * @return the encoded cursor
+   */
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString((id + String.valueOf(SEPARATOR) + sortKey).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token created by {@link #encode()}.
+   *
+   * @param cursor the encoded cursor
+   * @return the decoded cursor
+   * @throws IllegalArgumentException if the given token is not a valid cursor
+   */
+  public static SearchCursor decode(String cursor) {
+    String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    int separatorIndex = decoded.indexOf(SEPARATOR);
+    if (separatorIndex < 0) {
+      throw new IllegalArgumentException("The cursor " + cursor + " is malformed");
+    }
+    return new SearchCursor(decoded.substring(separatorIndex + 1), Long.parseLong(decoded.substring(0, separatorIndex)));
+  }
+}
@@ -0,0 +1,17 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO for the changes of the standings of a tournament, pushed to the subscribers of its live standings.
+ * It only contains the participants whose standing (or data) changed since the previous event, a client applies it
+ * by replacing its copies of these participants. Applying the same delta more than once doesn't change the result.
+ *
+ * @param tournamentId the ID of the tournament
+ * @param version the version of the standings after the changes, to be used in {@code If-Match} when updating them
+ * @param participants the changed participants with their current standing
+ */
+public record StandingsDeltaDto(
+    long tournamentId,
+    Long version,
+    TournamentDetailParticipantDto[] participants
+) {
+}
@@ -10,12 +10,17 @@ import java.time.LocalDate;
  * @param startDate the start date of the tournament
  * @param endDate the end date of the tournament
  * @param participants the horses taking part in this tournament and their standing in it
+ * @param version the version of the standings of the tournament, incremented by every update (exposed as ETag), {@code null} if unknown
  */
 public record TournamentDetailDto(
     long id,
     String name,
     LocalDate startDate,
     LocalDate endDate,
-    TournamentDetailParticipantDto[] participants
+    TournamentDetailParticipantDto[] participants,
+    Long version
 ) {
+  public TournamentDetailDto(long id, String name, LocalDate startDate, LocalDate endDate, TournamentDetailParticipantDto[] participants) {
+    this(id, name, startDate, endDate, participants, null);
+  }
 }
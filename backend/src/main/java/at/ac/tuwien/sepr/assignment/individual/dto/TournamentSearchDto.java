@@ -12,6 +12,7 @@ import java.time.LocalDate;
  * @param earliestTournamentDay the earliest time in which one day of a tournament can take place
  * @param latestTournamentDay the latest time in which one day of a tournament can take place
  * @param limit the maximum amount of tournaments one wants as the result
+ * @param cursor the encoded {@link SearchCursor} of the page to get, {@code null} for the first page
  */
 public record TournamentSearchDto(
     String name,
@@ -19,6 +20,7 @@ public record TournamentSearchDto(
     LocalDate earliestTournamentDay,
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     LocalDate latestTournamentDay,
-    Integer limit
+    Integer limit,
+    String cursor
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dto class for the immutable snapshot of the standings of a finalized tournament.
+ *
+ * @param tournamentId identifier of the finalized tournament
+ * @param standings the standings of the tournament (a {@link TournamentDetailDto}) serialized as JSON when it was finalized
+ * @param finalizedAt the point in time the tournament was finalized
+ */
+public record TournamentSnapshotDto(
+    long tournamentId,
+    byte[] standings,
+    LocalDateTime finalizedAt
+) {
+}
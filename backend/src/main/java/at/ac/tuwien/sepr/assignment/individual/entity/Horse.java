@@ -14,6 +14,7 @@ public class Horse {
   private float height;
   private float weight;
   private Long breedId;
+  private long version; // incremented by every update
 
   public Long getId() {
     return id;
@@ -78,6 +79,15 @@ public class Horse {
     return this;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public Horse setVersion(long version) {
+    this.version = version;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "Horse{"
@@ -88,6 +98,7 @@ public class Horse {
         + ", height=" + height
         + ", weight=" + weight
         + ", breed=" + breedId
+        + ", version=" + version
         + '}';
   }
 }
@@ -10,6 +10,7 @@ public class Tournament {
   private String name;
   private LocalDate startDate;
   private LocalDate endDate;
+  private long version; // incremented by every update
 
   public long getId() {
     return id;
@@ -47,6 +48,15 @@ public class Tournament {
     return this;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public Tournament setVersion(long version) {
+    this.version = version;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "Tournament{"
@@ -54,6 +64,7 @@ public class Tournament {
         + ", name='" + name + '\''
         + ", startDate=" + startDate
         + ", endDate=" + endDate
+        + ", version=" + version
         + '}';
   }
 }
@@ -0,0 +1,12 @@
+package at.ac.tuwien.sepr.assignment.individual.exception;
+
+/**
+ * Exception that signals, that an update was based on an outdated version of the resource,
+ * because the resource was changed by someone else in the meantime.
+ * The update was not applied, the client has to read the resource again before retrying it.
+ */
+public class VersionMismatchException extends Exception {
+  public VersionMismatchException(String message) {
+    super(message);
+  }
+}
@@ -64,7 +64,8 @@ public class HorseMapper {
         horse.getDateOfBirth(),
         horse.getHeight(),
         horse.getWeight(),
-        breedFromMap(horse, breeds)
+        breedFromMap(horse, breeds),
+        horse.getVersion()
     );
   }
 
@@ -4,6 +4,7 @@ import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -36,4 +37,26 @@ public interface BreedDao {
    * @return the breeds where all given parameters match.
    */
   Collection<Breed> search(BreedSearchDto searchParams);
-}
\ No newline at end of file
+
+  /**
+   * Get the breeds that match the given search parameters, like {@link #search(BreedSearchDto)},
+   * together with the version of the breeds they were found in.
+   * The version changes whenever the breeds change, so it can be used to check whether breeds known by a client are still up to date.
+   *
+   * @param searchParams the parameters to use in searching.
+   * @return the breeds where all given parameters match, and the version of the breeds searched
+   */
+  VersionedBreeds searchWithVersion(BreedSearchDto searchParams);
+
+  /**
+   * Breeds read from one version of the breeds.
+   *
+   * @param version the version of the breeds they were read from
+   * @param breeds the breeds
+   */
+  record VersionedBreeds(
+      String version,
+      List<Breed> breeds
+  ) {
+  }
+}
@@ -3,6 +3,7 @@ package at.ac.tuwien.sepr.assignment.individual.persistence;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Component;
 import javax.sql.DataSource;
 import java.lang.invoke.MethodHandles;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * This component is only created, if the profile {@code datagen} is active
@@ -20,13 +22,17 @@ import java.sql.SQLException;
 @Profile("datagen")
 public class DataGeneratorBean {
   private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  // the tables changed by the scripts, published as changed so that copies of them kept in memory are dropped
+  private static final List<String> TABLE_NAMES = List.of("breed", "horse", "tournament", "horse_mapped_to_tournament", "tournament_snapshot");
   private final DataSource dataSource;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Executed once when the component is instantiated. Inserts some dummy data.
    */
-  public DataGeneratorBean(DataSource dataSource) {
+  public DataGeneratorBean(DataSource dataSource, ApplicationEventPublisher eventPublisher) {
     this.dataSource = dataSource;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -42,6 +48,7 @@ public class DataGeneratorBean {
       ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/insertData.sql"));
       LOGGER.info("Finished generating data without error.");
     }
+    publishTablesChanged();
   }
 
   /**
@@ -56,5 +63,10 @@ public class DataGeneratorBean {
       ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/deleteData.sql"));
       LOGGER.info("Finished clearing data without error");
     }
+    publishTablesChanged();
+  }
+
+  private void publishTablesChanged() {
+    TABLE_NAMES.forEach(tableName -> eventPublisher.publishEvent(new TableChangedEvent(tableName)));
   }
 }
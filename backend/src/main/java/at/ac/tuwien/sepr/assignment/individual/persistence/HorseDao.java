@@ -5,8 +5,11 @@ import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for horses.
@@ -24,18 +27,29 @@ public interface HorseDao {
    */
   Collection<Horse> search(HorseSearchDto searchParameters);
 
+  /**
+   * Get the horses that match the given search parameters as a stream, which reads the rows from the database while it is consumed.
+   * The stream holds a database connection until it is closed, so it must be closed after use (e.g. with try-with-resources).
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @return the horses where all given parameters match.
+   */
+  Stream<Horse> searchAsStream(HorseSearchDto searchParameters);
+
 
   /**
    * Update the horse with the ID given in {@code horse}
    * with the data given in {@code horse}
    * in the persistent data store.
+   * If {@code horse} has a version, the horse is only updated if it still has this version.
    *
    * @param horse the horse to update
-   * @return the updated horse
+   * @return the updated horse, with its incremented version
    * @throws NotFoundException if the Horse with the given ID does not exist in the persistent data store
    * @throws ConflictException if the breed of the horse with the given ID was not found in the persistent data store
+   * @throws VersionMismatchException if the horse was updated since the given version was read
    */
-  Horse update(HorseDetailDto horse) throws NotFoundException, ConflictException;
+  Horse update(HorseDetailDto horse) throws NotFoundException, ConflictException, VersionMismatchException;
 
   /**
    * Get a horse by its ID from the persistent data store.
@@ -46,6 +60,16 @@ public interface HorseDao {
    */
   Horse getById(long id) throws NotFoundException;
 
+  /**
+   * Get all horses with the given IDs from the persistent data store.
+   * All IDs are looked up at once, so that the missing ones can be reported together.
+   *
+   * @param ids the IDs of the horses to get
+   * @return the horses mapped by their ID
+   * @throws NotFoundException if at least one of the horses with the given IDs does not exist in the persistent data store
+   */
+  Map<Long, Horse> getByIds(Collection<Long> ids) throws NotFoundException;
+
   /**
    * Add the horse with the data given in {@code horse}
    * in the persistent data store.
@@ -1,11 +1,13 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsParticipantsWithPointsDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Standing;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,13 +25,12 @@ public interface HorseMappedToTournamentDao {
   long countTournamentsForHorse(long horseId);
 
   /**
-   * Counts how often a single horse to tournament mapping exist in the database (it can either exist (1) or it doesn't (0)).
+   * Counts the horses taking part in the tournament.
    *
-   * @param horseId the id of the horse of which the mapping to the tournament should be counted
-   * @param tournamentId the id of the tournament of which the mapping to the horse should be counted
-   * @return the occurrence count of the given mapping in the database
+   * @param tournamentId the id of the tournament
+   * @return the number of horses taking part in this tournament
    */
-  int countOccurrenceOfEntry(long horseId, long tournamentId);
+  int countHorsesInTournament(long tournamentId);
 
   /**
    * Retrieves the ID of every horse which takes part in this tournament (represented by the given tournamentId)
@@ -41,24 +42,26 @@ public interface HorseMappedToTournamentDao {
   List<Standing> getHorsesInTournament(long tournamentId) throws NotFoundException;
 
   /**
-   * Add the horse id mapped to the tournament id in the persistent data store.
+   * Add all the horse ids mapped to the tournament id in the persistent data store using a single batch.
+   * Duplicates are detected by the primary key of the mapping, so no lookup is done before inserting.
    *
-   * @param horseId the id of the horse which will be mapped to the tournament
-   * @param tournamentId the id of the tournament which will be mapped to the horse
-   * @return the new Standing for the horse in this tournament.
-   * @throws ConflictException if there already exists a mapping for this horse and tournament
+   * @param tournamentId the id of the tournament which will be mapped to the horses
+   * @param horseIds the ids of the horses which will be mapped to the tournament
+   * @return the new Standings for the horses in this tournament.
+   * @throws ConflictException if there already exists a mapping for one of these horses and the tournament
    */
-  Standing add(long horseId, long tournamentId) throws ConflictException;
+  List<Standing> addAll(long tournamentId, Collection<Long> horseIds) throws ConflictException;
 
   /**
-   * Updates the horse mapped to the tournament in the persistent data storage.
+   * Updates all the given horses mapped to the tournament in the persistent data storage using a single batch.
+   * The updated rows are not read again, the returned Standings are built from the given details.
    *
-   * @param horseTournamentDetails the details of the horse related to the tournament
    * @param tournamentId the identifier of the tournament
-   * @return the new Standing for the horse in this tournament.
-   * @throws NotFoundException if this horse to tournament mapping doesn't exist
+   * @param horsesTournamentDetails the details of the horses related to the tournament
+   * @return the new Standings for the horses in this tournament.
+   * @throws NotFoundException if one of these horse to tournament mappings doesn't exist
    */
-  Standing update(TournamentDetailParticipantDto horseTournamentDetails, long tournamentId) throws NotFoundException;
+  List<Standing> updateAll(long tournamentId, Collection<TournamentDetailParticipantDto> horsesTournamentDetails) throws NotFoundException;
 
   /**
    * Retrieves the Standing of the horse with the id horseId which takes part in this tournament with the id tournamentId
@@ -71,12 +74,37 @@ public interface HorseMappedToTournamentDao {
   Standing getSingleMapping(long horseId, long tournamentId) throws NotFoundException;
 
   /**
-   * Retrieves all Standings of a horse of each tournament it participated in which started earliest at the startDate and ended latest at the endDate
+   * Retrieves the Standing of the horse which reached the highest round among the horses with an entry number in the given range.
+   * In a consistent bracket this is the only horse of the range which can reach the round after the range, so a single row is read.
+   *
+   * @param tournamentId the id of the tournament
+   * @param firstEntryNumber the first entry number of the range
+   * @param lastEntryNumber the last entry number of the range (inclusive)
+   * @return the Standing of the furthest horse of the range, {@code null} if no horse of the range reached a round
+   */
+  Standing getFurthestInEntryRange(long tournamentId, long firstEntryNumber, long lastEntryNumber);
+
+  /**
+   * Advances the horse from the given round to the next round, if it still reached exactly the given round.
    *
    * @param horseId the id of the horse
+   * @param tournamentId the id of the tournament
+   * @param round the round the horse currently reached
+   * @throws ConflictException if the horse doesn't take part in the tournament or didn't reach exactly this round (anymore)
+   */
+  void advance(long horseId, long tournamentId, long round) throws ConflictException;
+
+  /**
+   * Retrieves every horse taking part in the tournament with the id tournamentId together with the points it collected
+   * in all tournaments which started earliest at the startDate and ended latest at the endDate.
+   * A horse gets 1 point for reaching round 2, 3 points for reaching round 3 and 5 points for reaching round 4 of a tournament.
+   *
+   * @param tournamentId the id of the tournament of which the horses should be retrieved
    * @param startDate the earliest tournament start date which is allowed
    * @param endDate the latest tournament end date which is allowed
-   * @return the list of all standings of this horse in tournaments in this timeframe
+   * @return the horses of this tournament with their current standing and their points in this timeframe
+   * @throws NotFoundException if no horse to tournament mapping was found for this tournament
    */
-  List<Standing> getTournamentsForHorseInTimeFrame(long horseId, LocalDate startDate, LocalDate endDate);
+  List<TournamentDetailsParticipantsWithPointsDto> getHorsesInTournamentWithPoints(long tournamentId, LocalDate startDate, LocalDate endDate)
+      throws NotFoundException;
 }
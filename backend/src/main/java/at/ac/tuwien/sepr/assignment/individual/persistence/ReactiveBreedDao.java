@@ -0,0 +1,48 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Non-blocking Data Access Object for breeds, used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link BreedDao}, which are only executed when the returned publishers are subscribed to.
+ */
+public interface ReactiveBreedDao {
+
+  /**
+   * Gets all breeds from the persistent data store.
+   *
+   * @return all breeds.
+   */
+  Flux<Breed> allBreeds();
+
+  /**
+   * Get the breeds with the given IDs from the persistent data store.
+   * IDs without a breed are ignored.
+   *
+   * @param breedIds the IDs of the breeds to get
+   * @return the breeds with the given IDs
+   */
+  Flux<Breed> findBreedsById(Set<Long> breedIds);
+
+  /**
+   * Get the breeds whose name contains the given name, ignoring the case.
+   *
+   * @param searchParams the parameters to search breeds by
+   * @return the breeds matching the parameters
+   */
+  Flux<Breed> search(BreedSearchDto searchParams);
+
+  /**
+   * Get the breeds whose name contains the given name, ignoring the case,
+   * together with the version of the stored breeds they were found in, which changes whenever the breeds change.
+   *
+   * @param searchParams the parameters to search breeds by
+   * @return the breeds matching the parameters, and the version of the breeds searched
+   */
+  Mono<BreedDao.VersionedBreeds> searchWithVersion(BreedSearchDto searchParams);
+}
@@ -0,0 +1,32 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking Data Access Object for horses, used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link HorseDao}, which are only executed when the returned publishers are subscribed to.
+ */
+public interface ReactiveHorseDao {
+
+  /**
+   * Get the horses that match the given search parameters.
+   * Parameters that are {@code null} are ignored.
+   * The name is considered a match, if the given parameter is a substring of the field in horse.
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @return the horses where all given parameters match.
+   */
+  Flux<Horse> search(HorseSearchDto searchParameters);
+
+  /**
+   * Get a horse by its ID from the persistent data store.
+   *
+   * @param id the ID of the horse to get
+   * @return the horse, failing with a {@link NotFoundException} if the horse with the given ID does not exist
+   */
+  Mono<Horse> getById(long id);
+}
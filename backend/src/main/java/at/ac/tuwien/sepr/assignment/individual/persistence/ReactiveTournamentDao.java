@@ -0,0 +1,43 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking Data Access Object for tournaments and the snapshots of finalized tournaments,
+ * used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link TournamentDao} and {@link TournamentSnapshotDao},
+ * which are only executed when the returned publishers are subscribed to.
+ */
+public interface ReactiveTournamentDao {
+
+  /**
+   * Get the tournaments that match the given search parameters.
+   * Parameters that are {@code null} are ignored.
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @return the tournaments where all given parameters match.
+   */
+  Flux<Tournament> search(TournamentSearchDto searchParameters);
+
+  /**
+   * Get a tournament together with its participants and their standings.
+   *
+   * @param id the ID of the tournament
+   * @return the details of the tournament, failing with a {@link NotFoundException} if the tournament doesn't exist or has no participants
+   */
+  Mono<TournamentDetailDto> getTournamentWithParticipantsById(long id);
+
+  /**
+   * Get the snapshot of a finalized tournament.
+   *
+   * @param tournamentId the ID of the tournament
+   * @return the snapshot of the tournament, empty if the tournament isn't finalized
+   */
+  Mono<TournamentSnapshotDto> findSnapshotById(long tournamentId);
+}
@@ -0,0 +1,71 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the changes of every table.
+ * Results computed from a table are still up to date as long as the counter of the table didn't change,
+ * which lets caches check their entries without asking the database.
+ * The DAOs report every write with {@link #changed(String)}, changes made by SQL scripts are reported with a {@link TableChangedEvent}.
+ */
+@Component
+public class TableChangeCounters {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the current number of changes of the table.
+   *
+   * @param tableName the name of the table
+   * @return the number of changes, which only ever increases
+   */
+  public long current(String tableName) {
+    return counter(tableName).get();
+  }
+
+  /**
+   * Reports a change of the table.
+   * Within a transaction, the change is counted again after the transaction completed,
+   * since results read before the commit didn't contain the change yet.
+   *
+   * @param tableName the name of the changed table
+   */
+  public void changed(String tableName) {
+    LOG.trace("changed({})", tableName);
+    AtomicLong counter = counter(tableName);
+    counter.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          counter.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * Counts the changes of tables made outside of the DAOs.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public void onTableChanged(TableChangedEvent event) {
+    counter(event.tableName()).incrementAndGet();
+  }
+
+  private AtomicLong counter(String tableName) {
+    return counters.computeIfAbsent(tableName.toLowerCase(Locale.ROOT), name -> new AtomicLong());
+  }
+}
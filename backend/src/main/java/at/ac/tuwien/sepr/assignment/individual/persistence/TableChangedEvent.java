@@ -0,0 +1,12 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+/**
+ * Application event published after the rows of a table were changed outside of its DAO, e.g. by an SQL script.
+ * Components keeping copies of the table in memory listen for it to drop their outdated copy.
+ *
+ * @param tableName the name of the changed table
+ */
+public record TableChangedEvent(
+    String tableName
+) {
+}
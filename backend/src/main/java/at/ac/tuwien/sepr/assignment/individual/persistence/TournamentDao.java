@@ -1,11 +1,14 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 
 import java.util.Collection;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for tournaments.
@@ -23,6 +26,15 @@ public interface TournamentDao {
    */
   Collection<Tournament> search(TournamentSearchDto searchParameters);
 
+  /**
+   * Get the tournaments that match the given search parameters as a stream, which reads the rows from the database while it is consumed.
+   * The stream holds a database connection until it is closed, so it must be closed after use (e.g. with try-with-resources).
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @return the tournaments where all given parameters match.
+   */
+  Stream<Tournament> searchAsStream(TournamentSearchDto searchParameters);
+
   /**
    * Add the tournament with the data given in {@code tournament}
    * in the persistent data store.
@@ -40,4 +52,39 @@ public interface TournamentDao {
    * @throws NotFoundException if the tournament with the given ID does not exist in the persistent data store
    */
   Tournament getTournamentDetailsById(long id) throws NotFoundException;
+
+  /**
+   * Increments the version of a tournament, if it still has the expected version.
+   * Used by operations which decide based on the current standings: they read the version before the standings,
+   * and increment it together with their changes, so concurrent changes based on the same standings can't both be committed.
+   * A concurrent transaction which already incremented the version lets this call wait until it is committed or rolled back.
+   *
+   * @param id the ID of the tournament
+   * @param expectedVersion the version of the tournament read before its standings
+   * @return the new version of the tournament
+   * @throws VersionMismatchException if the tournament doesn't have the expected version (anymore)
+   */
+  long incrementVersion(long id, long expectedVersion) throws VersionMismatchException;
+
+  /**
+   * Increments the version of a tournament, regardless of the version it has.
+   * Used by operations of clients which don't base their change on a version they know.
+   * A concurrent transaction which already incremented the version lets this call wait until it is committed or rolled back,
+   * so the new version shows whether the tournament was changed since its version was read.
+   *
+   * @param id the ID of the tournament
+   * @return the new version of the tournament
+   * @throws NotFoundException if the tournament with the given ID does not exist in the persistent data store
+   */
+  long incrementVersion(long id) throws NotFoundException;
+
+  /**
+   * Get a tournament together with all of its participants and their standings by the ID of the tournament.
+   * The tournament, the horse to tournament mapping and the horses are read with a single joined query.
+   *
+   * @param id the ID of the tournament to get
+   * @return the details of the tournament including the name, date of birth, entry number and reached round of every participant
+   * @throws NotFoundException if the tournament with the given ID does not exist or no horse takes part in it
+   */
+  TournamentDetailDto getTournamentWithParticipantsById(long id) throws NotFoundException;
 }
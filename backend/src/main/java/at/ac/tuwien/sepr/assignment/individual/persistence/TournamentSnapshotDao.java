@@ -0,0 +1,36 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+
+/**
+ * Data Access Object for the snapshots of the standings of finalized tournaments.
+ * Implements access functionality to the application's persistent data store regarding the tournament_snapshot table.
+ * A snapshot is only ever added, it is never changed afterwards.
+ */
+public interface TournamentSnapshotDao {
+
+  /**
+   * Get the snapshot of a finalized tournament.
+   *
+   * @param tournamentId the ID of the tournament
+   * @return the snapshot of the tournament, {@code null} if the tournament isn't finalized
+   */
+  TournamentSnapshotDto findById(long tournamentId);
+
+  /**
+   * Checks whether the tournament is finalized, without reading its snapshot.
+   *
+   * @param tournamentId the ID of the tournament
+   * @return true if a snapshot of the tournament exists
+   */
+  boolean existsById(long tournamentId);
+
+  /**
+   * Add the snapshot of a tournament which was finalized.
+   *
+   * @param snapshot the snapshot to add
+   * @throws ConflictException if the tournament already has a snapshot
+   */
+  void add(TournamentSnapshotDto snapshot) throws ConflictException;
+}
@@ -0,0 +1,120 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable in-memory snapshot of the breed table.
+ * The breeds almost never change, so they are read once and served from memory until the table changes.
+ * The breeds handed out are copies, so the snapshot can't be modified by its users.
+ */
+final class BreedCatalog {
+  private final Map<Long, Breed> breedsById;
+  private final Map<Long, String> normalizedNamesById;
+  private final String version;
+
+  private BreedCatalog(Map<Long, Breed> breedsById, Map<Long, String> normalizedNamesById, String version) {
+    this.breedsById = breedsById;
+    this.normalizedNamesById = normalizedNamesById;
+    this.version = version;
+  }
+
+  /**
+   * Creates the snapshot of the given breeds.
+   *
+   * @param breeds all breeds of the breed table
+   * @return the snapshot
+   */
+  static BreedCatalog of(Collection<Breed> breeds) {
+    Map<Long, Breed> breedsById = new LinkedHashMap<>();
+    Map<Long, String> normalizedNamesById = new LinkedHashMap<>();
+    MessageDigest digest = sha256();
+    for (Breed breed : breeds) {
+      breedsById.put(breed.getId(), copy(breed));
+      normalizedNamesById.put(breed.getId(), breed.getName().toUpperCase(Locale.ROOT));
+      digest.update((breed.getId() + ":" + breed.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+    // the version only depends on the content, so it stays the same across restarts as long as the breeds don't change
+    String version = HexFormat.of().formatHex(digest.digest(), 0, 16);
+    return new BreedCatalog(Map.copyOf(breedsById), Collections.unmodifiableMap(normalizedNamesById), version);
+  }
+
+  /**
+   * Gets the version of the snapshot, which changes whenever the breeds change.
+   *
+   * @return the version of the snapshot
+   */
+  String version() {
+    return version;
+  }
+
+  /**
+   * Gets all breeds.
+   *
+   * @return copies of all breeds
+   */
+  List<Breed> all() {
+    return normalizedNamesById.keySet().stream()
+        .map(id -> copy(breedsById.get(id)))
+        .toList();
+  }
+
+  /**
+   * Gets the breeds with the given IDs, IDs without a breed (including {@code null}) are ignored.
+   *
+   * @param ids the IDs of the breeds
+   * @return copies of the found breeds
+   */
+  List<Breed> byIds(Collection<Long> ids) {
+    return ids.stream()
+        .filter(Objects::nonNull)
+        .distinct()
+        .map(breedsById::get)
+        .filter(Objects::nonNull)
+        .map(BreedCatalog::copy)
+        .toList();
+  }
+
+  /**
+   * Gets the breeds whose name contains the given name, ignoring the case.
+   *
+   * @param name the part of the name to search for, {@code null} matches no breed
+   * @param limit the maximum number of breeds to return, {@code null} for all
+   * @return copies of the matching breeds
+   */
+  List<Breed> search(String name, Integer limit) {
+    if (name == null) {
+      return List.of();
+    }
+    String normalizedName = name.toUpperCase(Locale.ROOT);
+    return normalizedNamesById.entrySet().stream()
+        .filter(entry -> entry.getValue().contains(normalizedName))
+        .limit(limit == null ? Long.MAX_VALUE : limit)
+        .map(entry -> copy(breedsById.get(entry.getKey())))
+        .toList();
+  }
+
+  private static Breed copy(Breed breed) {
+    return new Breed().setId(breed.getId()).setName(breed.getName());
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // This should never happen - every Java platform has to support SHA-256!!
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -4,10 +4,11 @@ import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -15,12 +16,14 @@ import java.lang.invoke.MethodHandles;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Provides access functionality to the application's persistent data store regarding breeds.
  * This implementation utilizes JDBC for database access.
+ * The breed table is small and almost never changes, so it is read once into a {@link BreedCatalog}
+ * and all queries are answered from this snapshot until a {@link TableChangedEvent} for the breed table is published.
  */
 @Repository
 public class BreedJdbcDao implements BreedDao {
@@ -28,15 +31,11 @@ public class BreedJdbcDao implements BreedDao {
   private static final String TABLE_NAME = "breed";
   private static final String SQL_ALL =
       "SELECT * FROM " + TABLE_NAME;
-  private static final String SQL_FIND_BY_IDS =
-      "SELECT * FROM " + TABLE_NAME
-          + " WHERE id IN (:ids)";
-  private static final String SQL_SEARCH =
-      "SELECT * FROM " + TABLE_NAME
-          + " WHERE UPPER(name) LIKE UPPER('%'||:name||'%')";
-  private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
 
   private final NamedParameterJdbcTemplate jdbcTemplate;
+  // a lock instead of a monitor, a virtual thread blocked on the database while holding a monitor would pin its carrier thread
+  private final ReentrantLock catalogLock = new ReentrantLock();
+  private volatile BreedCatalog catalog; // null until the breeds are first needed and after they changed
 
   public BreedJdbcDao(NamedParameterJdbcTemplate jdbcTemplate) {
     this.jdbcTemplate = jdbcTemplate;
@@ -45,37 +44,70 @@ public class BreedJdbcDao implements BreedDao {
   @Override
   public Collection<Breed> allBreeds() {
     LOG.trace("allBreeds()");
-    try {
-      return jdbcTemplate.query(SQL_ALL, this::mapRow);
-    } catch (DataAccessException e) {
-      // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Couldn't retrieve all breeds", e);
-    }
+    return catalog().all();
   }
 
   @Override
   public Collection<Breed> findBreedsById(Set<Long> breedIds) {
     LOG.trace("findBreedsById({})", breedIds);
-    try {
-      return jdbcTemplate.query(SQL_FIND_BY_IDS, Map.of("ids", breedIds), this::mapRow);
-    } catch (DataAccessException e) {
-      // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Couldn't retrieve chosen breeds", e);
-    }
+    return catalog().byIds(breedIds);
   }
 
   @Override
   public Collection<Breed> search(BreedSearchDto searchParams) {
     LOG.trace("search({})", searchParams);
-    String query = SQL_SEARCH;
-    if (searchParams.limit() != null) {
-      query += SQL_LIMIT_CLAUSE;
+    return catalog().search(searchParams.name(), searchParams.limit());
+  }
+
+  @Override
+  public VersionedBreeds searchWithVersion(BreedSearchDto searchParams) {
+    LOG.trace("searchWithVersion({})", searchParams);
+    BreedCatalog current = catalog(); // the version has to be the one of the breeds searched, even if they change meanwhile
+    return new VersionedBreeds(current.version(), current.search(searchParams.name(), searchParams.limit()));
+  }
+
+  /**
+   * Drops the snapshot of the breeds when the breed table was changed, the next access reads the breeds again.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public void onTableChanged(TableChangedEvent event) {
+    if (TABLE_NAME.equalsIgnoreCase(event.tableName())) {
+      LOG.debug("Breeds changed, dropping the breed catalog");
+      catalogLock.lock();
+      try {
+        catalog = null;
+      } finally {
+        catalogLock.unlock();
+      }
     }
+  }
+
+  private BreedCatalog catalog() {
+    BreedCatalog current = catalog;
+    return current != null ? current : loadCatalog();
+  }
+
+  /**
+   * Reads the breeds into a new snapshot.
+   * The snapshot is loaded while holding the same lock as {@link #onTableChanged(TableChangedEvent)},
+   * so a change can't be missed by a snapshot which is read at the same time.
+   *
+   * @return the current snapshot of the breeds
+   */
+  private BreedCatalog loadCatalog() {
+    catalogLock.lock();
     try {
-      return jdbcTemplate.query(query, new BeanPropertySqlParameterSource(searchParams), this::mapRow);
+      if (catalog == null) {
+        catalog = BreedCatalog.of(jdbcTemplate.query(SQL_ALL, this::mapRow));
+      }
+      return catalog;
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Couldn't retrieve chosen breeds", e);
+      throw new FatalException("Couldn't retrieve all breeds", e);
+    } finally {
+      catalogLock.unlock();
     }
   }
 
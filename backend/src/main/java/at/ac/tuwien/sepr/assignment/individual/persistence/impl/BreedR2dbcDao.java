@@ -0,0 +1,114 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveBreedDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Provides non-blocking access to the breeds in the application's persistent data store ("reactive" profile).
+ * This implementation utilizes R2DBC for database access.
+ * Like {@link BreedJdbcDao}, the breeds are read once into a {@link BreedCatalog}
+ * and all queries are answered from this snapshot until a {@link TableChangedEvent} for the breed table is published.
+ */
+@Repository
+@Profile("reactive")
+public class BreedR2dbcDao implements ReactiveBreedDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String TABLE_NAME = "breed";
+  private static final String SQL_ALL =
+      "SELECT * FROM " + TABLE_NAME;
+  // Reactor doesn't expire cached values with this time to live
+  private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+  private final DatabaseClient databaseClient;
+  private volatile Mono<BreedCatalog> catalog; // replaced by a new, not yet read snapshot after the breeds changed
+
+  public BreedR2dbcDao(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.catalog = loadCatalog();
+  }
+
+  @Override
+  public Flux<Breed> allBreeds() {
+    LOG.trace("allBreeds()");
+    return catalog.flatMapIterable(BreedCatalog::all);
+  }
+
+  @Override
+  public Flux<Breed> findBreedsById(Set<Long> breedIds) {
+    LOG.trace("findBreedsById({})", breedIds);
+    return catalog.flatMapIterable(breeds -> breeds.byIds(breedIds));
+  }
+
+  @Override
+  public Flux<Breed> search(BreedSearchDto searchParams) {
+    LOG.trace("search({})", searchParams);
+    return catalog.flatMapIterable(breeds -> breeds.search(searchParams.name(), searchParams.limit()));
+  }
+
+  @Override
+  public Mono<BreedDao.VersionedBreeds> searchWithVersion(BreedSearchDto searchParams) {
+    LOG.trace("searchWithVersion({})", searchParams);
+    return catalog.map(breeds -> new BreedDao.VersionedBreeds(breeds.version(), breeds.search(searchParams.name(), searchParams.limit())));
+  }
+
+  /**
+   * Drops the snapshot of the breeds when the breed table was changed, the next access reads the breeds again.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public void onTableChanged(TableChangedEvent event) {
+    if (TABLE_NAME.equalsIgnoreCase(event.tableName())) {
+      LOG.debug("Breeds changed, dropping the breed catalog");
+      catalog = loadCatalog();
+    }
+  }
+
+  /**
+   * Creates the snapshot of the breeds, which is read by its first subscriber and shared with all later ones.
+   * A failed read isn't shared, the next subscriber reads the breeds again.
+   *
+   * @return the snapshot of the breeds
+   */
+  private Mono<BreedCatalog> loadCatalog() {
+    return databaseClient.sql(SQL_ALL)
+        .map(BreedR2dbcDao::mapRow)
+        .all()
+        .collectList()
+        .map(BreedCatalog::of)
+        // This should never happen - the execution of the SQL query caused an exception!!
+        .onErrorMap(DataAccessException.class, e -> new FatalException("Couldn't retrieve all breeds", e))
+        .cache(breeds -> FOREVER, e -> Duration.ZERO, () -> Duration.ZERO);
+  }
+
+  /**
+   * Maps a row of the breed table to a Breed object.
+   *
+   * @param row the row containing the breed
+   * @return a Breed object mapped from the row
+   */
+  private static Breed mapRow(Readable row) {
+    return new Breed()
+        .setId(row.get("id", Long.class))
+        .setName(row.get("name", String.class))
+        ;
+  }
+}
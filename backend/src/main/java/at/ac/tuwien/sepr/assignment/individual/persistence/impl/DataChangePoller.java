@@ -0,0 +1,99 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads the change counters maintained by the {@link DataChangeTrigger} and publishes a {@link TableChangedEvent} for every changed table,
+ * so the copies of the tables cached by this backend instance are dropped when any instance sharing the database changes them.
+ * Changes made by this instance are seen as well, which only drops its caches once more.
+ * Since a counter is only compared with its last value read, no change can be missed, however many polls ago it was committed.
+ * The counters of a table are spread over several slots, which are added up here.
+ */
+@Component
+public class DataChangePoller {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String SQL_SELECT_ALL = "SELECT table_name, SUM(version) AS version FROM " + DataChangeTrigger.TABLE_NAME
+      + " GROUP BY table_name";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Map<String, Long> lastVersions = new HashMap<>();
+  // a lock instead of a monitor, a virtual thread blocked on the database while holding a monitor would pin its carrier thread
+  private final ReentrantLock pollLock = new ReentrantLock();
+
+  public DataChangePoller(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Starts counting the changes from the current counters, the caches of this instance don't contain older data.
+   */
+  @PostConstruct
+  public void start() {
+    LOG.trace("start()");
+    pollLock.lock();
+    try {
+      readVersions().forEach(change -> lastVersions.put(change.tableName(), change.version()));
+    } catch (DataAccessException e) {
+      // This should never happen - the data_change table is created together with the schema!!
+      throw new FatalException("Failed to read the data change counters", e);
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  /**
+   * Reads the change counters and publishes the tables changed since the last poll.
+   * Called regularly, with the configured delay between two polls.
+   */
+  @Scheduled(fixedDelayString = "${data-change.poll-interval}")
+  public void poll() {
+    LOG.trace("poll()");
+    pollLock.lock();
+    try {
+      List<DataChange> changes;
+      try {
+        changes = readVersions();
+      } catch (DataAccessException e) {
+        LOG.warn("Failed to read the data change counters, retrying with the next poll", e);
+        return;
+      }
+      for (DataChange change : changes) {
+        Long lastVersion = lastVersions.put(change.tableName(), change.version());
+        if (!Objects.equals(lastVersion, change.version())) {
+          LOG.debug("Table {} changed in the database", change.tableName());
+          eventPublisher.publishEvent(new TableChangedEvent(change.tableName()));
+        }
+      }
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  private List<DataChange> readVersions() {
+    return jdbcTemplate.query(SQL_SELECT_ALL, (result, rowNum) -> new DataChange(result.getString("table_name"), result.getLong("version")));
+  }
+
+  private record DataChange(
+      String tableName,
+      long version
+  ) {
+  }
+}
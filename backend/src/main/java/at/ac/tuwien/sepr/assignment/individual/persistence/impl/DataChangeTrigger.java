@@ -0,0 +1,47 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * H2 trigger counting the changes of the table it is created on in the {@code data_change} table.
+ * It is created in {@code createSchema.sql} for every table cached by the backend,
+ * so changes made by any backend instance sharing the database (or by SQL scripts) are seen by all instances,
+ * see {@link DataChangePoller}.
+ * The counter is increased in the transaction of the change, so the new count becomes visible together with the change.
+ *
+ * <p>The increased counter row stays locked until the transaction ends, so transactions increasing the same row wait for each other.
+ * To let concurrent writers of a table commit independently, every table has {@link #SLOTS} counters, and every thread
+ * increases its own one. The poller adds them up, since each of them only grows, their sum changes with every change.
+ * A transaction changing many rows increases the same counter for each of them, which only it has locked already.
+ */
+public class DataChangeTrigger implements Trigger {
+  static final String TABLE_NAME = "data_change";
+  static final int SLOTS = 16;
+  // the counter row is added by the first change counted with it
+  private static final String SQL_INCREMENT = "MERGE INTO " + TABLE_NAME + " d"
+      + " USING (VALUES (CAST(?1 AS VARCHAR(64)), CAST(?2 AS INT))) AS c (table_name, slot)"
+      + " ON d.table_name = c.table_name AND d.slot = c.slot"
+      + " WHEN MATCHED THEN UPDATE SET version = d.version + 1"
+      + " WHEN NOT MATCHED THEN INSERT (table_name, slot, version) VALUES (c.table_name, c.slot, 1)";
+
+  private String tableName;
+
+  @Override
+  public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+    this.tableName = tableName.toLowerCase(Locale.ROOT);
+  }
+
+  @Override
+  public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+    try (PreparedStatement increment = conn.prepareStatement(SQL_INCREMENT)) {
+      increment.setString(1, tableName);
+      increment.setInt(2, (int) (Thread.currentThread().threadId() % SLOTS));
+      increment.executeUpdate();
+    }
+  }
+}
@@ -1,35 +1,52 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangeCounters;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.lang.invoke.MethodHandles;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Provides access functionality to the application's persistent data store regarding horses.
@@ -39,20 +56,42 @@ import java.util.List;
 public class HorseJdbcDao implements HorseDao {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final String TABLE_NAME = "horse";
+  // only the id is returned as generated key, otherwise the generated name_normalized column would be returned as well
+  private static final String[] GENERATED_KEY_COLUMNS = {"id"};
   private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+  private static final String SQL_SELECT_BY_IDS = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (:ids)";
+  private static final int MAX_IDS_PER_QUERY = 1000; // keeps the IN list of a single query at a size the database can handle well
 
   private static final String SQL_SELECT_SEARCH = "SELECT  "
       + "    h.id as \"id\", h.name as \"name\", h.sex as \"sex\", h.date_of_birth as \"date_of_birth\""
-      + "    , h.height as \"height\", h.weight as \"weight\", h.breed_id as \"breed_id\""
-      + " FROM " + TABLE_NAME + " h LEFT OUTER JOIN breed b ON (h.breed_id = b.id)"
-      + " WHERE (:name IS NULL OR UPPER(h.name) LIKE UPPER('%'||:name||'%'))"
-      + "  AND (:sex IS NULL OR :sex = sex)"
-      + "  AND (:bornEarliest IS NULL OR :bornEarliest <= h.date_of_birth)"
-      + "  AND (:bornLatest IS NULL OR :bornLatest >= h.date_of_birth)"
-      + "  AND (:breed IS NULL OR UPPER(b.name) LIKE UPPER('%'||:breed||'%'))";
+      + "    , h.height as \"height\", h.weight as \"weight\", h.breed_id as \"breed_id\", h.version as \"version\""
+      + " FROM " + TABLE_NAME + " h";
+
+  // the id makes the order stable for horses with the same name, which is needed for paging
+  private static final String SQL_ORDER_BY_CLAUSE = " ORDER BY h.name, h.id";
 
   private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
 
+  // a search statement only contains the predicates of the filters it uses, see SearchStatements
+  private static final SearchStatements SEARCH_STATEMENTS = new SearchStatements(SQL_SELECT_SEARCH, SQL_ORDER_BY_CLAUSE, SQL_LIMIT_CLAUSE);
+  private static final SearchStatements.Predicate NAME_PREDICATE =
+      SEARCH_STATEMENTS.predicate("h.name_normalized LIKE UPPER('%'||:name||'%')");
+  // names too short for a trigram are only filtered by LIKE, otherwise the trigrams narrow down the candidates first
+  private static final SearchStatements.Predicate NAME_TRIGRAMS_PREDICATE =
+      SEARCH_STATEMENTS.predicate(NameTrigrams.candidateCondition("h.id", TABLE_NAME, "nameTrigrams"));
+  private static final SearchStatements.Predicate SEX_PREDICATE =
+      SEARCH_STATEMENTS.predicate("h.sex = :sex");
+  private static final SearchStatements.Predicate BORN_EARLIEST_PREDICATE =
+      SEARCH_STATEMENTS.predicate("h.date_of_birth >= :bornEarliest");
+  private static final SearchStatements.Predicate BORN_LATEST_PREDICATE =
+      SEARCH_STATEMENTS.predicate("h.date_of_birth <= :bornLatest");
+  // the breed filter is resolved to the IDs of the matching breeds first, so the horses are only filtered by the indexed breed_id
+  private static final SearchStatements.Predicate BREED_IDS_PREDICATE =
+      SEARCH_STATEMENTS.predicate("h.breed_id IN (:breedIds)");
+  // keyset of the previous page
+  private static final SearchStatements.Predicate CURSOR_PREDICATE =
+      SEARCH_STATEMENTS.predicate("(h.name > :cursorName OR (h.name = :cursorName AND h.id > :cursorId))");
+
   private static String SQL_INSERT_WITH_BREED = "INSERT INTO "
       + TABLE_NAME
       + " (name, sex, date_of_birth, height, weight, breed_id) VALUES (?, ?, ?, ?, ?, ?)";
@@ -68,7 +107,8 @@ public class HorseJdbcDao implements HorseDao {
       + "  , height = ?"
       + "  , weight = ?"
       + "  , breed_id = ?"
-      + " WHERE id = ?";
+      + "  , version = version + 1"
+      + " WHERE id = ? AND version = COALESCE(?, version)";
 
   private static final String SQL_UPDATE_WITHOUT_BREED = "UPDATE " + TABLE_NAME
       + " SET name = ?"
@@ -76,28 +116,61 @@ public class HorseJdbcDao implements HorseDao {
       + "  , date_of_birth = ?"
       + "  , height = ?"
       + "  , weight = ?"
-      + " WHERE id = ?";
+      + "  , version = version + 1"
+      + " WHERE id = ? AND version = COALESCE(?, version)";
+
+  private static final String SQL_COUNT_BY_ID = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE id = ?";
 
   private static final String SQL_DELETE_BY_ID = "DELETE FROM " + TABLE_NAME
       + " WHERE id = ?";
 
   private final JdbcTemplate jdbcTemplate;
   private final NamedParameterJdbcTemplate jdbcNamed;
+  private final NamedParameterJdbcTemplate jdbcStreaming; // fetches the rows of streamed results in chunks of the configured fetch size
   private final BreedDao breedDao;
+  private final TableChangeCounters tableChanges; // tells cached search results that the horses changed
+  // copies of the horses read by id, the cached horses are never handed out themselves, because horses are mutable
+  private final LruCache<Long, Horse> horseCache;
 
 
   public HorseJdbcDao(
       NamedParameterJdbcTemplate jdbcNamed,
       JdbcTemplate jdbcTemplate,
-      BreedDao breedDao) {
+      BreedDao breedDao,
+      TableChangeCounters tableChanges,
+      @Value("${search.stream-fetch-size}") int streamFetchSize,
+      @Value("${cache.horse.max-size}") int horseCacheMaxSize) {
     this.jdbcTemplate = jdbcTemplate;
     this.jdbcNamed = jdbcNamed;
+    this.jdbcStreaming = SearchQuery.streamingTemplate(jdbcTemplate, streamFetchSize);
     this.breedDao = breedDao; // Necessary for checking for ConflictException when using update method
+    this.tableChanges = tableChanges;
+    this.horseCache = new LruCache<>(horseCacheMaxSize);
   }
 
   @Override
   public Horse getById(long id) throws NotFoundException {
     LOG.trace("getById({})", id);
+    Horse cached = horseCache.get(id);
+    if (cached != null) {
+      return copy(cached);
+    }
+    final long ticket = horseCache.loadTicket();
+    Horse horse = selectById(id);
+    if (mayCache()) {
+      horseCache.putIfUnchanged(id, copy(horse), ticket);
+    }
+    return horse;
+  }
+
+  /**
+   * Reads a horse from the database, without looking it up in the cache or caching it.
+   *
+   * @param id the ID of the horse
+   * @return the horse as stored in the database
+   * @throws NotFoundException if no horse with this ID exists
+   */
+  private Horse selectById(long id) throws NotFoundException {
     List<Horse> horses;
     try {
       horses = jdbcTemplate.query(SQL_SELECT_BY_ID, this::mapRow, id);
@@ -115,6 +188,43 @@ public class HorseJdbcDao implements HorseDao {
     return horses.get(0);
   }
 
+  @Override
+  public Map<Long, Horse> getByIds(Collection<Long> ids) throws NotFoundException {
+    LOG.trace("getByIds({})", ids);
+    List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    Map<Long, Horse> horses = new HashMap<>();
+    List<Long> uncachedIds = new ArrayList<>();
+    for (Long id : distinctIds) {
+      Horse cached = horseCache.get(id);
+      if (cached != null) {
+        horses.put(id, copy(cached));
+      } else {
+        uncachedIds.add(id);
+      }
+    }
+    final long ticket = horseCache.loadTicket();
+    final boolean mayCache = mayCache();
+    try {
+      for (int i = 0; i < uncachedIds.size(); i += MAX_IDS_PER_QUERY) {
+        List<Long> chunk = uncachedIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, uncachedIds.size()));
+        for (Horse horse : jdbcNamed.query(SQL_SELECT_BY_IDS, Map.of("ids", chunk), this::mapRow)) {
+          horses.put(horse.getId(), horse);
+          if (mayCache) {
+            horseCache.putIfUnchanged(horse.getId(), copy(horse), ticket);
+          }
+        }
+      }
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to retrieve horses", e);
+    }
+    List<Long> missingIds = distinctIds.stream().filter(id -> !horses.containsKey(id)).toList();
+    if (!missingIds.isEmpty()) {
+      throw new NotFoundException("Horses not found: " + missingIds);
+    }
+    return horses;
+  }
+
   @Override
   public Horse add(HorseDetailDto horse) {
     LOG.trace("add({})", horse);
@@ -123,7 +233,7 @@ public class HorseJdbcDao implements HorseDao {
     try {
       if (horse.breed() == null) {
         addedCount = jdbcTemplate.update(con -> {
-          PreparedStatement ps = con.prepareStatement(SQL_INSERT_WITHOUT_BREED, Statement.RETURN_GENERATED_KEYS);
+          PreparedStatement ps = con.prepareStatement(SQL_INSERT_WITHOUT_BREED, GENERATED_KEY_COLUMNS);
           ps.setString(1, horse.name());
           ps.setString(2, horse.sex().toString());
           ps.setObject(3, horse.dateOfBirth());
@@ -134,7 +244,7 @@ public class HorseJdbcDao implements HorseDao {
 
       } else {
         addedCount = jdbcTemplate.update(con -> {
-          PreparedStatement ps = con.prepareStatement(SQL_INSERT_WITH_BREED, Statement.RETURN_GENERATED_KEYS);
+          PreparedStatement ps = con.prepareStatement(SQL_INSERT_WITH_BREED, GENERATED_KEY_COLUMNS);
           ps.setString(1, horse.name());
           ps.setString(2, horse.sex().toString());
           ps.setObject(3, horse.dateOfBirth());
@@ -164,8 +274,9 @@ public class HorseJdbcDao implements HorseDao {
         throw new FatalException("Failed to retrieve identity of newly added horse", e);
       }
       if (lastInsertedId != null) {
+        invalidateCachedHorse(lastInsertedId.longValue());
         try {
-          return getById(lastInsertedId.longValue());
+          return selectById(lastInsertedId.longValue()); // not cached, the insert might still be rolled back
         } catch (NotFoundException e) {
           // This should never happen - the new horse should be retrievable from the database!!
           throw new FatalException("Failed to retrieve newly added horse", e);
@@ -188,6 +299,7 @@ public class HorseJdbcDao implements HorseDao {
       // This should never happen - the execution of the SQL query caused an exception!!
       throw new FatalException("Failed to delete horse", e);
     }
+    invalidateCachedHorse(id);
     if (deleted <= 0) {
       throw new NotFoundException("Could not find this horse, because it does not exist");
     }
@@ -200,23 +312,100 @@ public class HorseJdbcDao implements HorseDao {
   @Override
   public Collection<Horse> search(HorseSearchDto searchParameters) {
     LOG.trace("search({})", searchParameters);
-    var query = SQL_SELECT_SEARCH;
-    if (searchParameters.limit() != null) {
-      query += SQL_LIMIT_CLAUSE;
+    Set<Long> breedIds = breedIdsFilter(searchParameters);
+    if (breedIds != null && breedIds.isEmpty()) {
+      return List.of(); // no breed matches the filter, so no horse can match it either
+    }
+    SearchQuery query = searchQuery(searchParameters, breedIds);
+    try {
+      return jdbcNamed.query(query.sql(), query.params(), this::mapRow);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Couldn't search for horses", e);
+    }
+  }
+
+  @Override
+  public Stream<Horse> searchAsStream(HorseSearchDto searchParameters) {
+    LOG.trace("searchAsStream({})", searchParameters);
+    Set<Long> breedIds = breedIdsFilter(searchParameters);
+    if (breedIds != null && breedIds.isEmpty()) {
+      return Stream.empty(); // no breed matches the filter, so no horse can match it either
     }
-    var params = new BeanPropertySqlParameterSource(searchParameters);
-    params.registerSqlType("sex", Types.VARCHAR);
+    SearchQuery query = searchQuery(searchParameters, breedIds);
     try {
-      return jdbcNamed.query(query, params, this::mapRow);
+      return jdbcStreaming.queryForStream(query.sql(), query.params(), this::mapRow);
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
       throw new FatalException("Couldn't search for horses", e);
     }
   }
 
+  /**
+   * Resolves the breed filters of a horse search to the IDs of the breeds the horses can be of.
+   * The breed name is only matched against the few breeds once, instead of against the breed of every horse.
+   *
+   * @param searchParameters the parameters to use in searching
+   * @return the IDs of the breeds matching both the breed name and the breed IDs, {@code null} if neither is given
+   */
+  private Set<Long> breedIdsFilter(HorseSearchDto searchParameters) {
+    if (searchParameters.breed() == null) {
+      return searchParameters.breedIds();
+    }
+    return breedIdsFilter(searchParameters, breedDao.search(new BreedSearchDto(searchParameters.breed(), null)));
+  }
+
+  /**
+   * Resolves the breed filters of a horse search to the IDs of the breeds the horses can be of,
+   * given the breeds whose name matches the breed name of the search.
+   *
+   * @param searchParameters the parameters to use in searching, with a breed name
+   * @param breedsMatchingName the breeds whose name contains the breed name of the search
+   * @return the IDs of the breeds matching both the breed name and the breed IDs
+   */
+  static Set<Long> breedIdsFilter(HorseSearchDto searchParameters, Collection<Breed> breedsMatchingName) {
+    Set<Long> breedIds = new HashSet<>();
+    for (Breed breed : breedsMatchingName) {
+      if (searchParameters.breedIds() == null || searchParameters.breedIds().contains(breed.getId())) {
+        breedIds.add(breed.getId());
+      }
+    }
+    return breedIds;
+  }
+
+  /**
+   * Creates the SQL query and its parameters for a horse search.
+   *
+   * @param searchParameters the parameters to use in searching
+   * @param breedIds the IDs of the breeds the horses can be of, {@code null} if the breed isn't filtered by
+   * @return the query selecting the horses where all given parameters match
+   */
+  static SearchQuery searchQuery(HorseSearchDto searchParameters, Set<Long> breedIds) {
+    Set<String> nameTrigrams = NameTrigrams.of(searchParameters.name());
+    SearchCursor cursor = searchParameters.cursor() == null ? null : SearchCursor.decode(searchParameters.cursor());
+    return SEARCH_STATEMENTS.query()
+        .where(NAME_PREDICATE, searchParameters.name() != null)
+        .param("name", searchParameters.name(), Types.VARCHAR)
+        .where(NAME_TRIGRAMS_PREDICATE, !nameTrigrams.isEmpty())
+        .param("nameTrigrams", nameTrigrams)
+        .param("nameTrigramsCount", nameTrigrams.size(), Types.INTEGER)
+        .where(SEX_PREDICATE, searchParameters.sex() != null)
+        .param("sex", searchParameters.sex() == null ? null : searchParameters.sex().toString(), Types.VARCHAR)
+        .where(BORN_EARLIEST_PREDICATE, searchParameters.bornEarliest() != null)
+        .param("bornEarliest", searchParameters.bornEarliest(), Types.DATE)
+        .where(BORN_LATEST_PREDICATE, searchParameters.bornLatest() != null)
+        .param("bornLatest", searchParameters.bornLatest(), Types.DATE)
+        .where(BREED_IDS_PREDICATE, breedIds != null)
+        .param("breedIds", breedIds)
+        .where(CURSOR_PREDICATE, cursor != null)
+        .param("cursorName", cursor == null ? null : cursor.sortKey(), Types.VARCHAR)
+        .param("cursorId", cursor == null ? null : cursor.id(), Types.BIGINT)
+        .limit(searchParameters.limit())
+        .build();
+  }
 
   @Override
-  public Horse update(HorseDetailDto horse) throws NotFoundException, ConflictException {
+  public Horse update(HorseDetailDto horse) throws NotFoundException, ConflictException, VersionMismatchException {
     LOG.trace("update({})", horse);
     int updated;
     if (horse.breed() != null) {
@@ -233,7 +422,8 @@ public class HorseJdbcDao implements HorseDao {
                 horse.height(),
                 horse.weight(),
                 horse.breed().id(),
-                horse.id());
+                horse.id(),
+                horse.version());
       } catch (DataAccessException e) {
         // This should never happen - the execution of the SQL query caused an exception!!
         throw new FatalException("Couldn't update the horse " + horse.name(), e);
@@ -246,23 +436,112 @@ public class HorseJdbcDao implements HorseDao {
                 horse.dateOfBirth(),
                 horse.height(),
                 horse.weight(),
-                horse.id());
+                horse.id(),
+                horse.version());
       } catch (DataAccessException e) {
         // This should never happen - the execution of the SQL query caused an exception!!
         throw new FatalException("Couldn't update the horse " + horse.name(), e);
       }
     }
+    if (updated <= 0 && horse.version() != null && exists(horse.id())) {
+      throw new VersionMismatchException("Couldn't update the horse " + horse.name() + ", because it was changed since version " + horse.version());
+    }
     if (updated <= 0) {
       throw new NotFoundException("Couldn't update the horse " + horse.name() + ", because it does not exist");
     }
+    invalidateCachedHorse(horse.id());
     try {
-      return getById(horse.id());
+      return selectById(horse.id()); // not cached, the update might still be rolled back
     } catch (NotFoundException e) {
       // This should never happen - couldn't find updated horse!!
       throw new FatalException("Couldn't retrieve updated horse " + horse.name(), e);
     }
   }
 
+  private boolean exists(long id) {
+    try {
+      return jdbcTemplate.queryForObject(SQL_COUNT_BY_ID, Long.class, id) > 0;
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to check whether the horse exists", e);
+    }
+  }
+
+  /**
+   * Drops all cached horses when the horse table was changed outside of this DAO.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public void onTableChanged(TableChangedEvent event) {
+    if (TABLE_NAME.equalsIgnoreCase(event.tableName())) {
+      horseCache.invalidateAll();
+    }
+  }
+
+  /**
+   * Logs how well the horse cache works, every {@code cache.horse.statistics-log-interval} and before the application shuts down.
+   */
+  @Scheduled(fixedRateString = "${cache.horse.statistics-log-interval}", initialDelayString = "${cache.horse.statistics-log-interval}")
+  @PreDestroy
+  public void logCacheStatistics() {
+    LruCache.CacheStatistics statistics = cacheStatistics();
+    LOG.info("Horse cache: {} hits, {} misses (hit rate {}), {} evictions, {} cached horses",
+        statistics.hits(), statistics.misses(), String.format(Locale.ROOT, "%.2f", statistics.hitRate()),
+        statistics.evictions(), statistics.size());
+  }
+
+  /**
+   * Returns how often horses were found in the cache so far, e.g. to monitor the cache.
+   *
+   * @return the statistics of the horse cache
+   */
+  LruCache.CacheStatistics cacheStatistics() {
+    return horseCache.statistics();
+  }
+
+  /**
+   * Tells whether horses read now may be cached. Within a transaction they are not cached,
+   * because they might contain changes of the transaction which other transactions can't see yet or which are rolled back.
+   *
+   * @return {@code true} if no transaction is active
+   */
+  private static boolean mayCache() {
+    return !TransactionSynchronizationManager.isSynchronizationActive();
+  }
+
+  /**
+   * Removes the horse from the cache because it was changed, and reports the change of the horse table.
+   * Within a transaction it is removed again after the transaction completed, since other threads could have cached
+   * the values from before the transaction in the meantime.
+   *
+   * @param id the ID of the changed horse
+   */
+  private void invalidateCachedHorse(long id) {
+    tableChanges.changed(TABLE_NAME);
+    horseCache.invalidate(id);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          horseCache.invalidate(id);
+        }
+      });
+    }
+  }
+
+  private static Horse copy(Horse horse) {
+    return new Horse()
+        .setId(horse.getId())
+        .setName(horse.getName())
+        .setSex(horse.getSex())
+        .setDateOfBirth(horse.getDateOfBirth())
+        .setHeight(horse.getHeight())
+        .setWeight(horse.getWeight())
+        .setBreedId(horse.getBreedId())
+        .setVersion(horse.getVersion());
+  }
+
   /**
    * Maps a row from the {@link ResultSet} to a Horse object.
    *
@@ -280,6 +559,7 @@ public class HorseJdbcDao implements HorseDao {
         .setHeight(result.getFloat("height"))
         .setWeight(result.getFloat("weight"))
         .setBreedId(result.getObject("breed_id", Long.class))
+        .setVersion(result.getLong("version"))
         ;
   }
 }
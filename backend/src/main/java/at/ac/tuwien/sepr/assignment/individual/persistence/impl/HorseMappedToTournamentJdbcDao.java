@@ -1,21 +1,26 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsParticipantsWithPointsDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Standing;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseMappedToTournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangeCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.lang.invoke.MethodHandles;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -32,27 +37,39 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
       + " WHERE horse_id = ?";
 
-  private static final String SQL_SELECT_BY_TOURNAMENTID = "SELECT * FROM "
+  private static final String SQL_COUNT_BY_TOURNAMENTID = "SELECT COUNT(*) FROM "
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
       + " WHERE tournament_id = ?";
 
-  private static final String SQL_SELECT_SINGLE_MAPPING = "SELECT * FROM "
+  private static final String SQL_SELECT_FURTHEST_IN_ENTRY_RANGE = "SELECT * FROM "
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
-      + " WHERE horse_id = ? AND tournament_id = ?";
+      + " WHERE tournament_id = ? AND entry_number BETWEEN ? AND ? AND round_reached IS NOT NULL"
+      + " ORDER BY round_reached DESC LIMIT 1";
 
-  private static final String SQL_SELECT_BY_HORSEID_AND_TIME_SPAN = "SELECT tournament_id, horse_id, entry_number, round_reached FROM "
+  private static final String SQL_SELECT_BY_TOURNAMENTID = "SELECT * FROM "
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
-      + " INNER JOIN "
-      + TOURNAMENT_TABLE_NAME
-      + " ON "
-      + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME + ".tournament_id = "
-      + TOURNAMENT_TABLE_NAME + ".id"
-      + " WHERE HORSE_ID = ? AND START_DATE >= ? AND END_DATE <= ?";
-
-  private static final String SQL_CHECK_IF_ENTRY_ALREADY_EXISTS = "SELECT COUNT(*) FROM " // should return 1 if the entry already exists and 0 if it doesn't
+      + " WHERE tournament_id = ?";
+
+  private static final String SQL_SELECT_SINGLE_MAPPING = "SELECT * FROM "
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
       + " WHERE horse_id = ? AND tournament_id = ?";
 
+  // sums up the points of every horse of a tournament over all tournaments in the timespan
+  // reaching round 2 is worth 1 point and every further round 2 points more, independent of the size of the tournaments
+  private static final String SQL_SELECT_WITH_POINTS_BY_TOURNAMENTID_AND_TIME_SPAN = "SELECT"
+      + "    h.id as \"horse_id\", h.name as \"name\", h.date_of_birth as \"date_of_birth\""
+      + "    , m.entry_number as \"entry_number\", m.round_reached as \"round_reached\""
+      + "    , COALESCE(SUM(CASE WHEN past.round_reached >= 2 THEN 2 * past.round_reached - 3 ELSE 0 END), 0) as \"points\""
+      + " FROM " + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME + " m"
+      + " INNER JOIN horse h ON (h.id = m.horse_id)"
+      + " LEFT OUTER JOIN ("
+      + "    SELECT p.horse_id, p.round_reached FROM " + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME + " p"
+      + "    INNER JOIN " + TOURNAMENT_TABLE_NAME + " t ON (t.id = p.tournament_id)"
+      + "    WHERE t.start_date >= ? AND t.end_date <= ?"
+      + " ) past ON (past.horse_id = m.horse_id)"
+      + " WHERE m.tournament_id = ?"
+      + " GROUP BY h.id, h.name, h.date_of_birth, m.entry_number, m.round_reached";
+
   private static final String SQL_INSERT_WITHOUT_STANDING = "INSERT INTO "
       + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
       + "  (tournament_id, horse_id) VALUES (?, ?)";
@@ -62,10 +79,17 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
       + " round_reached = ?"
       + " WHERE horse_id = ? AND tournament_id = ?";
 
+  // only advances the horse if it is still in the round of the match, so a result can't be recorded twice
+  private static final String SQL_ADVANCE = "UPDATE " + HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME
+      + " SET round_reached = round_reached + 1"
+      + " WHERE horse_id = ? AND tournament_id = ? AND round_reached = ?";
+
   private final JdbcTemplate jdbcTemplate;
+  private final TableChangeCounters tableChanges; // tells readers of the standings that they changed
 
-  public HorseMappedToTournamentJdbcDao(JdbcTemplate jdbcTemplate) {
+  public HorseMappedToTournamentJdbcDao(JdbcTemplate jdbcTemplate, TableChangeCounters tableChanges) {
     this.jdbcTemplate = jdbcTemplate;
+    this.tableChanges = tableChanges;
   }
 
   @Override
@@ -80,13 +104,13 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
   }
 
   @Override
-  public int countOccurrenceOfEntry(long horseId, long tournamentId) {
-    LOG.trace("countOccurrenceOfEntry({}, {})", horseId, tournamentId);
+  public int countHorsesInTournament(long tournamentId) {
+    LOG.trace("countHorsesInTournament({})", tournamentId);
     try {
-      return jdbcTemplate.queryForObject(SQL_CHECK_IF_ENTRY_ALREADY_EXISTS, Integer.class, horseId, tournamentId);
+      return jdbcTemplate.queryForObject(SQL_COUNT_BY_TOURNAMENTID, Integer.class, tournamentId);
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Failed to count occurrence of new horse to tournament mapping in database", e);
+      throw new FatalException("Failed to count the horses in this tournament", e);
     }
   }
 
@@ -107,61 +131,64 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
   }
 
   @Override
-  public Standing add(long horseId, long tournamentId) throws ConflictException {
-    LOG.trace("add({}, {})", horseId, tournamentId);
-    int elementOccurrenceCount; // Will be 0 if element isn't present in the database
-    elementOccurrenceCount = countOccurrenceOfEntry(horseId, tournamentId);
-    LOG.debug("Adding the new entry ({}, {}) to the standings. Their current occurrence count in the database: {}",
-        horseId, tournamentId, elementOccurrenceCount);
-    if (elementOccurrenceCount > 0) {
-      throw new ConflictException("There already exists a tournament standing for this horse inside this tournament",
-          Collections.singletonList("mapping already found in database"));
-    }
-    int addedCount;
+  public List<Standing> addAll(long tournamentId, Collection<Long> horseIds) throws ConflictException {
+    LOG.trace("addAll({}, {})", tournamentId, horseIds);
+    List<Object[]> batchArgs = horseIds.stream().map(horseId -> new Object[] {tournamentId, horseId}).toList();
+    int[] addedCounts;
     try {
-      addedCount = jdbcTemplate.update(SQL_INSERT_WITHOUT_STANDING, tournamentId, horseId);
+      addedCounts = jdbcTemplate.batchUpdate(SQL_INSERT_WITHOUT_STANDING, batchArgs);
+    } catch (DuplicateKeyException e) {
+      LOG.debug("A horse tournament mapping for the tournament {} already exists: {}", tournamentId, e.getMessage());
+      throw new ConflictException("There already exists a tournament standing for one of these horses inside this tournament",
+          Collections.singletonList("mapping already found in database"));
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Failed to add mapping of new horse to tournament to the database", e);
+      throw new FatalException("Failed to add mappings of new horses to tournament to the database", e);
     }
-    LOG.debug("The horse tournament mapping ({}, {}) was added {} times", horseId, tournamentId, addedCount);
-    if (addedCount > 1) {
-      // This should never happen - more than one horse tournament mapping was added!!
-      throw new FatalException("More than one horse tournament mapping was added");
-    } else if (addedCount <= 0) {
-      // This should never happen - no horse tournament mapping was added!!
-      throw new FatalException("No horse tournament mapping was added");
+    tableChanges.changed(HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME);
+    for (int addedCount : addedCounts) {
+      if (addedCount != 1 && addedCount != Statement.SUCCESS_NO_INFO) {
+        // This should never happen - every statement of the batch should add exactly one horse tournament mapping!!
+        throw new FatalException("Adding a horse tournament mapping added " + addedCount + " rows");
+      }
     }
-    return new Standing()
-        .setHorseId(horseId)
-        .setTournamentId(tournamentId)
-        .setRoundReached(null)
-        .setEntryNumber(null);
+    LOG.debug("{} horse tournament mappings were added for the tournament {}", addedCounts.length, tournamentId);
+    return horseIds.stream()
+        .map(horseId -> new Standing()
+            .setHorseId(horseId)
+            .setTournamentId(tournamentId)
+            .setRoundReached(null)
+            .setEntryNumber(null))
+        .toList();
   }
 
   @Override
-  public Standing update(TournamentDetailParticipantDto horse, long tournamentId) throws NotFoundException {
-    LOG.trace("update({}, {})", horse, tournamentId);
-    int updated;
+  public List<Standing> updateAll(long tournamentId, Collection<TournamentDetailParticipantDto> horses) throws NotFoundException {
+    LOG.trace("updateAll({}, {})", tournamentId, horses);
+    List<Object[]> batchArgs = horses.stream()
+        .map(horse -> new Object[] {horse.entryNumber(), horse.roundReached(), horse.horseId(), tournamentId})
+        .toList();
+    int[] updatedCounts;
     try {
-      updated = jdbcTemplate.update(SQL_UPDATE_ENTRY_AND_ROUND_NUMBER,
-          horse.entryNumber(),
-          horse.roundReached(),
-          horse.horseId(),
-          tournamentId);
+      updatedCounts = jdbcTemplate.batchUpdate(SQL_UPDATE_ENTRY_AND_ROUND_NUMBER, batchArgs);
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
       throw new FatalException("Couldn't update the tournament standings", e);
     }
-    if (updated <= 0) {
-      LOG.debug("There was no horse to tournament mapping found for the horse " + horse + " and the tournament " + tournamentId);
-      throw new NotFoundException("Couldn't update the tournament standing, because it does not exist");
-    }
-    try {
-      return getSingleMapping(horse.horseId(), tournamentId);
-    } catch (NotFoundException e) {
-      throw new FatalException("The standing for the horse " + horse.name() + " was updated for the tournament but it wasn't found in the database", e);
+    tableChanges.changed(HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME);
+    for (int updated : updatedCounts) {
+      if (updated == 0) {
+        LOG.debug("There was no horse to tournament mapping found for one of the horses {} and the tournament {}", horses, tournamentId);
+        throw new NotFoundException("Couldn't update the tournament standings, because one of them does not exist");
+      }
     }
+    return horses.stream()
+        .map(horse -> new Standing()
+            .setHorseId(horse.horseId())
+            .setTournamentId(tournamentId)
+            .setEntryNumber(horse.entryNumber())
+            .setRoundReached(horse.roundReached()))
+        .toList();
   }
 
   @Override
@@ -184,17 +211,52 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
   }
 
   @Override
-  public List<Standing> getTournamentsForHorseInTimeFrame(long horseId, LocalDate startDate, LocalDate endDate) {
-    LOG.trace("getTournamentsForHorseInTimeFrame({}, {}, {})", horseId, startDate, endDate);
-    List<Standing> standings;
+  public Standing getFurthestInEntryRange(long tournamentId, long firstEntryNumber, long lastEntryNumber) {
+    LOG.trace("getFurthestInEntryRange({}, {}, {})", tournamentId, firstEntryNumber, lastEntryNumber);
+    List<Standing> standing;
     try {
-      standings = jdbcTemplate.query(SQL_SELECT_BY_HORSEID_AND_TIME_SPAN, this::mapRow, horseId, startDate, endDate);
+      standing = jdbcTemplate.query(SQL_SELECT_FURTHEST_IN_ENTRY_RANGE, this::mapRow, tournamentId, firstEntryNumber, lastEntryNumber);
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
-      throw new FatalException("Failed to retrieve standings for the horse which takes part in tournaments in the timespan from "
+      throw new FatalException("Failed to retrieve the standings for a part of the bracket of this tournament", e);
+    }
+    return standing.isEmpty() ? null : standing.getFirst();
+  }
+
+  @Override
+  public void advance(long horseId, long tournamentId, long round) throws ConflictException {
+    LOG.trace("advance({}, {}, {})", horseId, tournamentId, round);
+    int updated;
+    try {
+      updated = jdbcTemplate.update(SQL_ADVANCE, horseId, tournamentId, round);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Couldn't update the tournament standing", e);
+    }
+    if (updated <= 0) {
+      LOG.debug("There was no horse to tournament mapping found for the horse {} in round {} of the tournament {}", horseId, round, tournamentId);
+      throw new ConflictException("Couldn't advance the horse, because it isn't in this round of the tournament (anymore)",
+          Collections.singletonList("no standing in round " + round + " found in database"));
+    }
+    tableChanges.changed(HORSE_MAPPED_TO_TOURNAMENT_TABLE_NAME);
+  }
+
+  @Override
+  public List<TournamentDetailsParticipantsWithPointsDto> getHorsesInTournamentWithPoints(long tournamentId, LocalDate startDate, LocalDate endDate)
+      throws NotFoundException {
+    LOG.trace("getHorsesInTournamentWithPoints({}, {}, {})", tournamentId, startDate, endDate);
+    List<TournamentDetailsParticipantsWithPointsDto> participants;
+    try {
+      participants = jdbcTemplate.query(SQL_SELECT_WITH_POINTS_BY_TOURNAMENTID_AND_TIME_SPAN, this::mapRowWithPoints, startDate, endDate, tournamentId);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to retrieve the points of the horses in this tournament for the timespan from "
           + startDate + " to " + endDate, e);
     }
-    return standings;
+    if (participants.isEmpty()) {
+      throw new NotFoundException("No horses found taking part in this tournament");
+    }
+    return participants;
   }
 
   /**
@@ -213,4 +275,23 @@ public class HorseMappedToTournamentJdbcDao implements HorseMappedToTournamentDa
         .setRoundReached((Long) result.getObject("round_reached"))
         ;
   }
+
+  /**
+   * Maps a row from the {@link ResultSet} to a horse of a tournament together with its collected points.
+   *
+   * @param result the {@link ResultSet} containing the row data
+   * @param rownum the row number
+   * @return a TournamentDetailsParticipantsWithPointsDto object mapped from the {@link ResultSet} row
+   * @throws SQLException if an SQL error occurs while mapping the row
+   */
+  private TournamentDetailsParticipantsWithPointsDto mapRowWithPoints(ResultSet result, int rownum) throws SQLException {
+    TournamentDetailsParticipantsWithPointsDto participant = new TournamentDetailsParticipantsWithPointsDto(
+        result.getLong("horse_id"),
+        result.getString("name"),
+        result.getDate("date_of_birth").toLocalDate(),
+        result.getLong("points"));
+    participant.setEntryNumber(result.getObject("entry_number", Long.class));
+    participant.setRoundReached(result.getObject("round_reached", Long.class));
+    return participant;
+  }
 }
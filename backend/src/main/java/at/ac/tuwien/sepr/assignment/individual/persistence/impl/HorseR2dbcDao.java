@@ -0,0 +1,121 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveBreedDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveHorseDao;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Provides non-blocking access to the horses in the application's persistent data store ("reactive" profile).
+ * This implementation utilizes R2DBC for database access, with the same search statements as {@link HorseJdbcDao}.
+ */
+@Repository
+@Profile("reactive")
+public class HorseR2dbcDao implements ReactiveHorseDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String TABLE_NAME = "horse";
+  private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = :id";
+
+  private final DatabaseClient databaseClient;
+  private final ReactiveBreedDao breedDao;
+
+  public HorseR2dbcDao(DatabaseClient databaseClient, ReactiveBreedDao breedDao) {
+    this.databaseClient = databaseClient;
+    this.breedDao = breedDao;
+  }
+
+  @Override
+  public Flux<Horse> search(HorseSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return breedIdsFilter(searchParameters).flatMapMany(breedIds -> {
+      if (breedIds.isPresent() && breedIds.get().isEmpty()) {
+        return Flux.empty(); // no breed matches the filter, so no horse can match it either
+      }
+      return HorseJdbcDao.searchQuery(searchParameters, breedIds.orElse(null))
+          .statement(databaseClient)
+          .map(HorseR2dbcDao::mapRow)
+          .all()
+          // This should never happen - the execution of the SQL query caused an exception!!
+          .onErrorMap(DataAccessException.class, e -> new FatalException("Couldn't search for horses", e));
+    });
+  }
+
+  @Override
+  public Mono<Horse> getById(long id) {
+    LOG.trace("getById({})", id);
+    return databaseClient.sql(SQL_SELECT_BY_ID)
+        .bind("id", id)
+        .map(HorseR2dbcDao::mapRow)
+        .all()
+        .collectList()
+        // This should never happen - the execution of the SQL query caused an exception!!
+        .onErrorMap(DataAccessException.class, e -> new FatalException("Failed to retrieve horse", e))
+        .flatMap(horses -> {
+          if (horses.isEmpty()) {
+            return Mono.error(new NotFoundException("Horse not found"));
+          }
+          if (horses.size() > 1) {
+            // This should never happen - more than one horse found with this id!!
+            return Mono.error(new FatalException("Too many horses with this ID found"));
+          }
+          return Mono.just(horses.getFirst());
+        });
+  }
+
+  /**
+   * Resolves the breed filters of a horse search to the IDs of the breeds the horses can be of, see {@link HorseJdbcDao}.
+   *
+   * @param searchParameters the parameters to use in searching
+   * @return the IDs of the breeds matching both the breed name and the breed IDs, empty if neither is given
+   */
+  private Mono<Optional<Set<Long>>> breedIdsFilter(HorseSearchDto searchParameters) {
+    if (searchParameters.breed() == null) {
+      return Mono.just(Optional.ofNullable(searchParameters.breedIds()));
+    }
+    return breedDao.search(new BreedSearchDto(searchParameters.breed(), null))
+        .collectList()
+        .map(breeds -> Optional.of(HorseJdbcDao.breedIdsFilter(searchParameters, breeds)));
+  }
+
+  /**
+   * Maps a row of the horse table to a Horse object.
+   *
+   * @param row the row containing the horse
+   * @return a Horse object mapped from the row
+   */
+  private static Horse mapRow(Readable row) {
+    return new Horse()
+        .setId(row.get("id", Long.class))
+        .setName(row.get("name", String.class))
+        .setSex(Sex.valueOf(row.get("sex", String.class)))
+        .setDateOfBirth(row.get("date_of_birth", LocalDate.class))
+        .setHeight(floatValue(row.get("height", BigDecimal.class)))
+        .setWeight(floatValue(row.get("weight", BigDecimal.class)))
+        .setBreedId(row.get("breed_id", Long.class))
+        .setVersion(row.get("version", Long.class))
+        ;
+  }
+
+  private static float floatValue(BigDecimal value) {
+    return value == null ? 0 : value.floatValue(); // a missing value is read as 0, like by JDBC
+  }
+}
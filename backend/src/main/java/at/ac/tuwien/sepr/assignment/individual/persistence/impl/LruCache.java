@@ -0,0 +1,135 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded cache evicting the least recently used entry once it is full, safe to be used by concurrent threads.
+ * It counts its hits, misses and evictions, so its effectiveness can be checked with {@link #statistics()}.
+ *
+ * <p>Values read from the database must only be put into the cache if no entry was invalidated since the read started,
+ * otherwise a read running concurrently to a change could put the outdated value back into the cache.
+ * Such reads get a ticket with {@link #loadTicket()} before reading and put their value with {@link #putIfUnchanged}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+final class LruCache<K, V> {
+  private final Map<K, V> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxSize the maximum number of entries kept in the cache
+   */
+  LruCache(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("The size of a cache can't be negative");
+    }
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        boolean full = size() > maxSize;
+        if (full) {
+          evictions++;
+        }
+        return full;
+      }
+    };
+  }
+
+  /**
+   * Gets the cached value of the key.
+   *
+   * @param key the key of the value
+   * @return the cached value, {@code null} if the key isn't cached
+   */
+  synchronized V get(K key) {
+    V value = entries.get(key);
+    if (value == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return value;
+  }
+
+  /**
+   * Gets the ticket of a read which is started now, to be passed to {@link #putIfUnchanged} afterwards.
+   *
+   * @return the ticket of the read
+   */
+  synchronized long loadTicket() {
+    return invalidations;
+  }
+
+  /**
+   * Caches a value read from the database, unless an entry was invalidated since the read started.
+   *
+   * @param key the key of the value
+   * @param value the value to cache
+   * @param ticket the ticket got from {@link #loadTicket()} before the value was read
+   */
+  synchronized void putIfUnchanged(K key, V value, long ticket) {
+    if (ticket == invalidations) {
+      entries.put(key, value);
+    }
+  }
+
+  /**
+   * Removes the value of the key, because it changed.
+   *
+   * @param key the key of the changed value
+   */
+  synchronized void invalidate(K key) {
+    invalidations++;
+    entries.remove(key);
+  }
+
+  /**
+   * Removes all values, because any of them might have changed.
+   */
+  synchronized void invalidateAll() {
+    invalidations++;
+    entries.clear();
+  }
+
+  /**
+   * Gets the statistics of the cache since it was created.
+   *
+   * @return the current statistics
+   */
+  synchronized CacheStatistics statistics() {
+    return new CacheStatistics(hits, misses, evictions, entries.size());
+  }
+
+  /**
+   * Statistics of a cache.
+   *
+   * @param hits      the number of lookups finding a cached value
+   * @param misses    the number of lookups not finding a cached value
+   * @param evictions the number of values removed because the cache was full
+   * @param size      the number of values currently cached
+   */
+  record CacheStatistics(
+      long hits,
+      long misses,
+      long evictions,
+      int size
+  ) {
+
+    /**
+     * Gets the share of lookups finding a cached value.
+     *
+     * @return the hit rate between 0 and 1, 0 if there wasn't any lookup yet
+     */
+    double hitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.h2.api.Trigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * H2 trigger keeping the {@code name_trigram} table up to date with the names of the table it is created on.
+ * It is created in {@code createSchema.sql} for the horse and tournament tables, whose names are searched by substring,
+ * so also rows inserted by SQL scripts are found by the name search.
+ * When the trigger is initialized for a table without any trigrams, the trigrams of the already existing rows are added.
+ */
+public class NameTrigramTrigger implements Trigger {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String SQL_COUNT_BY_ENTITY = "SELECT COUNT(*) FROM " + NameTrigrams.TABLE_NAME + " WHERE entity = ?";
+  private static final String SQL_INSERT = "INSERT INTO " + NameTrigrams.TABLE_NAME + " (entity, trigram, id) VALUES (?, ?, ?)";
+  private static final String SQL_DELETE_BY_ID = "DELETE FROM " + NameTrigrams.TABLE_NAME + " WHERE entity = ? AND id = ?";
+
+  private String entity;
+  private int idColumn;
+  private int nameColumn;
+
+  @Override
+  public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) throws SQLException {
+    LOG.trace("init({}, {}, {})", schemaName, triggerName, tableName);
+    entity = tableName.toLowerCase(Locale.ROOT);
+    idColumn = columnIndex(conn, schemaName, tableName, "ID");
+    nameColumn = columnIndex(conn, schemaName, tableName, "NAME");
+    try (PreparedStatement count = conn.prepareStatement(SQL_COUNT_BY_ENTITY)) {
+      count.setString(1, entity);
+      try (ResultSet result = count.executeQuery()) {
+        result.next();
+        if (result.getLong(1) > 0) {
+          return;
+        }
+      }
+    }
+    LOG.info("Adding the name trigrams of the existing rows of {}", tableName);
+    try (PreparedStatement select = conn.prepareStatement("SELECT id, name FROM " + schemaName + "." + tableName);
+         ResultSet result = select.executeQuery()) {
+      while (result.next()) {
+        insert(conn, result.getLong(1), result.getString(2));
+      }
+    }
+  }
+
+  @Override
+  public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+    if (oldRow != null && newRow != null
+        && Objects.equals(oldRow[idColumn], newRow[idColumn]) && Objects.equals(oldRow[nameColumn], newRow[nameColumn])) {
+      return; // the name didn't change, so its trigrams didn't either
+    }
+    if (oldRow != null) {
+      try (PreparedStatement delete = conn.prepareStatement(SQL_DELETE_BY_ID)) {
+        delete.setString(1, entity);
+        delete.setLong(2, ((Number) oldRow[idColumn]).longValue());
+        delete.executeUpdate();
+      }
+    }
+    if (newRow != null) {
+      insert(conn, ((Number) newRow[idColumn]).longValue(), (String) newRow[nameColumn]);
+    }
+  }
+
+  /**
+   * Adds the trigrams of the given name for the entity with the given id.
+   *
+   * @param conn the connection to use
+   * @param id the id of the entity
+   * @param name the name of the entity
+   * @throws SQLException if an SQL error occurs while adding the trigrams
+   */
+  private void insert(Connection conn, long id, String name) throws SQLException {
+    try (PreparedStatement insert = conn.prepareStatement(SQL_INSERT)) {
+      for (String trigram : NameTrigrams.of(name)) {
+        insert.setString(1, entity);
+        insert.setString(2, trigram);
+        insert.setLong(3, id);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+  }
+
+  /**
+   * Finds the position of a column inside the rows passed to the trigger.
+   *
+   * @param conn the connection to use
+   * @param schemaName the schema of the table
+   * @param tableName the name of the table
+   * @param columnName the name of the column
+   * @return the zero based position of the column
+   * @throws SQLException if the column doesn't exist
+   */
+  private static int columnIndex(Connection conn, String schemaName, String tableName, String columnName) throws SQLException {
+    try (ResultSet columns = conn.getMetaData().getColumns(null, schemaName, tableName, columnName)) {
+      if (!columns.next()) {
+        throw new SQLException("Column " + columnName + " not found in table " + tableName);
+      }
+      return columns.getInt("ORDINAL_POSITION") - 1;
+    }
+  }
+}
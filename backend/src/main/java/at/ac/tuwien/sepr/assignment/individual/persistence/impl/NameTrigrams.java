@@ -0,0 +1,54 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits names into the trigrams (all substrings of length 3) stored in the {@code name_trigram} table.
+ * A name can only contain a search term if it contains every trigram of the term,
+ * so the ids having all trigrams of a term are the candidates for a substring search.
+ * Names and search terms are normalized the same way, so that the search is case-insensitive.
+ */
+final class NameTrigrams {
+  static final String TABLE_NAME = "name_trigram";
+  static final int TRIGRAM_LENGTH = 3;
+
+  private NameTrigrams() {
+  }
+
+  /**
+   * Creates all distinct trigrams of the given name.
+   *
+   * @param name the name to split, may be {@code null}
+   * @return the trigrams of the name, empty if the name is shorter than {@link #TRIGRAM_LENGTH}
+   */
+  static Set<String> of(String name) {
+    Set<String> trigrams = new LinkedHashSet<>();
+    if (name == null) {
+      return trigrams;
+    }
+    String normalized = name.toUpperCase(Locale.ROOT);
+    for (int i = 0; i + TRIGRAM_LENGTH <= normalized.length(); i++) {
+      trigrams.add(normalized.substring(i, i + TRIGRAM_LENGTH));
+    }
+    return trigrams;
+  }
+
+  /**
+   * Creates the SQL condition restricting the ids in {@code idColumn} to the entities whose name contains all the trigrams
+   * given in the named parameter {@code parameterName}. The number of these trigrams has to be given in the named parameter
+   * {@code parameterName + "Count"}.
+   * The condition only narrows down the candidates, the substring still has to be checked with {@code LIKE}.
+   *
+   * @param idColumn the column containing the id of the entity
+   * @param entity the name of the table of the entity
+   * @param parameterName the name of the parameter containing the trigrams of the search term
+   * @return the SQL condition
+   */
+  static String candidateCondition(String idColumn, String entity, String parameterName) {
+    return idColumn + " IN (SELECT trigram_index.id FROM " + TABLE_NAME + " trigram_index"
+        + " WHERE trigram_index.entity = '" + entity + "' AND trigram_index.trigram IN (:" + parameterName + ")"
+        + " GROUP BY trigram_index.id HAVING COUNT(*) = :" + parameterName + "Count)";
+  }
+}
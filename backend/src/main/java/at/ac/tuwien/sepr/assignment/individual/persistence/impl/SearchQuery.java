@@ -0,0 +1,65 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * A search query together with the values of its named parameters.
+ * Lets the same search be run either as a list or as a stream, or with R2DBC by the reactive read endpoints.
+ *
+ * @param sql    the SQL of the query
+ * @param params the values of the named parameters used in the SQL
+ */
+record SearchQuery(
+    String sql,
+    SqlParameterSource params
+) {
+
+  /**
+   * Creates a template for streamed search results, which fetches the rows from the database in chunks of the given size
+   * instead of the driver's default, so that a stream never holds more than one chunk.
+   *
+   * @param jdbcTemplate the template whose data source should be used
+   * @param fetchSize the number of rows fetched from the database at once
+   * @return the template for streamed search results
+   */
+  static NamedParameterJdbcTemplate streamingTemplate(JdbcTemplate jdbcTemplate, int fetchSize) {
+    JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    streamingTemplate.setFetchSize(fetchSize);
+    return new NamedParameterJdbcTemplate(streamingTemplate);
+  }
+
+  /**
+   * Creates the statement of the query for R2DBC and binds the values of its named parameters.
+   * Only the parameters used in the SQL are bound, the parameters of the predicates a search doesn't use can't be bound with R2DBC.
+   * Collections are expanded into an {@code IN} list like with JDBC.
+   *
+   * @param databaseClient the client executing the statement
+   * @return the statement, which is executed when its result is subscribed to
+   */
+  DatabaseClient.GenericExecuteSpec statement(DatabaseClient databaseClient) {
+    DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql);
+    String[] names = params.getParameterNames();
+    if (names != null) {
+      for (String name : names) {
+        if (usesParameter(name)) {
+          statement = statement.bind(name, params.getValue(name));
+        }
+      }
+    }
+    return statement;
+  }
+
+  private boolean usesParameter(String name) {
+    String parameter = ":" + name;
+    for (int i = sql.indexOf(parameter); i >= 0; i = sql.indexOf(parameter, i + 1)) {
+      int end = i + parameter.length();
+      if (end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end))) { // not just the prefix of a longer name
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,167 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SQL statements of a search with optional filters.
+ * Instead of one catch-all statement containing {@code (:param IS NULL OR ...)} for every filter,
+ * a statement only contains the predicates of the filters actually used by a search.
+ * So the database plans every combination of filters (the shape of a search) on its own and can use the matching indexes.
+ * The statement of each shape is only built once and reused for all further searches with the same shape.
+ */
+final class SearchStatements {
+  private static final int MAX_PREDICATES = Long.SIZE - 1; // the highest bit of a shape marks a limited search
+
+  private final String select;
+  private final String orderBy;
+  private final String limit;
+  private final List<String> predicates = new ArrayList<>();
+  private final Map<Long, String> statementsByShape = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the statements of a search.
+   *
+   * @param select  the SELECT and FROM clauses of the search, without any WHERE clause
+   * @param orderBy the ORDER BY clause of the search
+   * @param limit   the LIMIT clause used when the number of results is limited, with the limit as named parameter {@code :limit}
+   */
+  SearchStatements(String select, String orderBy, String limit) {
+    this.select = select;
+    this.orderBy = orderBy;
+    this.limit = limit;
+  }
+
+  /**
+   * Registers an optional predicate of the search.
+   * All predicates have to be registered before the first search is built.
+   *
+   * @param condition the SQL condition of the predicate, using named parameters for its values
+   * @return the predicate, used to add it to a search
+   */
+  synchronized Predicate predicate(String condition) {
+    if (predicates.size() == MAX_PREDICATES) {
+      throw new IllegalStateException("A search can't have more than " + MAX_PREDICATES + " predicates");
+    }
+    predicates.add(condition);
+    return new Predicate(predicates.size() - 1);
+  }
+
+  /**
+   * Starts building a search without any predicates.
+   *
+   * @return the builder of the search
+   */
+  Builder query() {
+    return new Builder();
+  }
+
+  private String statement(long shape) {
+    return statementsByShape.computeIfAbsent(shape, this::buildStatement);
+  }
+
+  private String buildStatement(long shape) {
+    var statement = new StringBuilder(select);
+    String separator = " WHERE ";
+    for (int i = 0; i < predicates.size(); i++) {
+      if ((shape & (1L << i)) != 0) {
+        statement.append(separator).append(predicates.get(i));
+        separator = " AND ";
+      }
+    }
+    statement.append(orderBy);
+    if ((shape & (1L << MAX_PREDICATES)) != 0) {
+      statement.append(limit);
+    }
+    return statement.toString();
+  }
+
+  /**
+   * An optional predicate of a search.
+   *
+   * @param index the position of the predicate in the statements of the search
+   */
+  record Predicate(
+      int index
+  ) {
+  }
+
+  /**
+   * Builds a single search, collecting its active predicates and the values of their parameters.
+   */
+  final class Builder {
+    private final MapSqlParameterSource params = new MapSqlParameterSource();
+    private long shape;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds the predicate to the search, if it is active.
+     *
+     * @param predicate the predicate to add
+     * @param active    whether the search uses the filter of this predicate
+     * @return this builder
+     */
+    Builder where(Predicate predicate, boolean active) {
+      if (active) {
+        shape |= 1L << predicate.index();
+      }
+      return this;
+    }
+
+    /**
+     * Sets the value of a named parameter used by the predicates.
+     *
+     * @param name    the name of the parameter
+     * @param value   the value of the parameter
+     * @param sqlType the SQL type of the parameter, see {@link java.sql.Types}
+     * @return this builder
+     */
+    Builder param(String name, Object value, int sqlType) {
+      params.addValue(name, value, sqlType);
+      return this;
+    }
+
+    /**
+     * Sets the value of a named parameter used by the predicates, leaving its SQL type to the driver.
+     * Used for collections expanded into an {@code IN} list.
+     *
+     * @param name  the name of the parameter
+     * @param value the value of the parameter
+     * @return this builder
+     */
+    Builder param(String name, Object value) {
+      params.addValue(name, value);
+      return this;
+    }
+
+    /**
+     * Limits the number of results of the search.
+     *
+     * @param maxResults the maximal number of results, or {@code null} if the results aren't limited
+     * @return this builder
+     */
+    Builder limit(Integer maxResults) {
+      if (maxResults != null) {
+        shape |= 1L << MAX_PREDICATES;
+        params.addValue("limit", maxResults, Types.INTEGER);
+      }
+      return this;
+    }
+
+    /**
+     * Creates the search, using the cached statement for its shape.
+     *
+     * @return the SQL query and its parameters
+     */
+    SearchQuery build() {
+      return new SearchQuery(statement(shape), params);
+    }
+  }
+}
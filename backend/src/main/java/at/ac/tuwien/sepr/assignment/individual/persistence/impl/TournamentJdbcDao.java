@@ -1,16 +1,21 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangeCounters;
 import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -20,9 +25,13 @@ import java.lang.invoke.MethodHandles;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Provides access functionality to the application's persistent data store regarding tournaments.
@@ -32,33 +41,69 @@ import java.util.List;
 public class TournamentJdbcDao implements TournamentDao {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final String TABLE_NAME = "tournament";
+  // only the id is returned as generated key, otherwise the generated name_normalized column would be returned as well
+  private static final String[] GENERATED_KEY_COLUMNS = {"id"};
   private static final String SQL_SELECT_SEARCH = "SELECT  "
       + "    t.id as \"id\", t.name as \"name\", t.start_date as \"start_date\""
-      + "    , t.end_date as \"end_date\""
-      + " FROM " + TABLE_NAME + " t"
-      + " WHERE (:name IS NULL OR UPPER(t.name) LIKE UPPER('%'||:name||'%'))"
-      + " AND ((:earliestTournamentDay IS NULL AND :latestTournamentDay IS NULL) OR"
-      + "      (:latestTournamentDay IS NULL AND t.end_date >= :earliestTournamentDay) OR"
-      + "      (:earliestTournamentDay IS NULL AND t.start_date <= :latestTournamentDay) OR"
-      + "      (t.end_date >= :earliestTournamentDay AND t.start_date <= :latestTournamentDay)"
-      + "     )"
-      + " ORDER BY t.start_date DESC"; // orders the resulting tournaments by their descending start date
+      + "    , t.end_date as \"end_date\", t.version as \"version\""
+      + " FROM " + TABLE_NAME + " t";
+
+  // orders the resulting tournaments by their descending start date, the id makes the order stable
+  private static final String SQL_ORDER_BY_CLAUSE = " ORDER BY t.start_date DESC, t.id DESC";
+
+  private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
+
+  // a search statement only contains the predicates of the filters it uses, see SearchStatements
+  private static final SearchStatements SEARCH_STATEMENTS = new SearchStatements(SQL_SELECT_SEARCH, SQL_ORDER_BY_CLAUSE, SQL_LIMIT_CLAUSE);
+  private static final SearchStatements.Predicate NAME_PREDICATE =
+      SEARCH_STATEMENTS.predicate("t.name_normalized LIKE UPPER('%'||:name||'%')");
+  // names too short for a trigram are only filtered by LIKE, otherwise the trigrams narrow down the candidates first
+  private static final SearchStatements.Predicate NAME_TRIGRAMS_PREDICATE =
+      SEARCH_STATEMENTS.predicate(NameTrigrams.candidateCondition("t.id", TABLE_NAME, "nameTrigrams"));
+  // a tournament takes place in the searched time frame, if it ends after the time frame starts and starts before it ends
+  private static final SearchStatements.Predicate EARLIEST_TOURNAMENT_DAY_PREDICATE =
+      SEARCH_STATEMENTS.predicate("t.end_date >= :earliestTournamentDay");
+  private static final SearchStatements.Predicate LATEST_TOURNAMENT_DAY_PREDICATE =
+      SEARCH_STATEMENTS.predicate("t.start_date <= :latestTournamentDay");
+  // keyset of the previous page
+  private static final SearchStatements.Predicate CURSOR_PREDICATE =
+      SEARCH_STATEMENTS.predicate("(t.start_date < :cursorStartDate OR (t.start_date = :cursorStartDate AND t.id < :cursorId))");
 
   private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+  // only increments the version if the tournament wasn't updated since the expected version was read
+  private static final String SQL_INCREMENT_VERSION = "UPDATE " + TABLE_NAME + " SET version = version + 1 WHERE id = ? AND version = ?";
+  // returns the incremented version in the same statement, so it is the version written by this update
+  private static final String SQL_INCREMENT_ANY_VERSION = "SELECT version FROM FINAL TABLE (UPDATE " + TABLE_NAME
+      + " SET version = version + 1 WHERE id = ?)";
+
+  // joins the tournament with its horse to tournament mappings and the horses, so the details of a tournament only need one round trip
+  static final String SQL_SELECT_WITH_PARTICIPANTS_BY_ID = "SELECT "
+      + "    t.id as \"id\", t.name as \"name\", t.start_date as \"start_date\", t.end_date as \"end_date\", t.version as \"version\""
+      + "    , h.id as \"horse_id\", h.name as \"horse_name\", h.date_of_birth as \"horse_date_of_birth\""
+      + "    , m.entry_number as \"entry_number\", m.round_reached as \"round_reached\""
+      + " FROM " + TABLE_NAME + " t"
+      + " LEFT OUTER JOIN horse_mapped_to_tournament m ON (m.tournament_id = t.id)"
+      + " LEFT OUTER JOIN horse h ON (h.id = m.horse_id)"
+      + " WHERE t.id = ?";
 
   private static final String SQL_INSERT_TOURNAMENT = "INSERT INTO "
       + TABLE_NAME
       + " (name, start_date, end_date) VALUES (?, ?, ?)";
-  private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
   private final JdbcTemplate jdbcTemplate;
   private final NamedParameterJdbcTemplate jdbcNamed;
+  private final TableChangeCounters tableChanges; // tells cached search results that the tournaments changed
+  private final NamedParameterJdbcTemplate jdbcStreaming; // fetches the rows of streamed results in chunks of the configured fetch size
 
 
   public TournamentJdbcDao(
       NamedParameterJdbcTemplate jdbcNamed,
-      JdbcTemplate jdbcTemplate) {
+      JdbcTemplate jdbcTemplate,
+      TableChangeCounters tableChanges,
+      @Value("${search.stream-fetch-size}") int streamFetchSize) {
     this.jdbcTemplate = jdbcTemplate;
     this.jdbcNamed = jdbcNamed;
+    this.tableChanges = tableChanges;
+    this.jdbcStreaming = SearchQuery.streamingTemplate(jdbcTemplate, streamFetchSize);
   }
 
   @Override
@@ -81,22 +126,109 @@ public class TournamentJdbcDao implements TournamentDao {
     return tournaments.getFirst();
   }
 
+  @Override
+  public long incrementVersion(long id, long expectedVersion) throws VersionMismatchException {
+    LOG.trace("incrementVersion({}, {})", id, expectedVersion);
+    int updated;
+    try {
+      updated = jdbcTemplate.update(SQL_INCREMENT_VERSION, id, expectedVersion);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to update the version of the tournament", e);
+    }
+    if (updated <= 0) {
+      throw new VersionMismatchException("The tournament was changed since version " + expectedVersion);
+    }
+    tableChanges.changed(TABLE_NAME);
+    return expectedVersion + 1;
+  }
+
+  @Override
+  public long incrementVersion(long id) throws NotFoundException {
+    LOG.trace("incrementVersion({})", id);
+    List<Long> versions;
+    try {
+      versions = jdbcTemplate.queryForList(SQL_INCREMENT_ANY_VERSION, Long.class, id);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to update the version of the tournament", e);
+    }
+    if (versions.isEmpty()) {
+      throw new NotFoundException("Tournament not found");
+    }
+    tableChanges.changed(TABLE_NAME);
+    return versions.getFirst();
+  }
+
+  @Override
+  public TournamentDetailDto getTournamentWithParticipantsById(long id) throws NotFoundException {
+    LOG.trace("getTournamentWithParticipantsById({})", id);
+    TournamentDetailDto tournament;
+    try {
+      tournament = jdbcTemplate.query(SQL_SELECT_WITH_PARTICIPANTS_BY_ID, this::extractTournamentWithParticipants, id);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to retrieve tournament with its participants", e);
+    }
+    if (tournament == null) {
+      throw new NotFoundException("Tournament not found");
+    }
+    if (tournament.participants().length == 0) {
+      throw new NotFoundException("No horses found taking part in this tournament");
+    }
+    return tournament;
+  }
+
   @Override
   public Collection<Tournament> search(TournamentSearchDto searchParameters) {
     LOG.trace("search({})", searchParameters);
-    var query = SQL_SELECT_SEARCH;
-    if (searchParameters.limit() != null) {
-      query += SQL_LIMIT_CLAUSE;
+    SearchQuery query = searchQuery(searchParameters);
+    try {
+      return jdbcNamed.query(query.sql(), query.params(), this::mapRow);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Couldn't search for tournaments", e);
     }
-    var params = new BeanPropertySqlParameterSource(searchParameters);
+  }
+
+  @Override
+  public Stream<Tournament> searchAsStream(TournamentSearchDto searchParameters) {
+    LOG.trace("searchAsStream({})", searchParameters);
+    SearchQuery query = searchQuery(searchParameters);
     try {
-      return jdbcNamed.query(query, params, this::mapRow);
+      return jdbcStreaming.queryForStream(query.sql(), query.params(), this::mapRow);
     } catch (DataAccessException e) {
       // This should never happen - the execution of the SQL query caused an exception!!
       throw new FatalException("Couldn't search for tournaments", e);
     }
   }
 
+  /**
+   * Creates the SQL query and its parameters for a tournament search.
+   *
+   * @param searchParameters the parameters to use in searching
+   * @return the query selecting the tournaments where all given parameters match
+   */
+  static SearchQuery searchQuery(TournamentSearchDto searchParameters) {
+    Set<String> nameTrigrams = NameTrigrams.of(searchParameters.name());
+    SearchCursor cursor = searchParameters.cursor() == null ? null : SearchCursor.decode(searchParameters.cursor());
+    return SEARCH_STATEMENTS.query()
+        .where(NAME_PREDICATE, searchParameters.name() != null)
+        .param("name", searchParameters.name(), Types.VARCHAR)
+        .where(NAME_TRIGRAMS_PREDICATE, !nameTrigrams.isEmpty())
+        .param("nameTrigrams", nameTrigrams)
+        .param("nameTrigramsCount", nameTrigrams.size(), Types.INTEGER)
+        .where(EARLIEST_TOURNAMENT_DAY_PREDICATE, searchParameters.earliestTournamentDay() != null)
+        .param("earliestTournamentDay", searchParameters.earliestTournamentDay(), Types.DATE)
+        .where(LATEST_TOURNAMENT_DAY_PREDICATE, searchParameters.latestTournamentDay() != null)
+        .param("latestTournamentDay", searchParameters.latestTournamentDay(), Types.DATE)
+        .where(CURSOR_PREDICATE, cursor != null)
+        .param("cursorStartDate", cursor == null ? null : LocalDate.parse(cursor.sortKey()), Types.DATE)
+        .param("cursorId", cursor == null ? null : cursor.id(), Types.BIGINT)
+        .limit(searchParameters.limit())
+        .build();
+  }
+
   @Override
   public Tournament add(TournamentCreateDto tournament) {
     LOG.trace("add({})", tournament);
@@ -104,7 +236,7 @@ public class TournamentJdbcDao implements TournamentDao {
     KeyHolder keyHolder = new GeneratedKeyHolder(); // Will contain the key (id) of the newly added tournament.
     try {
       addedCount = jdbcTemplate.update(con -> {
-        PreparedStatement ps = con.prepareStatement(SQL_INSERT_TOURNAMENT, Statement.RETURN_GENERATED_KEYS);
+        PreparedStatement ps = con.prepareStatement(SQL_INSERT_TOURNAMENT, GENERATED_KEY_COLUMNS);
         ps.setString(1, tournament.name());
         ps.setObject(2, tournament.startDate());
         ps.setObject(3, tournament.endDate());
@@ -128,6 +260,7 @@ public class TournamentJdbcDao implements TournamentDao {
       throw new FatalException("Failed to identify newly added tournament");
     }
     LOG.debug("A new tournament with the id {} was created", lastInsertedId);
+    tableChanges.changed(TABLE_NAME);
     return new Tournament()
         .setId((long) lastInsertedId)
         .setName(tournament.name())
@@ -135,6 +268,45 @@ public class TournamentJdbcDao implements TournamentDao {
         .setEndDate(tournament.endDate());
   }
 
+  /**
+   * Extracts a tournament together with its participants from the {@link ResultSet} of the joined tournament query.
+   * Every row contains the tournament and at most one participant.
+   *
+   * @param result the {@link ResultSet} containing the rows of one tournament
+   * @return the details of the tournament, or {@code null} if the {@link ResultSet} is empty
+   * @throws SQLException if an SQL error occurs while mapping the rows
+   */
+  private TournamentDetailDto extractTournamentWithParticipants(ResultSet result) throws SQLException {
+    Tournament tournament = null;
+    List<TournamentDetailParticipantDto> participants = new ArrayList<>();
+    while (result.next()) {
+      if (tournament == null) {
+        tournament = mapRow(result, result.getRow());
+      }
+      Long horseId = result.getObject("horse_id", Long.class);
+      if (horseId != null) { // a tournament without any mapping still returns one row with only the tournament columns set
+        participants.add(new TournamentDetailParticipantDto(
+            horseId,
+            result.getString("horse_name"),
+            result.getDate("horse_date_of_birth").toLocalDate(),
+            result.getObject("entry_number", Long.class),
+            result.getObject("round_reached", Long.class)
+        ));
+      }
+    }
+    if (tournament == null) {
+      return null;
+    }
+    return new TournamentDetailDto(
+        tournament.getId(),
+        tournament.getName(),
+        tournament.getStartDate(),
+        tournament.getEndDate(),
+        participants.toArray(new TournamentDetailParticipantDto[0]),
+        tournament.getVersion()
+    );
+  }
+
   /**
    * Maps a row from the {@link ResultSet} to a Tournaments object.
    *
@@ -149,6 +321,7 @@ public class TournamentJdbcDao implements TournamentDao {
         .setName(result.getString("name"))
         .setStartDate(result.getDate("start_date").toLocalDate())
         .setEndDate(result.getDate("end_date").toLocalDate())
+        .setVersion(result.getLong("version"))
         ;
   }
 }
@@ -0,0 +1,158 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveTournamentDao;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Provides non-blocking access to the tournaments and the snapshots of finalized tournaments
+ * in the application's persistent data store ("reactive" profile).
+ * This implementation utilizes R2DBC for database access,
+ * with the same statements as {@link TournamentJdbcDao} and {@link TournamentSnapshotJdbcDao}.
+ */
+@Repository
+@Profile("reactive")
+public class TournamentR2dbcDao implements ReactiveTournamentDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final DatabaseClient databaseClient;
+
+  public TournamentR2dbcDao(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Flux<Tournament> search(TournamentSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return TournamentJdbcDao.searchQuery(searchParameters)
+        .statement(databaseClient)
+        .map(TournamentR2dbcDao::mapRow)
+        .all()
+        // This should never happen - the execution of the SQL query caused an exception!!
+        .onErrorMap(DataAccessException.class, e -> new FatalException("Couldn't search for tournaments", e));
+  }
+
+  @Override
+  public Mono<TournamentDetailDto> getTournamentWithParticipantsById(long id) {
+    LOG.trace("getTournamentWithParticipantsById({})", id);
+    return databaseClient.sql(TournamentJdbcDao.SQL_SELECT_WITH_PARTICIPANTS_BY_ID)
+        .bind(0, id)
+        .map(row -> new ParticipantRow(mapRow(row), mapParticipant(row)))
+        .all()
+        .collectList()
+        // This should never happen - the execution of the SQL query caused an exception!!
+        .onErrorMap(DataAccessException.class, e -> new FatalException("Failed to retrieve tournament with its participants", e))
+        .flatMap(rows -> {
+          if (rows.isEmpty()) {
+            return Mono.error(new NotFoundException("Tournament not found"));
+          }
+          // a tournament without any mapping still returns one row with only the tournament columns set
+          TournamentDetailParticipantDto[] participants = rows.stream()
+              .map(ParticipantRow::participant)
+              .filter(Objects::nonNull)
+              .toArray(TournamentDetailParticipantDto[]::new);
+          if (participants.length == 0) {
+            return Mono.error(new NotFoundException("No horses found taking part in this tournament"));
+          }
+          Tournament tournament = rows.getFirst().tournament();
+          return Mono.just(new TournamentDetailDto(
+              tournament.getId(),
+              tournament.getName(),
+              tournament.getStartDate(),
+              tournament.getEndDate(),
+              participants,
+              tournament.getVersion()
+          ));
+        });
+  }
+
+  @Override
+  public Mono<TournamentSnapshotDto> findSnapshotById(long tournamentId) {
+    LOG.trace("findSnapshotById({})", tournamentId);
+    return databaseClient.sql(TournamentSnapshotJdbcDao.SQL_SELECT_BY_ID)
+        .bind(0, tournamentId)
+        .map(row -> new TournamentSnapshotDto(
+            row.get("tournament_id", Long.class),
+            bytes(row.get("standings", ByteBuffer.class)),
+            row.get("finalized_at", LocalDateTime.class)))
+        .all()
+        .next()
+        // This should never happen - the execution of the SQL query caused an exception!!
+        .onErrorMap(DataAccessException.class, e -> new FatalException("Failed to retrieve the snapshot of the tournament", e));
+  }
+
+  /**
+   * Maps the tournament columns of a row to a Tournament object.
+   *
+   * @param row the row containing the tournament
+   * @return a Tournament object mapped from the row
+   */
+  private static Tournament mapRow(Readable row) {
+    return new Tournament()
+        .setId(row.get("id", Long.class))
+        .setName(row.get("name", String.class))
+        .setStartDate(row.get("start_date", LocalDate.class))
+        .setEndDate(row.get("end_date", LocalDate.class))
+        .setVersion(row.get("version", Long.class))
+        ;
+  }
+
+  /**
+   * Maps the participant columns of a row of the joined tournament query.
+   *
+   * @param row the row containing the tournament and at most one participant
+   * @return the participant, {@code null} if the row doesn't contain one
+   */
+  private static TournamentDetailParticipantDto mapParticipant(Readable row) {
+    Long horseId = row.get("horse_id", Long.class);
+    if (horseId == null) {
+      return null;
+    }
+    return new TournamentDetailParticipantDto(
+        horseId,
+        row.get("horse_name", String.class),
+        row.get("horse_date_of_birth", LocalDate.class),
+        row.get("entry_number", Long.class),
+        row.get("round_reached", Long.class)
+    );
+  }
+
+  private static byte[] bytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * A row of the joined tournament query.
+   *
+   * @param tournament the tournament
+   * @param participant the participant of the row, {@code null} if the tournament has no participants
+   */
+  private record ParticipantRow(
+      Tournament tournament,
+      TournamentDetailParticipantDto participant
+  ) {
+  }
+}
@@ -0,0 +1,84 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentSnapshotDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Provides access functionality to the application's persistent data store regarding the snapshots of finalized tournaments.
+ * This implementation utilizes JDBC for database access.
+ */
+@Repository
+public class TournamentSnapshotJdbcDao implements TournamentSnapshotDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String TABLE_NAME = "tournament_snapshot";
+  static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE tournament_id = ?";
+  private static final String SQL_COUNT_BY_ID = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE tournament_id = ?";
+  private static final String SQL_INSERT = "INSERT INTO " + TABLE_NAME + " (tournament_id, standings, finalized_at) VALUES (?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public TournamentSnapshotJdbcDao(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public TournamentSnapshotDto findById(long tournamentId) {
+    LOG.trace("findById({})", tournamentId);
+    List<TournamentSnapshotDto> snapshots;
+    try {
+      snapshots = jdbcTemplate.query(SQL_SELECT_BY_ID, this::mapRow, tournamentId);
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to retrieve the snapshot of the tournament", e);
+    }
+    return snapshots.isEmpty() ? null : snapshots.getFirst();
+  }
+
+  @Override
+  public boolean existsById(long tournamentId) {
+    LOG.trace("existsById({})", tournamentId);
+    try {
+      return jdbcTemplate.queryForObject(SQL_COUNT_BY_ID, Long.class, tournamentId) > 0;
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to check whether the tournament is finalized", e);
+    }
+  }
+
+  @Override
+  public void add(TournamentSnapshotDto snapshot) throws ConflictException {
+    LOG.trace("add({})", snapshot.tournamentId());
+    try {
+      jdbcTemplate.update(SQL_INSERT, snapshot.tournamentId(), snapshot.standings(), Timestamp.valueOf(snapshot.finalizedAt()));
+    } catch (DuplicateKeyException e) {
+      LOG.debug("The tournament {} is already finalized: {}", snapshot.tournamentId(), e.getMessage());
+      throw new ConflictException("The tournament is already finalized",
+          Collections.singletonList("snapshot already found in database"));
+    } catch (DataAccessException e) {
+      // This should never happen - the execution of the SQL query caused an exception!!
+      throw new FatalException("Failed to add the snapshot of the tournament to the database", e);
+    }
+  }
+
+  private TournamentSnapshotDto mapRow(ResultSet result, int rownum) throws SQLException {
+    return new TournamentSnapshotDto(
+        result.getLong("tournament_id"),
+        result.getBytes("standings"),
+        result.getTimestamp("finalized_at").toLocalDateTime());
+  }
+}
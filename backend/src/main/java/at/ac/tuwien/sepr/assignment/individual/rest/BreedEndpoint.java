@@ -2,24 +2,29 @@ package at.ac.tuwien.sepr.assignment.individual.rest;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.service.BreedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.util.List;
 
 /**
  * REST controller for handling requests related to breeds.
  * Provides endpoints for searching breeds.
  */
 @RestController
+@Profile("!reactive") // the "reactive" profile serves the reads with ReactiveBreedEndpoint instead
 @RequestMapping(path = BreedEndpoint.BASE_PATH)
 public class BreedEndpoint {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -33,16 +38,27 @@ public class BreedEndpoint {
 
   /**
    * Handles HTTP GET requests to search for breeds based on the provided search parameters.
+   * The response carries the version of the breeds as ETag. If the client already knows the current version
+   * (sent in {@code If-None-Match}), the breeds didn't change and {@code 304 Not Modified} is returned without a body.
    *
    * @param searchParams the search parameters for filtering breeds
-   * @return a stream of BreedDto objects matching the search criteria
+   * @param request the request, used to check the ETag known by the client
+   * @return the BreedDto objects matching the search criteria, or {@code null} if the client's copy is still up to date
    */
   @GetMapping
-  public Stream<BreedDto> search(BreedSearchDto searchParams) {
+  public ResponseEntity<List<BreedDto>> search(BreedSearchDto searchParams, WebRequest request) {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("Request Params: {}", searchParams);
     try {
-      return service.search(searchParams);
+      // the ETag has to be the version of the breeds searched, so both are taken from the same search
+      BreedSearchResultDto result = service.searchWithVersion(searchParams);
+      String entityTag = "\"" + result.version() + "\"";
+      if (request.checkNotModified(entityTag)) {
+        return null; // the status 304 and the ETag were already set by checkNotModified
+      }
+      return ResponseEntity.ok()
+          .eTag(entityTag)
+          .body(result.breeds());
     } catch (FatalException e) {
       HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
       logClientError(status, "Couldn't execute database query with these search parameters (" + searchParams + ")", e);
@@ -0,0 +1,135 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Converts the versions of horses and tournaments to entity tags (ETag) and back from the {@code If-Match} header of updates.
+ * An update with {@code If-Match} is only applied if the resource still has the version of the entity tag,
+ * so a client can't overwrite changes it hasn't seen, without holding any lock between reading and updating.
+ */
+final class EntityTags {
+  private static final long NO_VERSION = -1; // versions start at 0, so this never matches the version of a resource
+  private static final String GZIP_SUFFIX = "-gzip";
+  private static final char CONTENT_SEPARATOR = '.';
+
+  private EntityTags() {
+  }
+
+  /**
+   * Creates the entity tag of a version.
+   *
+   * @param version the version of the resource
+   * @return the (strong) entity tag, including the quotes
+   */
+  static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Creates the entity tag of the standings of a tournament.
+   * The standings also contain the names of the participating horses, which change without changing the version of the tournament,
+   * so the tag contains a digest of the standings as well. Only the version is compared in {@code If-Match},
+   * so a horse renamed in the meantime doesn't make an update of the standings fail.
+   *
+   * @param version the version of the tournament
+   * @param json the standings as JSON
+   * @return the (strong) entity tag, including the quotes
+   */
+  static String ofStandings(long version, byte[] json) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // This should never happen - every Java platform has to support SHA-256!!
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    return "\"" + version + CONTENT_SEPARATOR + HexFormat.of().formatHex(digest.digest(json), 0, 8) + "\"";
+  }
+
+  /**
+   * Gets the entity tag of the compressed or the uncompressed representation of a resource.
+   * Both are different representations of the same version, so they need different (strong) entity tags.
+   *
+   * @param entityTag the entity tag of the uncompressed representation, including the quotes
+   * @param gzip whether the representation is compressed with gzip
+   * @return the entity tag of the representation
+   */
+  static String forEncoding(String entityTag, boolean gzip) {
+    return gzip ? entityTag.substring(0, entityTag.length() - 1) + GZIP_SUFFIX + "\"" : entityTag;
+  }
+
+  /**
+   * Gets the version the client expects the resource to have from the {@code If-Match} header.
+   * The header is either {@code *} or a comma-separated list of entity tags (RFC 9110, section 13.1.1), of which one has to match.
+   * The entity tags of both encodings of a version match, see {@link #forEncoding(String, boolean)}.
+   * Weak entity tags and tags which weren't created by {@link #of(long)} or {@link #ofStandings(long, byte[])} never match,
+   * as {@code If-Match} requires a strong comparison.
+   *
+   * @param ifMatch the value of the {@code If-Match} header, {@code null} if the header is missing
+   * @return the expected version, {@code null} if the resource should be updated regardless of its version ({@code *} or no header)
+   * @throws IllegalArgumentException if the header is malformed, or lists the tags of more than one version
+   */
+  static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+      return null;
+    }
+    Long expected = null;
+    int position = 0;
+    while (position < ifMatch.length()) {
+      position = skipListSeparators(ifMatch, position);
+      if (position == ifMatch.length()) {
+        break;
+      }
+      boolean weak = ifMatch.startsWith("W/", position);
+      int opening = weak ? position + 2 : position;
+      int closing = ifMatch.indexOf('"', opening + 1);
+      if (opening >= ifMatch.length() || ifMatch.charAt(opening) != '"' || closing < 0) {
+        throw new IllegalArgumentException("The If-Match header " + ifMatch + " is not a list of entity tags");
+      }
+      position = closing + 1;
+      if (position < ifMatch.length() && ifMatch.charAt(position) != ',' && !Character.isWhitespace(ifMatch.charAt(position))) {
+        throw new IllegalArgumentException("The If-Match header " + ifMatch + " is not a list of entity tags");
+      }
+      long version = weak ? NO_VERSION : versionOf(ifMatch.substring(opening + 1, closing));
+      if (version == NO_VERSION) {
+        continue;
+      }
+      if (expected != null && expected != version) {
+        throw new IllegalArgumentException("The If-Match header " + ifMatch + " contains the entity tags of more than one version");
+      }
+      expected = version;
+    }
+    return expected == null ? NO_VERSION : expected;
+  }
+
+  private static int skipListSeparators(String list, int position) {
+    while (position < list.length() && (list.charAt(position) == ',' || Character.isWhitespace(list.charAt(position)))) {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Gets the version of an entity tag created by {@link #of(long)} or {@link #ofStandings(long, byte[])}.
+   *
+   * @param tag the entity tag without quotes
+   * @return the version, {@link #NO_VERSION} if the tag wasn't created by this class
+   */
+  private static long versionOf(String tag) {
+    String version = tag;
+    if (version.endsWith(GZIP_SUFFIX)) {
+      version = version.substring(0, version.length() - GZIP_SUFFIX.length());
+    }
+    if (version.indexOf(CONTENT_SEPARATOR) >= 0) {
+      version = version.substring(0, version.indexOf(CONTENT_SEPARATOR));
+    }
+    try {
+      long parsed = Long.parseLong(version);
+      return parsed < 0 ? NO_VERSION : parsed;
+    } catch (NumberFormatException e) {
+      return NO_VERSION;
+    }
+  }
+}
@@ -3,57 +3,100 @@ package at.ac.tuwien.sepr.assignment.individual.rest;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.util.List;
 
 /**
  * REST controller for handling requests related to horses.
  * Provides endpoints for searching, adding, updating, and deleting horses.
  */
 @RestController
+@Profile("!reactive") // the "reactive" profile serves the reads with ReactiveHorseEndpoint instead
 @RequestMapping(path = HorseEndpoint.BASE_PATH)
 public class HorseEndpoint {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   static final String BASE_PATH = "/horses";
 
   private final HorseService service;
+  private final ObjectMapper objectMapper;
 
-  public HorseEndpoint(HorseService service) {
+  public HorseEndpoint(HorseService service, ObjectMapper objectMapper) {
     this.service = service;
+    this.objectMapper = objectMapper;
   }
 
   /**
    * Handles HTTP GET requests to search for horses based on the provided search parameters.
+   * If the result fills a whole page (the limit was reached), the cursor of the next page is returned in the {@link SearchCursor#NEXT_CURSOR_HEADER} header.
    *
    * @param searchParameters the search parameters for filtering horses
-   * @return a stream of HorseListDto objects representing the filtered horses
+   * @param response the response, used to set the header containing the cursor of the next page
+   * @return a list of HorseListDto objects representing the filtered horses
    * @throws ValidationException if the search data is invalid
    */
   @GetMapping
-  public Stream<HorseListDto> searchHorses(HorseSearchDto searchParameters) throws ValidationException {
+  public List<HorseListDto> searchHorses(HorseSearchDto searchParameters, HttpServletResponse response) throws ValidationException {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("request parameters: {}", searchParameters);
     try {
-      return service.search(searchParameters);
+      List<HorseListDto> horses = service.search(searchParameters).toList();
+      if (searchParameters.limit() != null && !horses.isEmpty() && horses.size() == searchParameters.limit()) {
+        response.setHeader(SearchCursor.NEXT_CURSOR_HEADER, SearchCursor.after(horses.getLast()).encode());
+      }
+      return horses;
+    } catch (FatalException e) {
+      HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+      logClientError(status, "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Handles HTTP GET requests to search for horses based on the provided search parameters,
+   * streaming the results as newline delimited JSON (one horse per line).
+   * The horses are written to the response while they are read from the database, so large results are never held in memory.
+   *
+   * @param searchParameters the search parameters for filtering horses
+   * @return the response body writing the filtered horses
+   * @throws ValidationException if the search data is invalid
+   */
+  @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> searchHorsesAsStream(HorseSearchDto searchParameters) throws ValidationException {
+    LOG.info("GET " + BASE_PATH + "/stream");
+    LOG.debug("request parameters: {}", searchParameters);
+    try {
+      return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_NDJSON)
+          .body(NdjsonResponses.of(service.searchAsStream(searchParameters), objectMapper));
     } catch (FatalException e) {
       HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
       logClientError(status, "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e);
@@ -63,15 +106,17 @@ public class HorseEndpoint {
 
   /**
    * Handles HTTP GET requests to retrieve details of a specific horse by its ID.
+   * The version of the horse is sent as ETag, to be used in {@code If-Match} when updating the horse.
    *
    * @param id the ID of the horse to retrieve
    * @return a HorseDetailDto representing the details of the requested horse
    */
   @GetMapping("{id}")
-  public HorseDetailDto getById(@PathVariable("id") long id) {
+  public ResponseEntity<HorseDetailDto> getById(@PathVariable("id") long id) {
     LOG.info("GET " + BASE_PATH + "/{}", id);
     try {
-      return service.getById(id);
+      HorseDetailDto horse = service.getById(id);
+      return ResponseEntity.ok().eTag(EntityTags.of(horse.version())).body(horse);
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Horse with id " + id + " not found", e);
@@ -107,18 +152,28 @@ public class HorseEndpoint {
 
   /**
    * Handles HTTP PUT requests to update an existing horse.
+   * If the request has an {@code If-Match} header, the horse is only updated if its version still matches the ETag,
+   * otherwise the request fails with {@code 412 Precondition Failed}. The new version of the horse is sent as ETag.
    *
    * @param id       the ID of the horse to update
+   * @param ifMatch  the ETag of the version of the horse the update is based on, {@code null} to update any version
    * @param toUpdate the HorseDetailDto containing the updated details of the horse
    * @return a HorseDetailDto representing the details of the updated horse
    * @throws ValidationException if the provided data for the updated horse is invalid
    */
   @PutMapping("{id}")
-  public HorseDetailDto update(@PathVariable("id") long id, @RequestBody HorseDetailDto toUpdate) throws ValidationException {
+  public ResponseEntity<HorseDetailDto> update(@PathVariable("id") long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody HorseDetailDto toUpdate) throws ValidationException {
     LOG.info("PUT " + BASE_PATH + "/{}", toUpdate);
     LOG.debug("Body of request:\n{}", toUpdate);
     try {
-      return service.update(toUpdate.withId(id));
+      HorseDetailDto updated = service.update(toUpdate.withId(id).withVersion(expectedVersion(ifMatch)));
+      return ResponseEntity.ok().eTag(EntityTags.of(updated.version())).body(updated);
+    } catch (VersionMismatchException e) {
+      HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+      logClientError(status, "The horse to update was changed since the version " + ifMatch, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Horse to update not found", e);
@@ -159,6 +214,23 @@ public class HorseEndpoint {
     }
   }
 
+  /**
+   * Gets the version expected by the {@code If-Match} header of a request, see {@link EntityTags#expectedVersion(String)}.
+   * A header which can't be checked against a single version is answered with {@code 400 Bad Request}.
+   *
+   * @param ifMatch the value of the {@code If-Match} header, {@code null} if the header is missing
+   * @return the expected version, {@code null} if the resource should be updated regardless of its version
+   */
+  private Long expectedVersion(String ifMatch) {
+    try {
+      return EntityTags.expectedVersion(ifMatch);
+    } catch (IllegalArgumentException e) {
+      HttpStatus status = HttpStatus.BAD_REQUEST;
+      logClientError(status, "The If-Match header " + ifMatch + " can't be checked", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   private void logClientError(HttpStatus status, String message, Exception e) {
     if (status != HttpStatus.INTERNAL_SERVER_ERROR) { // when an expected error occurs, then it should be logged with 'warn'
       LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
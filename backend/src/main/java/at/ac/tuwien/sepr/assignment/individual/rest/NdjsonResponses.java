@@ -0,0 +1,46 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Writes streams of DTOs as newline delimited JSON (NDJSON), one JSON document per line.
+ * Every element is written to the response as soon as it is read, so the size of the response doesn't affect the heap usage.
+ */
+final class NdjsonResponses {
+  private static final byte[] LINE_SEPARATOR = {'\n'};
+
+  private NdjsonResponses() {
+  }
+
+  /**
+   * Creates a response body writing the given elements as NDJSON.
+   * The stream is consumed and closed while the response is written.
+   *
+   * @param elements the elements to write
+   * @param objectMapper the mapper used to convert the elements to JSON
+   * @param <T> the type of the elements
+   * @return the response body
+   */
+  static <T> StreamingResponseBody of(Stream<T> elements, ObjectMapper objectMapper) {
+    ObjectWriter writer = objectMapper.writer();
+    return outputStream -> {
+      try (elements) {
+        elements.forEach(element -> {
+          try {
+            outputStream.write(writer.writeValueAsBytes(element));
+            outputStream.write(LINE_SEPARATOR);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+      outputStream.flush();
+    };
+  }
+}
@@ -0,0 +1,76 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.service.ReactiveBreedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Non-blocking REST controller for reading breeds, served with WebFlux by the "reactive" profile instead of {@link BreedEndpoint}.
+ * Provides the endpoint for searching breeds, with the same responses as {@link BreedEndpoint}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = BreedEndpoint.BASE_PATH)
+public class ReactiveBreedEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ReactiveBreedService service;
+
+  public ReactiveBreedEndpoint(ReactiveBreedService service) {
+    this.service = service;
+  }
+
+  /**
+   * Handles HTTP GET requests to search for breeds based on the provided search parameters.
+   * The response carries the version of the breeds as ETag. If the client already knows the current version
+   * (sent in {@code If-None-Match}), the breeds didn't change and {@code 304 Not Modified} is returned without a body.
+   *
+   * @param searchParams the search parameters for filtering breeds
+   * @param exchange the exchange, used to check the ETag known by the client
+   * @return the BreedDto objects matching the search criteria, or empty if the client's copy is still up to date
+   */
+  @GetMapping
+  public Mono<ResponseEntity<List<BreedDto>>> search(BreedSearchDto searchParams, ServerWebExchange exchange) {
+    LOG.info("GET " + BreedEndpoint.BASE_PATH);
+    LOG.debug("Request Params: {}", searchParams);
+    // the ETag has to be the version of the breeds searched, so both are taken from the same search
+    return service.searchWithVersion(searchParams)
+        .flatMap(result -> {
+          String entityTag = "\"" + result.version() + "\"";
+          if (exchange.checkNotModified(entityTag)) {
+            return Mono.empty(); // the status 304 and the ETag were already set by checkNotModified
+          }
+          return Mono.just(ResponseEntity.ok().eTag(entityTag).body(result.breeds()));
+        })
+        .onErrorMap(FatalException.class, e -> clientError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Couldn't execute database query with these search parameters (" + searchParams + ")", e));
+  }
+
+  private ResponseStatusException clientError(HttpStatus status, String message, Exception e) {
+    logClientError(status, message, e);
+    return new ResponseStatusException(status, e.getMessage(), e);
+  }
+
+  private void logClientError(HttpStatus status, String message, Exception e) {
+    if (status != HttpStatus.INTERNAL_SERVER_ERROR) { // when an expected error occurs, then it should be logged with 'warn'
+      LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
+    } else { // when a terrible unexpected error occurs, then it should be logged with 'error'
+      LOG.error("{} {}: {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage(), e.getStackTrace());
+    }
+  }
+}
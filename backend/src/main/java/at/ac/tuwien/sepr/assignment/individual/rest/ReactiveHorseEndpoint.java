@@ -0,0 +1,96 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.service.ReactiveHorseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Non-blocking REST controller for reading horses, served with WebFlux by the "reactive" profile instead of {@link HorseEndpoint}.
+ * Provides the endpoints for searching horses and getting a horse by its ID, with the same responses as {@link HorseEndpoint}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = HorseEndpoint.BASE_PATH)
+public class ReactiveHorseEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ReactiveHorseService service;
+
+  public ReactiveHorseEndpoint(ReactiveHorseService service) {
+    this.service = service;
+  }
+
+  /**
+   * Handles HTTP GET requests to search for horses based on the provided search parameters.
+   * If the result fills a whole page (the limit was reached), the cursor of the next page is returned in the {@link SearchCursor#NEXT_CURSOR_HEADER} header.
+   * Invalid search data is answered by the {@link ApplicationExceptionHandler} with the {@link ValidationException}.
+   *
+   * @param searchParameters the search parameters for filtering horses
+   * @return a list of HorseListDto objects representing the filtered horses
+   */
+  @GetMapping
+  public Mono<ResponseEntity<List<HorseListDto>>> searchHorses(HorseSearchDto searchParameters) {
+    LOG.info("GET " + HorseEndpoint.BASE_PATH);
+    LOG.debug("request parameters: {}", searchParameters);
+    return service.search(searchParameters)
+        .collectList()
+        .map(horses -> {
+          var response = ResponseEntity.ok();
+          if (searchParameters.limit() != null && !horses.isEmpty() && horses.size() == searchParameters.limit()) {
+            response.header(SearchCursor.NEXT_CURSOR_HEADER, SearchCursor.after(horses.getLast()).encode());
+          }
+          return response.body(horses);
+        })
+        .onErrorMap(FatalException.class, e -> clientError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e));
+  }
+
+  /**
+   * Handles HTTP GET requests to retrieve details of a specific horse by its ID.
+   * The version of the horse is sent as ETag, to be used in {@code If-Match} when updating the horse.
+   *
+   * @param id the ID of the horse to retrieve
+   * @return a HorseDetailDto representing the details of the requested horse
+   */
+  @GetMapping("{id}")
+  public Mono<ResponseEntity<HorseDetailDto>> getById(@PathVariable("id") long id) {
+    LOG.info("GET " + HorseEndpoint.BASE_PATH + "/{}", id);
+    return service.getById(id)
+        .map(horse -> ResponseEntity.ok().eTag(EntityTags.of(horse.version())).body(horse))
+        .onErrorMap(NotFoundException.class, e -> clientError(HttpStatus.NOT_FOUND, "Horse with id " + id + " not found", e))
+        .onErrorMap(FatalException.class, e -> clientError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Couldn't retrieve one horse with id " + id + " from database", e));
+  }
+
+  private ResponseStatusException clientError(HttpStatus status, String message, Exception e) {
+    logClientError(status, message, e);
+    return new ResponseStatusException(status, e.getMessage(), e);
+  }
+
+  private void logClientError(HttpStatus status, String message, Exception e) {
+    if (status != HttpStatus.INTERNAL_SERVER_ERROR) { // when an expected error occurs, then it should be logged with 'warn'
+      LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
+    } else { // when a terrible unexpected error occurs, then it should be logged with 'error'
+      LOG.error("{} {}: {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage(), e.getStackTrace());
+    }
+  }
+}
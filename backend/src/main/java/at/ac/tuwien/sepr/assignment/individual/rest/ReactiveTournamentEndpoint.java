@@ -0,0 +1,144 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.service.ReactiveTournamentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Non-blocking REST controller for reading tournaments, served with WebFlux by the "reactive" profile instead of {@link TournamentEndpoint}.
+ * Provides the endpoints for searching tournaments and getting their standings, with the same responses as {@link TournamentEndpoint}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = TournamentEndpoint.BASE_PATH)
+public class ReactiveTournamentEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ReactiveTournamentService service;
+  private final StandingsResponseCache standingsCache;
+
+  public ReactiveTournamentEndpoint(ReactiveTournamentService service, StandingsResponseCache standingsCache) {
+    this.service = service;
+    this.standingsCache = standingsCache;
+  }
+
+  /**
+   * Handles HTTP GET requests to search for tournaments based on the provided search parameters.
+   * If the result fills a whole page (the limit was reached), the cursor of the next page is returned in the {@link SearchCursor#NEXT_CURSOR_HEADER} header.
+   * Invalid search data is answered by the {@link ApplicationExceptionHandler} with the {@link ValidationException}.
+   *
+   * @param searchParameters the search parameters for filtering tournaments
+   * @return a list of TournamentListDto objects representing the filtered tournaments
+   */
+  @GetMapping
+  public Mono<ResponseEntity<List<TournamentListDto>>> searchTournaments(TournamentSearchDto searchParameters) {
+    LOG.info("GET " + TournamentEndpoint.BASE_PATH);
+    LOG.debug("request parameters: {}", searchParameters);
+    return service.search(searchParameters)
+        .collectList()
+        .map(tournaments -> {
+          var response = ResponseEntity.ok();
+          if (searchParameters.limit() != null && !tournaments.isEmpty() && tournaments.size() == searchParameters.limit()) {
+            response.header(SearchCursor.NEXT_CURSOR_HEADER, SearchCursor.after(tournaments.getLast()).encode());
+          }
+          return response.body(tournaments);
+        })
+        .onErrorMap(FatalException.class, e -> clientError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e));
+  }
+
+  /**
+   * Handles HTTP GET requests to retrieve details of a specific tournament by its ID,
+   * answered from the same cache of serialized standings as {@link TournamentEndpoint#getTournamentDetailsById}.
+   * The standings of finalized tournaments are served from their snapshot with an ETag and may be cached by clients forever,
+   * a client sending the ETag of its copy in {@code If-None-Match} gets {@code 304 Not Modified} without a body.
+   * The standings of other tournaments are sent with an ETag containing their version.
+   *
+   * @param id ID of the tournament
+   * @param acceptEncoding the content encodings accepted by the client
+   * @param exchange the exchange, used to check the ETag known by the client
+   * @return the JSON of a TournamentDetailDto representing the details of the requested tournament,
+   *     or empty if the client's copy of a finalized tournament is still up to date
+   */
+  @GetMapping(path = "/standings/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<byte[]>> getTournamentDetailsById(@PathVariable("id") long id,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                               ServerWebExchange exchange) {
+    LOG.info("GET " + TournamentEndpoint.BASE_PATH + "/standings/{}", id);
+    boolean gzip = TournamentEndpoint.acceptsGzip(acceptEncoding);
+    return Mono.justOrEmpty(standingsCache.get(id))
+        .switchIfEmpty(Mono.defer(() -> loadStandings(id)))
+        .flatMap(standings -> {
+          var response = ResponseEntity.ok()
+              .contentType(MediaType.APPLICATION_JSON)
+              .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+          if (standings.entityTag() != null) {
+            String entityTag = EntityTags.forEncoding(standings.entityTag(), gzip);
+            if (exchange.checkNotModified(entityTag)) {
+              return Mono.empty(); // the status 304 and the ETag were already set by checkNotModified
+            }
+            response.eTag(entityTag).cacheControl(CacheControl.maxAge(TournamentEndpoint.FINALIZED_STANDINGS_MAX_AGE).cachePublic().immutable());
+          } else if (standings.versionTag() != null) {
+            response.eTag(EntityTags.forEncoding(standings.versionTag(), gzip));
+          }
+          if (gzip) {
+            return Mono.just(response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(standings.gzippedJson()));
+          }
+          return Mono.just(response.body(standings.json()));
+        })
+        .onErrorMap(NotFoundException.class, e -> clientError(HttpStatus.NOT_FOUND,
+            "No tournament with the id " + id + " found in the database", e))
+        .onErrorMap(FatalException.class, e -> clientError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "There was an error when retrieving the data of the tournament with id " + id + " from the database", e));
+  }
+
+  /**
+   * Reads the standings of a tournament which aren't cached, from its snapshot if it is finalized, and caches them.
+   *
+   * @param id ID of the tournament
+   * @return the serialized standings
+   */
+  private Mono<StandingsResponseCache.CachedStandings> loadStandings(long id) {
+    long ticket = standingsCache.loadTicket();
+    return service.getSnapshotById(id)
+        .map(standingsCache::putSnapshot)
+        .switchIfEmpty(Mono.defer(() -> service.getTournamentDetailsById(id)
+            .map(tournamentDetails -> standingsCache.put(tournamentDetails, ticket))));
+  }
+
+  private ResponseStatusException clientError(HttpStatus status, String message, Exception e) {
+    logClientError(status, message, e);
+    return new ResponseStatusException(status, e.getMessage(), e);
+  }
+
+  private void logClientError(HttpStatus status, String message, Exception e) {
+    if (status != HttpStatus.INTERNAL_SERVER_ERROR) { // when an expected error occurs, then it should be logged with 'warn'
+      LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
+    } else { // when a terrible unexpected error occurs, then it should be logged with 'error'
+      LOG.error("{} {}: {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage(), e.getStackTrace());
+    }
+  }
+}
@@ -0,0 +1,464 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.StandingsDeltaDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
+import at.ac.tuwien.sepr.assignment.individual.service.HorseChangedEvent;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentChangedEvent;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes the live standings of tournaments to their subscribers as Server-Sent Events ({@code GET /tournaments/standings/events/{id}}).
+ * A subscriber first receives the current standings, and after every committed change of the tournament only the participants
+ * which changed since the previous event. The standings are read once per change, however many clients subscribed to them.
+ * The events are sent by a bounded pool of threads, one of them sends the events of a subscriber while it has events to send.
+ * Every subscriber buffers a bounded number of events, a subscriber which doesn't keep up and overflows its buffer is disconnected
+ * instead of holding ever more events in memory. Its client reconnects and starts again with the current standings.
+ * A subscriber whose client doesn't take an event within the send timeout is disconnected as well, so stalled clients
+ * can't keep all threads of the pool busy.
+ */
+@Component
+class StandingsEventBroadcaster {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String STANDINGS_EVENT = "standings";
+  static final String DELTA_EVENT = "delta";
+  static final String FINALIZED_EVENT = "finalized";
+  private static final Set<String> TABLE_NAMES = Set.of("tournament", "horse", "horse_mapped_to_tournament", "tournament_snapshot");
+  // a subscriber reading the standings while a change is pushed tries again, at last it reads them while holding the lock of the topic
+  private static final int SUBSCRIBE_ATTEMPTS = 3;
+
+  private final TournamentService service;
+  private final int bufferSize;
+  private final Duration timeout;
+  private final Duration sendTimeout;
+  private final Map<Long, Topic> topicsByTournamentId = new ConcurrentHashMap<>();
+  // platform threads even when requests run on virtual threads, sending an event blocks on the client while holding the monitor of its emitter
+  private final ExecutorService executor;
+
+  StandingsEventBroadcaster(TournamentService service,
+                            @Value("${standings-events.buffer-size}") int bufferSize,
+                            @Value("${standings-events.timeout}") Duration timeout,
+                            @Value("${standings-events.send-timeout}") Duration sendTimeout,
+                            @Value("${standings-events.threads}") int threads) {
+    this.service = service;
+    this.bufferSize = bufferSize;
+    this.timeout = timeout;
+    this.sendTimeout = sendTimeout;
+    this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("standings-events-", 0).daemon(true).factory());
+  }
+
+  /**
+   * Subscribes to the live standings of a tournament.
+   * The current standings are sent as {@value #STANDINGS_EVENT} event, followed by a {@value #DELTA_EVENT} event
+   * (a {@link StandingsDeltaDto}) after every change. When the tournament is finalized, its final standings are sent
+   * as {@value #FINALIZED_EVENT} event and the stream is closed, the standings of a finalized tournament never change.
+   *
+   * @param tournamentId the ID of the tournament
+   * @return the stream of events
+   * @throws NotFoundException if no tournament with this id exists
+   */
+  SseEmitter subscribe(long tournamentId) throws NotFoundException {
+    TournamentSnapshotDto snapshot = service.getSnapshotById(tournamentId);
+    if (snapshot != null) {
+      // the standings of a finalized tournament never change, its subscriber doesn't join the topic
+      var subscriber = newSubscriber(new Topic(tournamentId));
+      subscriber.offer(event(FINALIZED_EVENT, new String(snapshot.standings(), StandardCharsets.UTF_8)));
+      subscriber.close();
+      return subscriber.emitter;
+    }
+    int attempt = 1;
+    // read before locking the topic, so the changes pushed to the other subscribers don't wait for it
+    TournamentDetailDto standings = service.getTournamentDetailsById(tournamentId);
+    while (true) {
+      Topic topic = topicsByTournamentId.computeIfAbsent(tournamentId, Topic::new);
+      topic.lock.lock();
+      try {
+        if (topic.closed) {
+          continue; // the last subscriber left in the meantime, the topic has to be created again
+        }
+        if (topic.participantsByHorseId == null) {
+          topic.changedParticipants(standings);
+        } else if (!topic.isAt(standings)) {
+          // the standings read differ from the ones last pushed, the later changes are pushed relative to these
+          if (attempt++ < SUBSCRIBE_ATTEMPTS) {
+            standings = null;
+          } else {
+            // another change might be pending, reading under the lock it can only lead to changes pushed twice
+            standings = service.getTournamentDetailsById(tournamentId);
+          }
+        }
+        if (standings != null) {
+          var subscriber = newSubscriber(topic);
+          topic.subscribers.add(subscriber);
+          subscriber.offer(event(STANDINGS_EVENT, standings));
+          return subscriber.emitter;
+        }
+      } finally {
+        removeIfUnused(topic);
+        topic.lock.unlock();
+      }
+      standings = service.getTournamentDetailsById(tournamentId);
+    }
+  }
+
+  private Subscriber newSubscriber(Topic topic) {
+    var subscriber = new Subscriber(topic, new SseEmitter(timeout.toMillis()));
+    subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+    subscriber.emitter.onError(e -> unsubscribe(subscriber));
+    subscriber.emitter.onTimeout(subscriber.emitter::complete);
+    return subscriber;
+  }
+
+  /**
+   * Pushes the changes of a tournament to its subscribers, after the change was committed.
+   *
+   * @param event the event describing the changed tournament
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTournamentChanged(TournamentChangedEvent event) {
+    Topic topic = topicsByTournamentId.get(event.tournamentId());
+    if (topic != null) {
+      refresh(topic);
+    }
+  }
+
+  /**
+   * Pushes the changed horse to the subscribers of all tournaments it takes part in, after the change was committed.
+   *
+   * @param event the event describing the changed horse
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onHorseChanged(HorseChangedEvent event) {
+    for (Topic topic : topicsByTournamentId.values()) {
+      if (topic.horseIds.contains(event.horseId())) {
+        refresh(topic);
+      }
+    }
+  }
+
+  /**
+   * Pushes the changes of all subscribed tournaments when the tables of the standings were changed outside of the application's services,
+   * e.g. by another backend instance.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public void onTableChanged(TableChangedEvent event) {
+    if (TABLE_NAMES.contains(event.tableName())) {
+      topicsByTournamentId.values().forEach(this::refresh);
+    }
+  }
+
+  /**
+   * Disconnects the subscribers whose client didn't take the event being sent to it within the send timeout.
+   * Their sending thread is interrupted, the write fails at the latest with the write timeout of the server,
+   * and the subscriber doesn't get any further events meanwhile.
+   */
+  @Scheduled(fixedDelay = 1000)
+  void disconnectStalledSubscribers() {
+    long stalledSince = System.nanoTime() - sendTimeout.toNanos();
+    for (Topic topic : topicsByTournamentId.values()) {
+      List<Subscriber> subscribers;
+      topic.lock.lock();
+      try {
+        subscribers = List.copyOf(topic.subscribers);
+      } finally {
+        topic.lock.unlock();
+      }
+      subscribers.forEach(subscriber -> subscriber.disconnectIfStalled(stalledSince));
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void refresh(Topic topic) {
+    // changes arriving while a refresh is pending are included in it, the standings are only read when it runs
+    if (topic.refreshPending.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        topic.refreshPending.set(false);
+        topic.lock.lock();
+        try {
+          if (!topic.closed) {
+            pushChanges(topic);
+          }
+        } finally {
+          topic.lock.unlock();
+        }
+      });
+    }
+  }
+
+  private void pushChanges(Topic topic) {
+    LOG.trace("pushChanges({})", topic.tournamentId);
+    try {
+      TournamentSnapshotDto snapshot = service.getSnapshotById(topic.tournamentId);
+      if (snapshot != null) {
+        Set<ResponseBodyEmitter.DataWithMediaType> finalized = event(FINALIZED_EVENT, new String(snapshot.standings(), StandardCharsets.UTF_8));
+        for (Subscriber subscriber : List.copyOf(topic.subscribers)) {
+          subscriber.offer(finalized);
+          subscriber.close();
+        }
+        return;
+      }
+      TournamentDetailDto standings = service.getTournamentDetailsById(topic.tournamentId);
+      Long previousVersion = topic.version;
+      List<TournamentDetailParticipantDto> changed = topic.changedParticipants(standings);
+      if (changed.isEmpty() && Objects.equals(previousVersion, standings.version())) {
+        return;
+      }
+      var delta = new StandingsDeltaDto(topic.tournamentId, standings.version(), changed.toArray(new TournamentDetailParticipantDto[0]));
+      LOG.debug("Pushing {} changed participants of the tournament {} to {} subscribers", changed.size(), topic.tournamentId, topic.subscribers.size());
+      Set<ResponseBodyEmitter.DataWithMediaType> event = event(DELTA_EVENT, delta);
+      for (Subscriber subscriber : List.copyOf(topic.subscribers)) {
+        subscriber.offer(event);
+      }
+    } catch (NotFoundException e) {
+      LOG.debug("The tournament {} was deleted, disconnecting its subscribers", topic.tournamentId);
+      List.copyOf(topic.subscribers).forEach(Subscriber::close);
+    } catch (FatalException e) {
+      // the subscribers can't be kept up to date, they reconnect and get the current standings
+      LOG.warn("Failed to read the changed standings of the tournament {}, disconnecting its subscribers", topic.tournamentId, e);
+      List.copyOf(topic.subscribers).forEach(Subscriber::close);
+    } finally {
+      removeIfUnused(topic);
+    }
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    Topic topic = subscriber.topic;
+    topic.lock.lock();
+    try {
+      subscriber.closed = true;
+      removeIfUnused(topic);
+    } finally {
+      topic.lock.unlock();
+    }
+  }
+
+  private void removeIfUnused(Topic topic) {
+    topic.subscribers.removeIf(subscriber -> subscriber.closed);
+    if (topic.subscribers.isEmpty() && !topic.closed) {
+      topic.closed = true;
+      topicsByTournamentId.remove(topic.tournamentId, topic);
+    }
+  }
+
+  private static Set<ResponseBodyEmitter.DataWithMediaType> event(String name, Object data) {
+    // built once and shared by all subscribers, an event builder must only be built once
+    return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON).build();
+  }
+
+  /**
+   * The subscribers of the live standings of a tournament, and the standings last pushed to them.
+   * Guarded by the lock of the topic, except for the fields used to decide whether the topic has to be refreshed.
+   * The lock is held while the standings are read, so it isn't a monitor, which would pin a virtual thread to its carrier meanwhile.
+   */
+  private static final class Topic {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long tournamentId;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private volatile Set<Long> horseIds = Set.of();
+    private Map<Long, TournamentDetailParticipantDto> participantsByHorseId;
+    private Long version;
+    private boolean closed;
+
+    private Topic(long tournamentId) {
+      this.tournamentId = tournamentId;
+    }
+
+    /**
+     * Tells whether the standings are the ones last pushed to the subscribers.
+     *
+     * @param standings the standings read
+     * @return {@code true} if the later changes can be pushed relative to these standings
+     */
+    private boolean isAt(TournamentDetailDto standings) {
+      Map<Long, TournamentDetailParticipantDto> participants = new HashMap<>();
+      if (standings.participants() != null) {
+        for (TournamentDetailParticipantDto participant : standings.participants()) {
+          participants.put(participant.horseId(), participant);
+        }
+      }
+      return Objects.equals(version, standings.version()) && participants.equals(participantsByHorseId);
+    }
+
+    /**
+     * Remembers the standings as the ones last pushed to the subscribers.
+     *
+     * @param standings the current standings
+     * @return the participants which changed since the standings pushed before
+     */
+    private List<TournamentDetailParticipantDto> changedParticipants(TournamentDetailDto standings) {
+      Map<Long, TournamentDetailParticipantDto> participants = new HashMap<>();
+      List<TournamentDetailParticipantDto> changed = new ArrayList<>();
+      if (standings.participants() != null) {
+        for (TournamentDetailParticipantDto participant : standings.participants()) {
+          participants.put(participant.horseId(), participant);
+          if (participantsByHorseId != null && !participant.equals(participantsByHorseId.get(participant.horseId()))) {
+            changed.add(participant);
+          }
+        }
+      }
+      participantsByHorseId = participants;
+      version = standings.version();
+      horseIds = Set.copyOf(participants.keySet());
+      return changed;
+    }
+  }
+
+  /**
+   * A subscriber of the live standings of a tournament, with the events which weren't sent to it yet.
+   * Only one thread sends the events of a subscriber at a time, it is started when an event is offered and stops when all were sent.
+   * The thread currently writing an event to the client is tracked, so a stalled write can be interrupted.
+   */
+  private final class Subscriber {
+    private final Topic topic;
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> events;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final ReentrantLock writeLock = new ReentrantLock(); // guards the writing thread and when it started writing
+    private volatile boolean closed;
+    private boolean completed; // only used by the thread sending the events
+    private Thread writingThread;
+    private long writingSince;
+
+    private Subscriber(Topic topic, SseEmitter emitter) {
+      this.topic = topic;
+      this.emitter = emitter;
+      this.events = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Adds the event to the events to be sent, or disconnects the subscriber if its buffer is full.
+     * Never blocks, the event is sent by the thread sending the events of this subscriber.
+     *
+     * @param event the event
+     */
+    private void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+      if (closed) {
+        return;
+      }
+      if (!events.offer(event)) {
+        LOG.info("Disconnecting a slow subscriber of the standings of the tournament {}, it didn't receive the last {} events",
+            topic.tournamentId, bufferSize);
+        events.clear();
+        close();
+      }
+      send();
+    }
+
+    /**
+     * Disconnects the subscriber, after the events offered before were sent.
+     * The emitter is completed by the thread sending the events, which might still be blocked writing to a slow client.
+     */
+    private void close() {
+      closed = true;
+      send();
+    }
+
+    private void send() {
+      if (sending.compareAndSet(false, true)) {
+        executor.execute(this::sendEvents);
+      }
+    }
+
+    private void sendEvents() {
+      do {
+        Set<ResponseBodyEmitter.DataWithMediaType> event;
+        while ((event = events.poll()) != null) {
+          try {
+            write(event);
+          } catch (IOException | IllegalStateException e) {
+            LOG.debug("Failed to send an event of the standings of the tournament {}, the client disconnected", topic.tournamentId, e);
+            events.clear();
+            closed = true;
+          }
+        }
+        if (closed && !completed) {
+          completed = true;
+          emitter.complete();
+        }
+        sending.set(false);
+        // an event offered after the queue was found empty, but before sending was reset, has to be sent by this thread
+      } while (!events.isEmpty() && sending.compareAndSet(false, true));
+    }
+
+    private void write(Set<ResponseBodyEmitter.DataWithMediaType> event) throws IOException {
+      writeLock.lock();
+      try {
+        writingThread = Thread.currentThread();
+        writingSince = System.nanoTime();
+      } finally {
+        writeLock.unlock();
+      }
+      try {
+        emitter.send(event);
+      } finally {
+        writeLock.lock();
+        try {
+          writingThread = null;
+          Thread.interrupted(); // an interrupt of a stalled write must not affect the next task of the pooled thread
+        } finally {
+          writeLock.unlock();
+        }
+      }
+    }
+
+    /**
+     * Disconnects the subscriber if writing the current event to its client started before the given time.
+     *
+     * @param stalledSince the {@link System#nanoTime()} before which writes are considered stalled
+     */
+    private void disconnectIfStalled(long stalledSince) {
+      writeLock.lock();
+      try {
+        if (writingThread != null && !writingThread.isInterrupted() && writingSince - stalledSince < 0) {
+          LOG.info("Disconnecting a stalled subscriber of the standings of the tournament {}, it didn't receive an event for {}",
+              topic.tournamentId, sendTimeout);
+          closed = true;
+          events.clear();
+          writingThread.interrupt();
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangedEvent;
+import at.ac.tuwien.sepr.assignment.individual.service.HorseChangedEvent;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the serialized standings responses ({@code GET /tournaments/standings/{id}}) of the most recently viewed tournaments.
+ * During a tournament many spectators refresh the same bracket, which can then be answered with the cached bytes
+ * instead of reading the tournament and serializing it again for every request.
+ * A response is dropped from the cache after the standings of its tournament or one of its horses were changed.
+ * The snapshots of finalized tournaments never change, they are cached together with the entity tag identifying them.
+ */
+@Component
+class StandingsResponseCache {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final Set<String> TABLE_NAMES = Set.of("tournament", "horse", "horse_mapped_to_tournament", "tournament_snapshot");
+
+  private final ObjectMapper objectMapper;
+  private final Map<Long, CachedStandings> standingsByTournamentId;
+  private long invalidations;
+
+  StandingsResponseCache(ObjectMapper objectMapper, @Value("${cache.standings.max-size}") int maxSize) {
+    this.objectMapper = objectMapper;
+    this.standingsByTournamentId = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, CachedStandings> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Gets the cached response of the tournament.
+   *
+   * @param tournamentId the ID of the tournament
+   * @return the cached response, {@code null} if it isn't cached
+   */
+  synchronized CachedStandings get(long tournamentId) {
+    return standingsByTournamentId.get(tournamentId);
+  }
+
+  /**
+   * Gets the ticket of a response which is started to be built now, to be passed to {@link #put} afterwards.
+   * A response is only cached, if nothing was changed in the meantime, otherwise it could contain outdated standings.
+   *
+   * @return the ticket of the response
+   */
+  synchronized long loadTicket() {
+    return invalidations;
+  }
+
+  /**
+   * Serializes the standings of a tournament and caches them, if nothing changed since the ticket was taken.
+   *
+   * @param standings the standings of the tournament
+   * @param ticket the ticket got from {@link #loadTicket()} before the standings were read
+   * @return the serialized standings
+   */
+  CachedStandings put(TournamentDetailDto standings, long ticket) {
+    CachedStandings serialized = serialize(standings);
+    synchronized (this) {
+      if (ticket == invalidations) {
+        standingsByTournamentId.put(standings.id(), serialized);
+      }
+    }
+    return serialized;
+  }
+
+  /**
+   * Caches the snapshot of a finalized tournament.
+   * Snapshots are never changed, so they can be cached regardless of any changes made in the meantime.
+   *
+   * @param snapshot the snapshot of the tournament
+   * @return the cached snapshot, identified by an entity tag derived from the tournament and the time it was finalized
+   */
+  CachedStandings putSnapshot(TournamentSnapshotDto snapshot) {
+    String entityTag = "\"" + snapshot.tournamentId() + "-" + snapshot.finalizedAt().toInstant(ZoneOffset.UTC).toEpochMilli() + "\"";
+    var cached = new CachedStandings(snapshot.standings(), gzip(snapshot.standings()), Set.of(), entityTag, null);
+    synchronized (this) {
+      standingsByTournamentId.put(snapshot.tournamentId(), cached);
+    }
+    return cached;
+  }
+
+  /**
+   * Drops the response of a tournament whose standings were changed, after the change was committed.
+   *
+   * @param event the event describing the changed tournament
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onTournamentChanged(TournamentChangedEvent event) {
+    invalidations++;
+    standingsByTournamentId.remove(event.tournamentId());
+  }
+
+  /**
+   * Drops the responses of all tournaments the changed horse takes part in, after the change was committed.
+   *
+   * @param event the event describing the changed horse
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onHorseChanged(HorseChangedEvent event) {
+    invalidations++;
+    standingsByTournamentId.values().removeIf(standings -> standings.horseIds().contains(event.horseId()));
+  }
+
+  /**
+   * Drops all responses when the tables of the standings were changed outside of the application's services.
+   *
+   * @param event the event describing the changed table
+   */
+  @EventListener
+  public synchronized void onTableChanged(TableChangedEvent event) {
+    if (TABLE_NAMES.contains(event.tableName())) {
+      invalidations++;
+      standingsByTournamentId.clear();
+    }
+  }
+
+  private CachedStandings serialize(TournamentDetailDto standings) {
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(standings);
+    } catch (JsonProcessingException e) {
+      // This should never happen - the DTO can always be serialized!!
+      throw new FatalException("Couldn't serialize the standings of the tournament " + standings.id(), e);
+    }
+    Set<Long> horseIds = standings.participants() == null ? Set.of() : Arrays.stream(standings.participants())
+        .map(TournamentDetailParticipantDto::horseId)
+        .collect(Collectors.toUnmodifiableSet());
+    LOG.debug("Serialized the standings of the tournament {} into {} bytes", standings.id(), json.length);
+    String versionTag = standings.version() == null ? null : EntityTags.ofStandings(standings.version(), json);
+    return new CachedStandings(json, gzip(json), horseIds, null, versionTag);
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    var compressed = new ByteArrayOutputStream(bytes.length / 4);
+    try (var gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      // This should never happen - writing to a byte array can't fail!!
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * The serialized standings response of a tournament.
+   *
+   * @param json the response as JSON
+   * @param gzippedJson the JSON compressed with gzip, for clients accepting this encoding
+   * @param horseIds the IDs of the horses taking part in the tournament
+   * @param entityTag the entity tag of the snapshot of a finalized tournament, {@code null} if the tournament isn't finalized
+   * @param versionTag the entity tag of the standings of a tournament which isn't finalized, containing their version
+   *     to be used in {@code If-Match} when updating them
+   */
+  record CachedStandings(
+      byte[] json,
+      byte[] gzippedJson,
+      Set<Long> horseIds,
+      String entityTag,
+      String versionTag
+  ) {
+  }
+}
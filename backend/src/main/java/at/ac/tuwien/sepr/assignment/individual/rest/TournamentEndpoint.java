@@ -1,59 +1,118 @@
 package at.ac.tuwien.sepr.assignment.individual.rest;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * REST controller for handling requests related to tournaments.
  * Provides endpoints for searching, adding and updating tournaments.
  */
 @RestController
+@Profile("!reactive") // the "reactive" profile serves the reads with ReactiveTournamentEndpoint instead
 @RequestMapping(path = TournamentEndpoint.BASE_PATH)
 public class TournamentEndpoint {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   static final String BASE_PATH = "/tournaments";
+  // the standings of a finalized tournament never change, so clients may keep them as long as HTTP allows
+  static final Duration FINALIZED_STANDINGS_MAX_AGE = Duration.ofDays(365);
   private final TournamentService service;
+  private final ObjectMapper objectMapper;
+  private final StandingsResponseCache standingsCache;
+  private final StandingsEventBroadcaster standingsEvents;
 
-  public TournamentEndpoint(TournamentService service) {
+  public TournamentEndpoint(TournamentService service, ObjectMapper objectMapper, StandingsResponseCache standingsCache,
+                            StandingsEventBroadcaster standingsEvents) {
     this.service = service;
+    this.objectMapper = objectMapper;
+    this.standingsCache = standingsCache;
+    this.standingsEvents = standingsEvents;
   }
 
   /**
    * Handles HTTP GET requests to search for tournaments based on the provided search parameters.
+   * If the result fills a whole page (the limit was reached), the cursor of the next page is returned in the {@link SearchCursor#NEXT_CURSOR_HEADER} header.
    *
    * @param searchParameters the search parameters for filtering tournaments
-   * @return a stream of TournamentListDto objects representing the filtered tournaments
+   * @param response the response, used to set the header containing the cursor of the next page
+   * @return a list of TournamentListDto objects representing the filtered tournaments
    * @throws ValidationException if the search data is invalid
    */
   @GetMapping
-  public Stream<TournamentListDto> searchTournaments(TournamentSearchDto searchParameters) throws ValidationException {
+  public List<TournamentListDto> searchTournaments(TournamentSearchDto searchParameters, HttpServletResponse response) throws ValidationException {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("request parameters: {}", searchParameters);
     try {
-      return service.search(searchParameters);
+      List<TournamentListDto> tournaments = service.search(searchParameters).toList();
+      if (searchParameters.limit() != null && !tournaments.isEmpty() && tournaments.size() == searchParameters.limit()) {
+        response.setHeader(SearchCursor.NEXT_CURSOR_HEADER, SearchCursor.after(tournaments.getLast()).encode());
+      }
+      return tournaments;
+    } catch (FatalException e) {
+      HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+      logClientError(status, "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Handles HTTP GET requests to search for tournaments based on the provided search parameters,
+   * streaming the results as newline delimited JSON (one tournament per line).
+   * The tournaments are written to the response while they are read from the database, so large results are never held in memory.
+   *
+   * @param searchParameters the search parameters for filtering tournaments
+   * @return the response body writing the filtered tournaments
+   * @throws ValidationException if the search data is invalid
+   */
+  @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> searchTournamentsAsStream(TournamentSearchDto searchParameters) throws ValidationException {
+    LOG.info("GET " + BASE_PATH + "/stream");
+    LOG.debug("request parameters: {}", searchParameters);
+    try {
+      return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_NDJSON)
+          .body(NdjsonResponses.of(service.searchAsStream(searchParameters), objectMapper));
     } catch (FatalException e) {
       HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
       logClientError(status, "Couldn't execute database query with the following search parameters (" + searchParameters + ")", e);
@@ -63,17 +122,54 @@ public class TournamentEndpoint {
 
   /**
    * Handles HTTP GET requests to retrieve details of a specific tournament by its ID.
+   * The serialized response is cached until the standings change, so repeated requests for the same bracket
+   * are answered without reading and serializing the tournament again. Clients accepting gzip get the compressed response.
+   * The standings of finalized tournaments are served from their snapshot with an ETag and may be cached by clients forever,
+   * a client sending the ETag of its copy in {@code If-None-Match} gets {@code 304 Not Modified} without a body.
+   * The standings of other tournaments are sent with an ETag containing their version, to be used in {@code If-Match} when updating them,
+   * see {@link EntityTags#ofStandings(long, byte[])}.
    *
    * @param id ID of the tournament
-   * @return a TournamentDetailDto representing the details of the requested tournament
+   * @param acceptEncoding the content encodings accepted by the client
+   * @param request the request, used to check the ETag known by the client
+   * @return the JSON of a TournamentDetailDto representing the details of the requested tournament,
+   *     or {@code null} if the client's copy of a finalized tournament is still up to date
    */
-  @GetMapping("/standings/{id}")
-  public TournamentDetailDto getTournamentDetailsById(@PathVariable("id") long id) {
+  @GetMapping(path = "/standings/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getTournamentDetailsById(@PathVariable("id") long id,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                         WebRequest request) {
     LOG.info("GET " + BASE_PATH + "/standings/{}", id);
     try {
-      TournamentDetailDto tournamentDetails = service.getTournamentDetailsById(id);
-      LOG.debug("The following tournament details will be sent to /standings/{} : ({})", id, tournamentDetails);
-      return tournamentDetails;
+      StandingsResponseCache.CachedStandings standings = standingsCache.get(id);
+      if (standings == null) {
+        long ticket = standingsCache.loadTicket();
+        TournamentSnapshotDto snapshot = service.getSnapshotById(id);
+        if (snapshot != null) {
+          standings = standingsCache.putSnapshot(snapshot);
+        } else {
+          TournamentDetailDto tournamentDetails = service.getTournamentDetailsById(id);
+          LOG.debug("The following tournament details will be sent to /standings/{} : ({})", id, tournamentDetails);
+          standings = standingsCache.put(tournamentDetails, ticket);
+        }
+      }
+      boolean gzip = acceptsGzip(acceptEncoding);
+      var response = ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_JSON)
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      if (standings.entityTag() != null) {
+        String entityTag = EntityTags.forEncoding(standings.entityTag(), gzip);
+        if (request.checkNotModified(entityTag)) {
+          return null; // the status 304 and the ETag were already set by checkNotModified
+        }
+        response.eTag(entityTag).cacheControl(CacheControl.maxAge(FINALIZED_STANDINGS_MAX_AGE).cachePublic().immutable());
+      } else if (standings.versionTag() != null) {
+        response.eTag(EntityTags.forEncoding(standings.versionTag(), gzip));
+      }
+      if (gzip) {
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(standings.gzippedJson());
+      }
+      return response.body(standings.json());
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "No tournament with the id " + id + " found in the database", e);
@@ -85,6 +181,57 @@ public class TournamentEndpoint {
     }
   }
 
+  /**
+   * Handles HTTP GET requests to follow the standings of a tournament live, as Server-Sent Events.
+   * The current standings are sent first, after that only the participants changed by each update of the standings.
+   * Clients which don't keep up with the events are disconnected, and receive the current standings again when they reconnect.
+   *
+   * @param id the id of the tournament
+   * @return the stream of events, see {@link StandingsEventBroadcaster#subscribe(long)}
+   */
+  @GetMapping(path = "/standings/events/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribeToStandings(@PathVariable("id") long id) {
+    LOG.info("GET " + BASE_PATH + "/standings/events/{}", id);
+    try {
+      return standingsEvents.subscribe(id);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "No tournament with the id " + id + " found in the database", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (FatalException e) {
+      HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+      logClientError(status, "There was an error when retrieving the data of the tournament with id " + id + " from the database", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Handles HTTP POST requests to finalize a tournament whose final round is decided.
+   * Its standings are saved as an immutable snapshot, and can't be updated anymore afterwards.
+   *
+   * @param id the id of the tournament
+   * @return the final standings of the tournament
+   */
+  @PostMapping("/standings/finalize/{id}")
+  public TournamentDetailDto finalizeTournament(@PathVariable("id") long id) {
+    LOG.info("POST " + BASE_PATH + "/standings/finalize/{}", id);
+    try {
+      return service.finalizeTournament(id);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "No tournament with the id " + id + " found in the database", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ConflictException e) {
+      HttpStatus status = HttpStatus.CONFLICT;
+      logClientError(status, "There was a conflict when finalizing the tournament " + id, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (FatalException e) {
+      HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+      logClientError(status, "There was an error when finalizing the tournament with id " + id, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   /**
    * Handles HTTP GET requests to retrieve a generated standing for the horses for round 1 of the given tournament.
    *
@@ -113,16 +260,27 @@ public class TournamentEndpoint {
 
   /**
    * Handles HTTP PUT requests to update details of a specific tournament.
+   * If the request has an {@code If-Match} header, the standings are only updated if their version still matches the ETag.
+   * Updates which are based on outdated standings fail with {@code 412 Precondition Failed}, so do concurrent updates
+   * of which another one was committed first. Without {@code If-Match}, an update which lost the race against a concurrent change
+   * fails with {@code 409 Conflict}. The ETag of the new version of the standings is sent.
    *
+   * @param ifMatch the ETag of the version of the standings the update is based on, {@code null} to update the current standings
    * @param tournamentUpdateDto the new data of the tournament which should replace the old data
    * @return a TournamentDetailDto representing the current details of the tournament
    */
   @PutMapping("/standings/{id}")
-  public TournamentDetailDto updateTournamentStandings(@RequestBody TournamentUpdateDto tournamentUpdateDto) throws ValidationException {
+  public ResponseEntity<TournamentDetailDto> updateTournamentStandings(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                       @RequestBody TournamentUpdateDto tournamentUpdateDto) throws ValidationException {
     LOG.info("PUT " + BASE_PATH + "/standings/{}", tournamentUpdateDto.id());
     LOG.debug("Body of request: [{}, {}]", tournamentUpdateDto.id(), tournamentUpdateDto.participants());
     try {
-      return service.updateTournament(tournamentUpdateDto);
+      TournamentDetailDto updated = service.updateTournament(tournamentUpdateDto, expectedVersion(ifMatch));
+      return ResponseEntity.ok().eTag(standingsEntityTag(updated)).body(updated);
+    } catch (VersionMismatchException e) {
+      HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+      logClientError(status, "The standings of the tournament " + tournamentUpdateDto.id() + " were changed since the version " + ifMatch, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "No tournament with the id " + tournamentUpdateDto.id() + " found in the database", e);
@@ -139,6 +297,46 @@ public class TournamentEndpoint {
     }
   }
 
+  /**
+   * Handles HTTP PATCH requests to record the result of a single match, by advancing its winner to the next round.
+   * Unlike the PUT request, only the standings of the match are checked and only the standing of the winner is written.
+   * Like the PUT request, it honors {@code If-Match} and fails with {@code 412 Precondition Failed} if the standings were changed concurrently.
+   * Without {@code If-Match}, results of different matches are recorded concurrently,
+   * only a concurrent result of the same match fails with {@code 409 Conflict}.
+   *
+   * @param id the id of the tournament
+   * @param ifMatch the ETag of the version of the standings the result is based on, {@code null} to record it on the current standings
+   * @param result the winner of the match and the round it was played in
+   * @return the new standing of the winner
+   * @throws ValidationException if the result is invalid
+   */
+  @PatchMapping("/standings/{id}")
+  public TournamentUpdateParticipantDto advanceHorse(@PathVariable("id") long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     @RequestBody MatchResultDto result) throws ValidationException {
+    LOG.info("PATCH " + BASE_PATH + "/standings/{}", id);
+    LOG.debug("Body of request: {}", result);
+    try {
+      return service.advanceHorse(id, result, expectedVersion(ifMatch));
+    } catch (VersionMismatchException e) {
+      HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+      logClientError(status, "The standings of the tournament " + id + " were changed since the version " + ifMatch, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "No tournament with the id " + id + " found in the database", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ConflictException e) {
+      HttpStatus status = HttpStatus.CONFLICT;
+      logClientError(status, "There was a conflict when recording the match result " + result + " of the tournament " + id, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (FatalException e) {
+      HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+      logClientError(status, "There was an error when recording the match result " + result + " of the tournament " + id, e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   /**
    * Handles HTTP POST requests to add a new tournament.
    *
@@ -164,6 +362,57 @@ public class TournamentEndpoint {
     }
   }
 
+  /**
+   * Checks whether the client accepts gzip compressed responses.
+   *
+   * @param acceptEncoding the value of the Accept-Encoding header, {@code null} if it wasn't sent
+   * @return true if gzip is accepted (and not explicitly excluded with a quality of 0)
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates the entity tag of standings, like the one sent with them by {@link #getTournamentDetailsById}.
+   *
+   * @param standings the standings of a tournament which isn't finalized
+   * @return the entity tag
+   */
+  private String standingsEntityTag(TournamentDetailDto standings) {
+    try {
+      return EntityTags.ofStandings(standings.version(), objectMapper.writeValueAsBytes(standings));
+    } catch (JsonProcessingException e) {
+      // This should never happen - the DTO can always be serialized!!
+      throw new FatalException("Couldn't serialize the standings of the tournament " + standings.id(), e);
+    }
+  }
+
+  /**
+   * Gets the version expected by the {@code If-Match} header of a request, see {@link EntityTags#expectedVersion(String)}.
+   * A header which can't be checked against a single version is answered with {@code 400 Bad Request}.
+   *
+   * @param ifMatch the value of the {@code If-Match} header, {@code null} if the header is missing
+   * @return the expected version, {@code null} if the resource should be updated regardless of its version
+   */
+  private Long expectedVersion(String ifMatch) {
+    try {
+      return EntityTags.expectedVersion(ifMatch);
+    } catch (IllegalArgumentException e) {
+      HttpStatus status = HttpStatus.BAD_REQUEST;
+      logClientError(status, "The If-Match header " + ifMatch + " can't be checked", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   private void logClientError(HttpStatus status, String message, Exception e) {
     if (status != HttpStatus.INTERNAL_SERVER_ERROR) { // when an expected error occurs, then it should be logged with 'warn'
       LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
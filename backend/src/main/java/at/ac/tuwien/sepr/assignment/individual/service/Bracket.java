@@ -0,0 +1,189 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.type.BracketFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The standings of a tournament as a knockout bracket, stored as an implicit binary tree in a single array (like a binary heap).
+ * Node {@code 0} is the final, the children of node {@code i} are the nodes {@code 2i + 1} and {@code 2i + 2},
+ * and the last {@code size} nodes are the entry slots of the bracket ordered by their entry number.
+ * Every node holds the horse which reached its round from the slots below it, or {@code null} if no horse reached it yet.
+ * A bracket is built in one pass over the participants and one pass over the nodes, without allocating anything per node.
+ */
+final class Bracket {
+  private final BracketFormat format;
+  private final TournamentDetailParticipantDto[] nodes;
+
+  private Bracket(BracketFormat format, TournamentDetailParticipantDto[] nodes) {
+    this.format = format;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Builds the bracket of the participants from their entry numbers and reached rounds.
+   * Participants without a (valid) entry number aren't placed, if several participants share an entry number only the first one is placed.
+   * The horse of a match is the one of its two branches which reached the highest round, if it reached at least the round of the match.
+   *
+   * @param participants the participants of the tournament
+   * @param format the format of the bracket of the tournament
+   * @return the bracket
+   */
+  static Bracket of(TournamentDetailParticipantDto[] participants, BracketFormat format) {
+    int size = format.size();
+    var nodes = new TournamentDetailParticipantDto[2 * size - 1];
+    for (TournamentDetailParticipantDto participant : participants) {
+      if (participant != null && participant.entryNumber() != null && participant.entryNumber() >= 0 && participant.entryNumber() < size) {
+        int slot = size - 1 + participant.entryNumber().intValue();
+        if (nodes[slot] == null) {
+          nodes[slot] = participant;
+        }
+      }
+    }
+    // the horse which reached the highest round below every node, it is the horse of the node if it reached the round of the node
+    var furthest = new TournamentDetailParticipantDto[size - 1];
+    for (int node = size - 2; node >= 0; node--) {
+      TournamentDetailParticipantDto left = node * 2 + 1 < size - 1 ? furthest[node * 2 + 1] : nodes[node * 2 + 1];
+      TournamentDetailParticipantDto right = node * 2 + 2 < size - 1 ? furthest[node * 2 + 2] : nodes[node * 2 + 2];
+      TournamentDetailParticipantDto candidate = round(right) > round(left) ? right : left;
+      furthest[node] = candidate;
+      if (round(candidate) >= round(format, node)) {
+        nodes[node] = candidate;
+      }
+    }
+    return new Bracket(format, nodes);
+  }
+
+  BracketFormat format() {
+    return format;
+  }
+
+  /**
+   * Gets the horse which reached the node.
+   *
+   * @param node the index of the node
+   * @return the horse, {@code null} if no horse reached the node yet
+   */
+  TournamentDetailParticipantDto participant(int node) {
+    return nodes[node];
+  }
+
+  /**
+   * Gets the number of nodes of the bracket, the slots and all matches.
+   *
+   * @return the number of nodes
+   */
+  int nodes() {
+    return nodes.length;
+  }
+
+  /**
+   * Checks whether the node is an entry slot, which has no children.
+   *
+   * @param node the index of the node
+   * @return true if the node is an entry slot
+   */
+  boolean isSlot(int node) {
+    return node >= format.size() - 1;
+  }
+
+  /**
+   * Gets the node of the entry slot with the given entry number.
+   *
+   * @param entryNumber the entry number
+   * @return the index of the node
+   */
+  int slot(long entryNumber) {
+    return (int) (format.size() - 1 + entryNumber);
+  }
+
+  /**
+   * Gets the round of the node, entry slots are round 1 and the final (node {@code 0}) is the {@link BracketFormat#winnerRound()}.
+   *
+   * @param node the index of the node
+   * @return the round of the node
+   */
+  long round(int node) {
+    return round(format, node);
+  }
+
+  /**
+   * Checks the rounds the placed horses claim to have reached against the bracket built from them.
+   * Only one horse of every part of the bracket can reach the match above it, so every horse must be the horse of the node
+   * of the round it reached. Otherwise another horse of the same part reached this round as well, and was placed instead.
+   *
+   * @return the errors found, empty if the bracket is valid
+   */
+  List<String> structureErrors() {
+    List<String> errors = new ArrayList<>();
+    for (int slot = format.size() - 1; slot < nodes.length; slot++) {
+      TournamentDetailParticipantDto participant = nodes[slot];
+      if (participant == null || round(participant) > format.winnerRound()) {
+        continue; // rounds after the final are reported by the validator
+      }
+      int node = slot;
+      for (long round = 1; round < round(participant); round++) {
+        node = (node - 1) / 2;
+      }
+      if (!sameHorse(participant, nodes[node])) {
+        errors.add("The horse " + participant.name() + " can't have reached round " + participant.roundReached()
+            + ", the horse " + nodes[node].name() + " of the same part of the bracket reached it");
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Checks whether this bracket only adds results to the current bracket:
+   * the two horses of every match decided in the current bracket must still be the same.
+   *
+   * @param current the current bracket, of the same format
+   * @return the errors found, empty if this bracket is compatible
+   */
+  List<String> compatibilityErrors(Bracket current) {
+    List<String> errors = new ArrayList<>();
+    for (int node = 0; node < format.size() - 1; node++) {
+      if (current.nodes[node] == null) {
+        continue;
+      }
+      if (!sameHorse(nodes[2 * node + 1], current.nodes[2 * node + 1])) {
+        errors.add("Found an inconsistency where horses of previously completed rounds don't match the already existing standing");
+      }
+      if (!sameHorse(nodes[2 * node + 2], current.nodes[2 * node + 2])) {
+        errors.add("Found an inconsistency where horses of previously completed rounds don't match the already existing standing");
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Returns a compact representation of the bracket, the names of the horses of every round from the final down to the slots.
+   *
+   * @return the bracket as a String
+   */
+  @Override
+  public String toString() {
+    var result = new StringBuilder("Bracket{");
+    for (int node = 0; node < nodes.length; node++) {
+      if (node > 0 && round(node) != round(node - 1)) {
+        result.append(" |");
+      }
+      result.append(' ').append(nodes[node] == null ? "-" : nodes[node].name());
+    }
+    return result.append(" }").toString();
+  }
+
+  private static boolean sameHorse(TournamentDetailParticipantDto first, TournamentDetailParticipantDto second) {
+    return first == null ? second == null : second != null && first.horseId() == second.horseId();
+  }
+
+  private static long round(TournamentDetailParticipantDto participant) {
+    return participant == null || participant.roundReached() == null ? 0 : participant.roundReached();
+  }
+
+  private static long round(BracketFormat format, int node) {
+    return format.winnerRound() - (31 - Integer.numberOfLeadingZeros(node + 1));
+  }
+}
@@ -2,6 +2,7 @@ package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchResultDto;
 
 import java.util.Set;
 import java.util.stream.Stream;
@@ -34,4 +35,13 @@ public interface BreedService {
    * @return a stream of breeds matching the parameters
    */
   Stream<BreedDto> search(BreedSearchDto searchParams);
+
+  /**
+   * Retrieve all stored breeds, that match the given parameters, like {@link #search(BreedSearchDto)},
+   * together with the version of the stored breeds they were found in, which changes whenever the breeds change.
+   *
+   * @param searchParams parameters to search breeds by
+   * @return the breeds matching the parameters, and the version of the breeds searched
+   */
+  BreedSearchResultDto searchWithVersion(BreedSearchDto searchParams);
 }
@@ -2,6 +2,7 @@ package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.mapper.BreedMapper;
 import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
 import org.slf4j.Logger;
@@ -50,4 +51,11 @@ public class BreedServiceImpl implements BreedService {
         .stream()
         .map(mapper::entityToDto);
   }
+
+  @Override
+  public BreedSearchResultDto searchWithVersion(BreedSearchDto searchParams) {
+    LOG.trace("searchWithVersion({})", searchParams);
+    BreedDao.VersionedBreeds breeds = dao.searchWithVersion(searchParams);
+    return new BreedSearchResultDto(breeds.version(), breeds.breeds().stream().map(mapper::entityToDto).toList());
+  }
 }
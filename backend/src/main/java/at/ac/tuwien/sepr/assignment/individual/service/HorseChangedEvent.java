@@ -0,0 +1,12 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+/**
+ * Application event published when the data of a horse (e.g. its name) was changed.
+ * If the change is made within a transaction, listeners should only react after it was committed.
+ *
+ * @param horseId the ID of the changed horse
+ */
+public record HorseChangedEvent(
+    long horseId
+) {
+}
@@ -6,6 +6,7 @@ import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 
 import java.util.stream.Stream;
 
@@ -23,6 +24,17 @@ public interface HorseService {
    */
   Stream<HorseListDto> search(HorseSearchDto searchParameters) throws ValidationException;
 
+  /**
+   * Search for horses in the persistent data store matching all provided fields, like {@link #search(HorseSearchDto)}.
+   * The horses are read from the persistent data store while the stream is consumed, so the result is never held in memory as a whole.
+   * The stream must be closed after use.
+   *
+   * @param searchParameters the search parameters to use in filtering.
+   * @return the horses where the given fields match.
+   * @throws ValidationException if the search data is in itself incorrect (name too long, born Earliest > born Latest …)
+   */
+  Stream<HorseListDto> searchAsStream(HorseSearchDto searchParameters) throws ValidationException;
+
   /**
    * Updates the horse with the ID given in {@code horse}
    * with the data given in {@code horse}
@@ -33,8 +45,9 @@ public interface HorseService {
    * @throws NotFoundException   if the horse with given ID does not exist in the persistent data store
    * @throws ValidationException if the update data given for the horse is in itself incorrect (no name, name too long …)
    * @throws ConflictException   if the update data given for the horse is in conflict with the data currently in the system (breed does not exist, …)
+   * @throws VersionMismatchException if the horse has a version and was updated since this version was read
    */
-  HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException;
+  HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException, VersionMismatchException;
 
 
   /**
@@ -8,15 +8,22 @@ import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 import at.ac.tuwien.sepr.assignment.individual.mapper.HorseMapper;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseDao;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseMappedToTournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangeCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.lang.invoke.MethodHandles;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -36,42 +43,94 @@ public class HorseServiceImpl implements HorseService {
   private final HorseMapper mapper;
   private final HorseValidator validator;
   private final BreedService breedService;
+  private final ApplicationEventPublisher eventPublisher; // tells caches of the standings that a horse changed
+  private final SearchResultCache<HorseSearchDto, List<HorseListDto>> searchCache;
+  private final TableChangeCounters tableChanges;
+  private final SingleFlight<SingleFlight.VersionedId, HorseDetailDto> horseReads = new SingleFlight<>();
 
   public HorseServiceImpl(HorseDao horseDao,
                           HorseMappedToTournamentDao horseMappedToTournamentDao,
                           HorseMapper mapper,
                           HorseValidator validator,
-                          BreedService breedService) {
+                          BreedService breedService,
+                          ApplicationEventPublisher eventPublisher,
+                          TableChangeCounters tableChanges,
+                          @Value("${cache.search.max-size}") int searchCacheMaxSize,
+                          @Value("${cache.search.time-to-live}") Duration searchCacheTimeToLive) {
     this.horseDao = horseDao;
     this.horseMappedToTournamentDao = horseMappedToTournamentDao;
     this.mapper = mapper;
     this.validator = validator;
     this.breedService = breedService;
+    this.eventPublisher = eventPublisher;
+    this.tableChanges = tableChanges;
+    // the listed horses contain their breed, so the results also change with the breeds
+    this.searchCache = new SearchResultCache<>(searchCacheMaxSize, searchCacheTimeToLive,
+        () -> tableChanges.current("horse") + tableChanges.current("breed"));
   }
 
   @Override
   public Stream<HorseListDto> search(HorseSearchDto searchParameters) throws ValidationException {
     LOG.trace("search({})", searchParameters);
     validator.validateForSearch(searchParameters);
-    var horses = horseDao.search(searchParameters);
-    // First get all breed ids…
-    var breeds = horses.stream()
-        .map(Horse::getBreedId)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toUnmodifiableSet());
-    // … then get the breeds all at once.
-    var breedsPerId = breedMapForHorses(breeds);
-
-    return horses.stream()
+    HorseSearchDto normalizedParameters = normalize(searchParameters);
+    return searchCache.get(normalizedParameters, () -> {
+      var horses = horseDao.search(normalizedParameters);
+      // First get all breed ids…
+      var breeds = horses.stream()
+          .map(Horse::getBreedId)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toUnmodifiableSet());
+      // … then get the breeds all at once.
+      var breedsPerId = breedMapForHorses(breeds);
+
+      return horses.stream()
+          .map(horse -> mapper.entityToListDto(horse, breedsPerId))
+          .toList();
+    }).stream();
+  }
+
+  /**
+   * Normalizes the search parameters, so that all searches with the same result share one entry in the search cache.
+   * Names are searched case-insensitively, so they are upper-cased, and an empty name matches every horse like no name at all.
+   *
+   * @param searchParameters the search parameters to normalize
+   * @return the normalized search parameters
+   */
+  private static HorseSearchDto normalize(HorseSearchDto searchParameters) {
+    return new HorseSearchDto(
+        normalizeName(searchParameters.name()),
+        searchParameters.sex(),
+        searchParameters.bornEarliest(),
+        searchParameters.bornLatest(),
+        normalizeName(searchParameters.breed()),
+        searchParameters.limit(),
+        searchParameters.cursor(),
+        searchParameters.breedIds() == null ? null : Set.copyOf(searchParameters.breedIds()));
+  }
+
+  private static String normalizeName(String name) {
+    return name == null || name.isEmpty() ? null : name.toUpperCase(Locale.ROOT);
+  }
+
+  @Override
+  public Stream<HorseListDto> searchAsStream(HorseSearchDto searchParameters) throws ValidationException {
+    LOG.trace("searchAsStream({})", searchParameters);
+    validator.validateForSearch(searchParameters);
+    // the breeds of the streamed horses aren't known in advance, but there are only few breeds, so all of them are loaded
+    var breedsPerId = breedService.allBreeds()
+        .collect(Collectors.toUnmodifiableMap(BreedDto::id, Function.identity()));
+    return horseDao.searchAsStream(searchParameters)
         .map(horse -> mapper.entityToListDto(horse, breedsPerId));
   }
 
 
   @Override
-  public HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException {
+  public HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException, VersionMismatchException {
     LOG.trace("update({})", horse);
     validator.validateForUpdate(horse);
     var updatedHorse = horseDao.update(horse);
+    eventPublisher.publishEvent(new HorseChangedEvent(updatedHorse.getId()));
     var breeds = breedMapForSingleHorse(updatedHorse);
     return mapper.entityToDetailDto(updatedHorse, breeds);
   }
@@ -80,9 +139,13 @@ public class HorseServiceImpl implements HorseService {
   @Override
   public HorseDetailDto getById(long id) throws NotFoundException {
     LOG.trace("details({})", id);
-    Horse horse = horseDao.getById(id);
-    var breeds = breedMapForSingleHorse(horse);
-    return mapper.entityToDetailDto(horse, breeds);
+    // concurrent requests for the same horse share one read, as long as the horses and breeds didn't change
+    long version = tableChanges.current("horse") + tableChanges.current("breed");
+    return horseReads.execute(new SingleFlight.VersionedId(id, version), () -> {
+      Horse horse = horseDao.getById(id);
+      var breeds = breedMapForSingleHorse(horse);
+      return mapper.entityToDetailDto(horse, breeds);
+    });
   }
 
   /**
@@ -3,6 +3,7 @@ package at.ac.tuwien.sepr.assignment.individual.service;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import org.slf4j.Logger;
@@ -88,6 +89,16 @@ public class HorseValidator {
     if (searchParameters.name() != null) {
       validationErrors.addAll(validateNameWithoutRegex(searchParameters.name()));
     }
+    if (searchParameters.breedIds() != null && searchParameters.breedIds().contains(null)) {
+      validationErrors.add("The breed IDs must not contain null");
+    }
+    if (searchParameters.cursor() != null) {
+      try {
+        SearchCursor.decode(searchParameters.cursor());
+      } catch (IllegalArgumentException e) {
+        validationErrors.add("The cursor is not valid");
+      }
+    }
     if (!validationErrors.isEmpty()) {
       throw new ValidationException("Validation of the search parameters failed", validationErrors);
     }
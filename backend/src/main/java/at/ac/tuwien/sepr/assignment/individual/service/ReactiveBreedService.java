@@ -0,0 +1,42 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchResultDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Non-blocking service for reading breeds, used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link BreedService}.
+ */
+public interface ReactiveBreedService {
+  /**
+   * Retrieve all stored breeds, that have one of the given IDs.
+   * Note that if for one ID no breed is found, this method does not emit an error.
+   *
+   * @param breedIds the set of IDs to find breeds for.
+   * @return all found breeds with an ID in {@code breedIds}
+   */
+  Flux<BreedDto> findBreedsByIds(Set<Long> breedIds);
+
+  /**
+   * Retrieve all stored breeds, that match the given parameters.
+   * The parameters may include a limit on the amount of results to return.
+   *
+   * @param searchParams parameters to search breeds by
+   * @return the breeds matching the parameters
+   */
+  Flux<BreedDto> search(BreedSearchDto searchParams);
+
+  /**
+   * Retrieve all stored breeds, that match the given parameters,
+   * together with the version of the stored breeds they were found in, which changes whenever the breeds change.
+   *
+   * @param searchParams parameters to search breeds by
+   * @return the breeds matching the parameters, and the version of the breeds searched
+   */
+  Mono<BreedSearchResultDto> searchWithVersion(BreedSearchDto searchParams);
+}
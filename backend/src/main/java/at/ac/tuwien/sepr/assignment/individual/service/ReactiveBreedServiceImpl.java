@@ -0,0 +1,54 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.mapper.BreedMapper;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveBreedDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Set;
+
+/**
+ * Service class providing non-blocking reads of breed entities ("reactive" profile).
+ * This class implements the ReactiveBreedService interface.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBreedServiceImpl implements ReactiveBreedService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final ReactiveBreedDao dao;
+  private final BreedMapper mapper;
+
+  public ReactiveBreedServiceImpl(ReactiveBreedDao dao, BreedMapper mapper) {
+    this.dao = dao;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public Flux<BreedDto> findBreedsByIds(Set<Long> breedIds) {
+    LOG.trace("findBreedsByIds({})", breedIds);
+    return dao.findBreedsById(breedIds)
+        .map(mapper::entityToDto);
+  }
+
+  @Override
+  public Flux<BreedDto> search(BreedSearchDto searchParams) {
+    LOG.trace("search({})", searchParams);
+    return dao.search(searchParams)
+        .map(mapper::entityToDto);
+  }
+
+  @Override
+  public Mono<BreedSearchResultDto> searchWithVersion(BreedSearchDto searchParams) {
+    LOG.trace("searchWithVersion({})", searchParams);
+    return dao.searchWithVersion(searchParams)
+        .map(breeds -> new BreedSearchResultDto(breeds.version(), breeds.breeds().stream().map(mapper::entityToDto).toList()));
+  }
+}
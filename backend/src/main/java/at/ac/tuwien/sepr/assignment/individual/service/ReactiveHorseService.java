@@ -0,0 +1,34 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking service for reading horses, used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link HorseService}, validated the same way.
+ */
+public interface ReactiveHorseService {
+  /**
+   * Search for horses in the persistent data store matching all provided fields.
+   * The name is considered a match, if the search string is a substring of the field in Horse.
+   *
+   * @param searchParameters the search parameters to use in filtering.
+   * @return the horses where the given fields match, failing with a {@link ValidationException}
+   *     if the search data is in itself incorrect (name too long, born Earliest > born Latest …)
+   */
+  Flux<HorseListDto> search(HorseSearchDto searchParameters);
+
+  /**
+   * Get the horse with given ID, with more detail information.
+   * This includes the breed of the horse.
+   *
+   * @param id the ID of the horse to get
+   * @return the horse with ID {@code id}, failing with a {@link NotFoundException} if the horse doesn't exist
+   */
+  Mono<HorseDetailDto> getById(long id);
+}
@@ -0,0 +1,84 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.mapper.HorseMapper;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveHorseDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class providing non-blocking reads of horse entities ("reactive" profile).
+ * This class implements the ReactiveHorseService interface, using the validator and mapper of {@link HorseServiceImpl}.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveHorseServiceImpl implements ReactiveHorseService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final ReactiveHorseDao dao;
+  private final HorseMapper mapper;
+  private final HorseValidator validator;
+  private final ReactiveBreedService breedService;
+
+  public ReactiveHorseServiceImpl(ReactiveHorseDao dao, HorseMapper mapper, HorseValidator validator, ReactiveBreedService breedService) {
+    this.dao = dao;
+    this.mapper = mapper;
+    this.validator = validator;
+    this.breedService = breedService;
+  }
+
+  @Override
+  public Flux<HorseListDto> search(HorseSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return Mono.fromCallable(() -> validatedForSearch(searchParameters))
+        .flatMap(validParameters -> dao.search(validParameters).collectList())
+        // the breeds of all found horses are got at once, after the horses
+        .flatMapMany(horses -> breedMapForHorses(horses)
+            .flatMapIterable(breedsPerId -> horses.stream()
+                .map(horse -> mapper.entityToListDto(horse, breedsPerId))
+                .toList()));
+  }
+
+  @Override
+  public Mono<HorseDetailDto> getById(long id) {
+    LOG.trace("details({})", id);
+    return dao.getById(id)
+        .flatMap(horse -> breedMapForHorses(Set.of(horse))
+            .map(breedsPerId -> mapper.entityToDetailDto(horse, breedsPerId)));
+  }
+
+  private HorseSearchDto validatedForSearch(HorseSearchDto searchParameters) throws ValidationException {
+    validator.validateForSearch(searchParameters);
+    return searchParameters;
+  }
+
+  /**
+   * Retrieves the breeds of the given horses.
+   *
+   * @param horses the horses whose breeds are to be retrieved
+   * @return a map containing the breeds of the horses by their IDs
+   */
+  private Mono<Map<Long, BreedDto>> breedMapForHorses(Collection<Horse> horses) {
+    Set<Long> breedIds = horses.stream()
+        .map(Horse::getBreedId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet());
+    return breedService.findBreedsByIds(breedIds)
+        .collectMap(BreedDto::id);
+  }
+}
@@ -0,0 +1,40 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking service for reading tournaments, used by the reactive read endpoints ("reactive" profile).
+ * Provides the same reads as {@link TournamentService}, validated the same way.
+ */
+public interface ReactiveTournamentService {
+  /**
+   * Search for tournaments in the persistent data store matching all provided fields.
+   *
+   * @param searchParameters the search parameters to use in filtering.
+   * @return the tournaments where the given fields match, failing with a {@link ValidationException} if the search data is invalid
+   */
+  Flux<TournamentListDto> search(TournamentSearchDto searchParameters);
+
+  /**
+   * Retrieves the details of a tournament, including its participants and their standings.
+   *
+   * @param id the id of the tournament
+   * @return the details of the tournament, failing with a {@link NotFoundException} if the tournament doesn't exist
+   */
+  Mono<TournamentDetailDto> getTournamentDetailsById(long id);
+
+  /**
+   * Retrieves the snapshot of the standings of a finalized tournament.
+   *
+   * @param id the id of the tournament
+   * @return the snapshot of the standings, empty if the tournament isn't finalized
+   */
+  Mono<TournamentSnapshotDto> getSnapshotById(long id);
+}
@@ -0,0 +1,62 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.mapper.TournamentMapper;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ReactiveTournamentDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Service class providing non-blocking reads of tournament entities ("reactive" profile).
+ * This class implements the ReactiveTournamentService interface, using the validator and mapper of {@link TournamentServiceImpl}.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTournamentServiceImpl implements ReactiveTournamentService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final ReactiveTournamentDao dao;
+  private final TournamentMapper mapper;
+  private final TournamentValidator validator;
+
+  public ReactiveTournamentServiceImpl(ReactiveTournamentDao dao, TournamentMapper mapper, TournamentValidator validator) {
+    this.dao = dao;
+    this.mapper = mapper;
+    this.validator = validator;
+  }
+
+  @Override
+  public Flux<TournamentListDto> search(TournamentSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return Mono.fromCallable(() -> validatedForSearch(searchParameters))
+        .flatMapMany(dao::search)
+        .map(mapper::entityToListDto);
+  }
+
+  private TournamentSearchDto validatedForSearch(TournamentSearchDto searchParameters) throws ValidationException {
+    validator.validateForSearch(searchParameters);
+    return searchParameters;
+  }
+
+  @Override
+  public Mono<TournamentDetailDto> getTournamentDetailsById(long id) {
+    LOG.trace("getTournamentDetailsById({})", id);
+    return dao.getTournamentWithParticipantsById(id)
+        .doOnNext(tournament -> LOG.debug("retrieved the following tournament details for the tournament id {}: ({})", id, tournament));
+  }
+
+  @Override
+  public Mono<TournamentSnapshotDto> getSnapshotById(long id) {
+    LOG.trace("getSnapshotById({})", id);
+    return dao.findSnapshotById(id);
+  }
+}
@@ -0,0 +1,69 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of search results, keyed by the normalized search parameters.
+ * A result is used for at most the time to live and only as long as the data it was computed from didn't change,
+ * which is checked with a version (e.g. the sum of the change counters of the searched tables) taken before the search ran.
+ *
+ * @param <K> the type of the normalized search parameters
+ * @param <V> the type of the search results, which must not be modified after they were cached
+ */
+final class SearchResultCache<K, V> {
+  private final Map<K, CachedResult<V>> results;
+  private final long timeToLiveNanos;
+  private final LongSupplier version;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxSize the maximum number of cached results, the least recently used result is dropped first
+   * @param timeToLive the time a result is used at most
+   * @param version supplies the current version of the searched data
+   */
+  SearchResultCache(int maxSize, Duration timeToLive, LongSupplier version) {
+    this.results = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, CachedResult<V>> eldest) {
+        return size() > maxSize;
+      }
+    };
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.version = version;
+  }
+
+  /**
+   * Gets the cached result of the search, running the search if there is no current result.
+   *
+   * @param key the normalized search parameters
+   * @param search runs the search
+   * @return the result of the search
+   */
+  V get(K key, Supplier<V> search) {
+    long currentVersion = version.getAsLong(); // taken before searching, so a change during the search outdates the result
+    long now = System.nanoTime();
+    synchronized (this) {
+      CachedResult<V> cached = results.get(key);
+      if (cached != null && cached.version() == currentVersion && now - cached.cachedAt() < timeToLiveNanos) {
+        return cached.result();
+      }
+    }
+    V result = search.get();
+    synchronized (this) {
+      results.put(key, new CachedResult<>(result, currentVersion, now));
+    }
+    return result;
+  }
+
+  private record CachedResult<V>(
+      V result,
+      long version,
+      long cachedAt
+  ) {
+  }
+}
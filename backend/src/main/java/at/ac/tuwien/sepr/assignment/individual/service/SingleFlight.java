@@ -0,0 +1,106 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces identical concurrent reads: while a read of a key is running, further reads of the same key don't start
+ * a read of their own, but wait for the running one and get its result (or its exception).
+ * When many clients request the same data at the same moment, e.g. after a bracket was updated, it is read only once.
+ *
+ * <p>The key has to identify the state of the data read, e.g. by containing the change counters of the read tables,
+ * so that a read started after a change never gets the result of a read which started before it.
+ * The results are shared between all waiting callers, so they must not be modified.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+final class SingleFlight<K, V> {
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Runs the read of the key, or waits for the read of the key which is already running.
+   *
+   * @param key the key identifying the read
+   * @param read the read to run if none is running for the key
+   * @param <E> the type of the checked exception thrown by the read
+   * @return the result of the read
+   * @throws E if the read failed
+   * @throws FatalException if the thread was interrupted while waiting for the running read, the interrupt flag stays set
+   */
+  <E extends Exception> V execute(K key, Read<V, E> read) throws E {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> runningFlight = inFlight.putIfAbsent(key, flight);
+    if (runningFlight != null) {
+      return await(runningFlight);
+    }
+    try {
+      V result = read.read();
+      flight.complete(result);
+      return result;
+    } catch (Exception | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  /**
+   * Gets the number of callers waiting for the running read of the key.
+   * Meant for monitoring and tests, the number may already be outdated when it is returned.
+   *
+   * @param key the key identifying the read
+   * @return the number of waiting callers, 0 if no read of the key is running
+   */
+  int waitingCallers(K key) {
+    CompletableFuture<V> flight = inFlight.get(key);
+    return flight == null ? 0 : flight.getNumberOfDependents();
+  }
+
+  @SuppressWarnings("unchecked") // a running read of the same key throws the same exceptions as the read of the waiting caller
+  private static <V, E extends Exception> V await(CompletableFuture<V> flight) throws E {
+    try {
+      return flight.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FatalException("Interrupted while waiting for a running read of the same data", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw (E) cause;
+    }
+  }
+
+  /**
+   * Key of a read of the entity with the given ID, in the given version of the read tables.
+   *
+   * @param id the ID of the read entity
+   * @param version the version of the read tables, e.g. the sum of their change counters
+   */
+  record VersionedId(
+      long id,
+      long version
+  ) {
+  }
+
+  /**
+   * A read whose result can be shared.
+   *
+   * @param <V> the type of the result
+   * @param <E> the type of the checked exception thrown by the read
+   */
+  @FunctionalInterface
+  interface Read<V, E extends Exception> {
+    V read() throws E;
+  }
+}
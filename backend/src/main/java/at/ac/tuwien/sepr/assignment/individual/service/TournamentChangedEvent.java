@@ -0,0 +1,12 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+/**
+ * Application event published when the standings of a tournament were changed.
+ * If the change is made within a transaction, listeners should only react after it was committed.
+ *
+ * @param tournamentId the ID of the changed tournament
+ */
+public record TournamentChangedEvent(
+    long tournamentId
+) {
+}
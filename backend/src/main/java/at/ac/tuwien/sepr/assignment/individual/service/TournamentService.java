@@ -1,13 +1,17 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 
 import java.util.stream.Stream;
 
@@ -25,6 +29,17 @@ public interface TournamentService {
    */
   Stream<TournamentListDto> search(TournamentSearchDto searchParameters) throws ValidationException;
 
+  /**
+   * Search for tournaments in the persistent data store matching all provided fields, like {@link #search(TournamentSearchDto)}.
+   * The tournaments are read from the persistent data store while the stream is consumed, so the result is never held in memory as a whole.
+   * The stream must be closed after use.
+   *
+   * @param searchParameters the search parameters to use in filtering.
+   * @return the tournaments where the given fields match.
+   * @throws ValidationException if the search data is in itself incorrect (name too long, start date > end date)
+   */
+  Stream<TournamentListDto> searchAsStream(TournamentSearchDto searchParameters) throws ValidationException;
+
   /**
    * Adds the tournament in the persistent data store.
    *
@@ -46,13 +61,60 @@ public interface TournamentService {
 
   /**
    * Updates an already existing tournament with the given tournament details.
+   * The update is rejected if the standings were changed since the client read them, either before the update started
+   * (the expected version doesn't match anymore) or concurrently (another change of the standings was committed first).
+   * A concurrent change is reported as a version mismatch if the client expected a version, and as a conflict otherwise.
    *
    * @param tournament the new data of the tournament which should replace the old data of the tournament
-   * @return returns the current details of the tournament
+   * @param expectedVersion the version of the tournament the update is based on, {@code null} if the update is based on the current version
+   * @return returns the current details of the tournament, with its new version
    * @throws NotFoundException if this tournament was not found
-   * @throws ConflictException if horses provided in tournament details don't match with the current details of this tournament (not expected horses, etc.)
+   * @throws ConflictException if horses provided in tournament details don't match with the current details of this tournament (not expected horses, etc.),
+   *     or if no version is expected and the standings were changed concurrently
+   * @throws VersionMismatchException if the standings of the tournament were changed since the version the update is based on
+   */
+  TournamentDetailDto updateTournament(TournamentUpdateDto tournament, Long expectedVersion)
+      throws ValidationException, NotFoundException, ConflictException, VersionMismatchException;
+
+  /**
+   * Records the result of a single match of a tournament, by advancing its winner to the next round.
+   * Only the standings of the winner and its opponent are read, and only the standing of the winner is written.
+   * If the client expected a version, the result is rejected if the standings were changed concurrently.
+   * Otherwise results of different matches don't conflict, only a concurrent result of the same match is rejected.
+   *
+   * @param id the id of the tournament
+   * @param result the winner of the match and the round it was played in
+   * @param expectedVersion the version of the tournament the result is based on, {@code null} if it is based on the current version
+   * @return the new standing of the winner
+   * @throws ValidationException if the result is invalid
+   * @throws NotFoundException if the tournament was not found
+   * @throws ConflictException if the horse doesn't take part in the tournament, its match can't be decided (yet or concurrently)
+   *     or the tournament is finalized
+   * @throws VersionMismatchException if the standings of the tournament were changed since the version the result is based on
+   */
+  TournamentUpdateParticipantDto advanceHorse(long id, MatchResultDto result, Long expectedVersion)
+      throws ValidationException, NotFoundException, ConflictException, VersionMismatchException;
+
+  /**
+   * Finalizes a tournament whose final round is decided, by saving an immutable snapshot of its standings.
+   * The standings of a finalized tournament can't be updated anymore and are read from the snapshot from then on,
+   * so they also keep the names of the horses at the time of finalizing.
+   *
+   * @param id the id of the tournament
+   * @return the final standings of the tournament
+   * @throws NotFoundException if the tournament was not found
+   * @throws ConflictException if the final round of the tournament isn't decided, the tournament is already finalized
+   *     or its standings were changed while it was finalized
+   */
+  TournamentDetailDto finalizeTournament(long id) throws NotFoundException, ConflictException;
+
+  /**
+   * Retrieves the snapshot of the standings of a finalized tournament.
+   *
+   * @param id the id of the tournament
+   * @return the snapshot of the standings, {@code null} if the tournament isn't finalized
    */
-  TournamentDetailDto updateTournament(TournamentUpdateDto tournament) throws ValidationException, NotFoundException, ConflictException;
+  TournamentSnapshotDto getSnapshotById(long id);
 
   /**
    * Retrieves the details of a tournament with id where the standing of each horse was generated for round 1 based on its score the past 12 months.
@@ -1,32 +1,51 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsParticipantsWithPointsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSnapshotDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
 import at.ac.tuwien.sepr.assignment.individual.entity.Standing;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
-import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsTreeDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.exception.VersionMismatchException;
 import at.ac.tuwien.sepr.assignment.individual.mapper.TournamentMapper;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseDao;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseMappedToTournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TableChangeCounters;
 import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentSnapshotDao;
+import at.ac.tuwien.sepr.assignment.individual.type.BracketFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 /**
@@ -39,110 +58,149 @@ public class TournamentServiceImpl implements TournamentService {
   private final TournamentDao tournamentDao;
   private final HorseDao horseDao; // Necessary for checking for ConflictException when adding horses to a tournament
   private final HorseMappedToTournamentDao horseMappedToTournamentDao;
+  private final TournamentSnapshotDao tournamentSnapshotDao;
+  private final ObjectMapper objectMapper; // serializes the standings of finalized tournaments into their snapshot
   private final TournamentMapper mapper;
   private final TournamentValidator validator;
-  private final TournamentMapper tournamentMapper;
+  private final ApplicationEventPublisher eventPublisher; // tells caches of the standings that they changed
+  private final SearchResultCache<TournamentSearchDto, List<TournamentListDto>> searchCache;
+  private final TableChangeCounters tableChanges;
+  private final SingleFlight<SingleFlight.VersionedId, TournamentDetailDto> tournamentDetailsReads = new SingleFlight<>();
 
   public TournamentServiceImpl(TournamentDao tournamentDao,
                                HorseDao horseDao,
                                HorseMappedToTournamentDao horseMappedToTournamentDao,
+                               TournamentSnapshotDao tournamentSnapshotDao,
+                               ObjectMapper objectMapper,
                                TournamentMapper mapper,
-                               TournamentValidator validator, TournamentMapper tournamentMapper) {
+                               TournamentValidator validator,
+                               ApplicationEventPublisher eventPublisher,
+                               TableChangeCounters tableChanges,
+                               @Value("${cache.search.max-size}") int searchCacheMaxSize,
+                               @Value("${cache.search.time-to-live}") Duration searchCacheTimeToLive) {
     this.tournamentDao = tournamentDao;
     this.horseDao = horseDao;
     this.horseMappedToTournamentDao = horseMappedToTournamentDao;
+    this.tournamentSnapshotDao = tournamentSnapshotDao;
+    this.objectMapper = objectMapper;
     this.mapper = mapper;
     this.validator = validator;
-    this.tournamentMapper = tournamentMapper;
+    this.eventPublisher = eventPublisher;
+    this.tableChanges = tableChanges;
+    this.searchCache = new SearchResultCache<>(searchCacheMaxSize, searchCacheTimeToLive, () -> tableChanges.current("tournament"));
   }
 
   @Override
   public Stream<TournamentListDto> search(TournamentSearchDto searchParameters) throws ValidationException {
     LOG.trace("search({})", searchParameters);
     validator.validateForSearch(searchParameters);
-    var tournaments = tournamentDao.search(searchParameters);
-    LOG.debug("tournaments found: {}", tournaments);
-    return tournaments.stream().map(tournament -> mapper.entityToListDto(tournament));
+    TournamentSearchDto normalizedParameters = normalize(searchParameters);
+    return searchCache.get(normalizedParameters, () -> {
+      var tournaments = tournamentDao.search(normalizedParameters);
+      LOG.debug("tournaments found: {}", tournaments);
+      return tournaments.stream().map(tournament -> mapper.entityToListDto(tournament)).toList();
+    }).stream();
+  }
+
+  /**
+   * Normalizes the search parameters, so that all searches with the same result share one entry in the search cache.
+   * Names are searched case-insensitively, so they are upper-cased, and an empty name matches every tournament like no name at all.
+   *
+   * @param searchParameters the search parameters to normalize
+   * @return the normalized search parameters
+   */
+  private static TournamentSearchDto normalize(TournamentSearchDto searchParameters) {
+    String name = searchParameters.name();
+    return new TournamentSearchDto(
+        name == null || name.isEmpty() ? null : name.toUpperCase(Locale.ROOT),
+        searchParameters.earliestTournamentDay(),
+        searchParameters.latestTournamentDay(),
+        searchParameters.limit(),
+        searchParameters.cursor());
+  }
+
+  @Override
+  public Stream<TournamentListDto> searchAsStream(TournamentSearchDto searchParameters) throws ValidationException {
+    LOG.trace("searchAsStream({})", searchParameters);
+    validator.validateForSearch(searchParameters);
+    return tournamentDao.searchAsStream(searchParameters).map(tournament -> mapper.entityToListDto(tournament));
   }
 
   @Override
+  @Transactional(rollbackFor = Exception.class) // the tournament must not be stored without its horses
   public TournamentDetailDto add(TournamentCreateDto tournament) throws ValidationException, ConflictException {
     LOG.trace("add({})", tournament);
     validator.validateForInsert(tournament);
+    Map<Long, Horse> horsesById;
+    try { // Checks if a horse doesn't exist (ConflictException)
+      horsesById = horseDao.getByIds(Arrays.stream(tournament.participants()).map(HorseSelectionDto::id).toList());
+    } catch (NotFoundException e) {
+      LOG.debug("horses of the tournament not found: {}", e.getMessage());
+      throw new ConflictException("Couldn't add the horses to the tournament because at least one of these horses doesn't exist",
+          Collections.singletonList(e.getMessage()));
+    }
     Horse[] horses = new Horse[tournament.participants().length];
     for (int i = 0; i < tournament.participants().length; i++) {
-      try { // Checks if horse doesn't exist (ConflictException)
-        Horse horse = horseDao.getById(tournament.participants()[i].id()); // will throw NotFoundException if horse not found
-        horses[i] = horse;
-      } catch (NotFoundException e) {
-        LOG.debug("horse {} not found", tournament.participants()[i].id());
-        throw new ConflictException("Couldn't add horse " + tournament.participants()[i].name() + " to tournament because this horse doesn't exist",
-            Collections.singletonList(e.getMessage()));
-      }
+      horses[i] = horsesById.get(tournament.participants()[i].id());
     }
     LOG.debug("now adding to db: {}", tournament);
     Tournament newlyAddedTournament = tournamentDao.add(tournament);
     LOG.debug("This tournament was added to db: {}", newlyAddedTournament);
-    for (int i = 0; i < tournament.participants().length; i++) {
-      horseMappedToTournamentDao.add(tournament.participants()[i].id(), newlyAddedTournament.getId());
-    }
+    horseMappedToTournamentDao.addAll(newlyAddedTournament.getId(), horsesById.keySet());
     return mapper.entityToDetailDto(newlyAddedTournament, horses);
   }
 
   @Override
   public TournamentDetailDto getTournamentDetailsById(long id) throws NotFoundException {
     LOG.trace("getTournamentDetailsById({})", id);
-    Tournament tournamentEntity = tournamentDao.getTournamentDetailsById(id);
-    LOG.debug("retrieved the following tournament entry for the tournament id {}: ({})", id, tournamentEntity);
-    List<Standing> horseStandings = horseMappedToTournamentDao.getHorsesInTournament(id);
-    LOG.debug("retrieved the following horse to tournament mapping for the tournament id {}: ({})", id, horseStandings);
-    TournamentDetailParticipantDto[] participants = new TournamentDetailParticipantDto[horseStandings.size()];
-    for (int i = 0; i < horseStandings.size(); i++) {
-      Horse horse = horseDao.getById(horseStandings.get(i).getHorseId());
-      participants[i] = new TournamentDetailParticipantDto(
-          horse.getId(),
-          horse.getName(),
-          horse.getDateOfBirth(),
-          horseStandings.get(i).getEntryNumber(),
-          horseStandings.get(i).getRoundReached()
-          );
-    }
-    return new TournamentDetailDto(
-      tournamentEntity.getId(),
-      tournamentEntity.getName(),
-      tournamentEntity.getStartDate(),
-      tournamentEntity.getEndDate(),
-      participants
-    );
+    // concurrent requests for the same tournament share one read, as long as its tournament, horses and standings didn't change
+    long version = tableChanges.current("tournament") + tableChanges.current("horse") + tableChanges.current("horse_mapped_to_tournament");
+    return tournamentDetailsReads.execute(new SingleFlight.VersionedId(id, version), () -> {
+      TournamentDetailDto tournament = tournamentDao.getTournamentWithParticipantsById(id);
+      LOG.debug("retrieved the following tournament details for the tournament id {}: ({})", id, tournament);
+      return tournament;
+    });
   }
 
   @Override
-  public TournamentDetailDto updateTournament(TournamentUpdateDto tournamentUpdateDto) throws ValidationException, NotFoundException, ConflictException {
-    LOG.trace("updateTournament({})", tournamentUpdateDto);
+  @Transactional(rollbackFor = Exception.class) // either all changed standings are saved or none of them
+  public TournamentDetailDto updateTournament(TournamentUpdateDto tournamentUpdateDto, Long expectedVersion)
+      throws ValidationException, NotFoundException, ConflictException, VersionMismatchException {
+    LOG.trace("updateTournament({}, {})", tournamentUpdateDto, expectedVersion);
     TournamentDetailDto tournament = mapper.updateDtoToDetailDto(tournamentUpdateDto); // converts to this other dto to be able to reuse already existing code
-    validator.validateForUpdate(tournament);
-    final Tournament tournamentEntity = tournamentDao.getTournamentDetailsById(tournament.id()); // checks if the tournament doesn't exist (NotFoundException)
+    // the standings are checked on their own first, so invalid standings are rejected without reading the tournament
+    validator.validateBodyForUpdate(tournament);
+    // checks if the tournament doesn't exist (NotFoundException), its version is read before the standings the update is based on
+    final Tournament tournamentEntity = tournamentDao.getTournamentDetailsById(tournament.id());
     LOG.debug("The provided tournament exists");
+    checkVersion(tournamentEntity, expectedVersion);
+    if (tournamentSnapshotDao.existsById(tournament.id())) {
+      throw new ConflictException("The tournament is finalized, its standings can't be changed anymore",
+          Collections.singletonList("snapshot of the tournament found in database"));
+    }
+    List<Standing> horseStandingsInTournament = horseMappedToTournamentDao.getHorsesInTournament(tournament.id());
+    Map<Long, Standing> standingsByHorseId = new HashMap<>();
+    horseStandingsInTournament.forEach(standing -> standingsByHorseId.put(standing.getHorseId(), standing));
+    // the size of the bracket depends on all horses of the tournament, not only on the provided ones
+    BracketFormat format = BracketFormat.of(horseStandingsInTournament.size());
+    validator.validateForUpdate(tournament, format);
+    Map<Long, Horse> horsesById;
+    try { // Checks if a horse doesn't exist (ConflictException)
+      horsesById = horseDao.getByIds(Arrays.stream(tournament.participants()).map(TournamentDetailParticipantDto::horseId).toList());
+    } catch (NotFoundException e) {
+      LOG.debug("horses of the tournament not found: {}", e.getMessage());
+      throw new ConflictException("Couldn't find a horse because this horse doesn't exist",
+          Collections.singletonList(e.getMessage()));
+    }
     Horse[] horses = new Horse[tournament.participants().length];
-
-    // Checks if a horse doesn't exist (ConflictException)
     for (int i = 0; i < tournament.participants().length; i++) {
-      try {
-        Horse horse = horseDao.getById(tournament.participants()[i].horseId()); // will throw NotFoundException if horse was not found
-        horses[i] = horse;
-      } catch (NotFoundException e) {
-        LOG.debug("horse {} not found", tournament.participants()[i].horseId());
-        throw new ConflictException("Couldn't find a horse because this horse doesn't exist",
-            Collections.singletonList(e.getMessage()));
-      }
+      horses[i] = horsesById.get(tournament.participants()[i].horseId());
     }
-    List<Standing> horseStandingsInTournament = horseMappedToTournamentDao.getHorsesInTournament(tournament.id());
     LOG.debug("All provided Horses exist in the database");
 
     // Checks if horse isn't in tournament
-    for (int i = 0; i < horses.length; i++) {
-      int finalI = i; // need this extra i to use in the lambda expression
-      if (horseStandingsInTournament.stream().noneMatch(horseToTournamentMapping -> horseToTournamentMapping.getHorseId() == horses[finalI].getId()))  {
+    for (Horse horse : horses) {
+      if (!standingsByHorseId.containsKey(horse.getId())) {
         throw new ConflictException("A provided horse isn't part of this tournament", Collections.singletonList("horse not found in mapping"));
       }
     }
@@ -151,130 +209,209 @@ public class TournamentServiceImpl implements TournamentService {
     // For the current horse-tournament-mapping in the db creates an array of horses which are at least in round 1
     boolean existingStandings = false; // is true if at least one horse exists that is in a round
     ArrayList<TournamentDetailParticipantDto> participants = new ArrayList<>();
-    for (int i = 0; i < horses.length; i++) {
-      int finalI = i;
+    for (Horse horse : horses) {
       // Checks if the current horse is in any round
-      Standing standingOfThisHorse = horseStandingsInTournament.stream().filter(mapping -> mapping.getHorseId() == horses[finalI].getId()).toList().getFirst();
+      Standing standingOfThisHorse = standingsByHorseId.get(horse.getId());
       if (standingOfThisHorse.getRoundReached() != null) {
         existingStandings = true;
         participants.add(new TournamentDetailParticipantDto(
-            horses[i].getId(),
-            horses[i].getName(),
-            horses[i].getDateOfBirth(),
+            horse.getId(),
+            horse.getName(),
+            horse.getDateOfBirth(),
             standingOfThisHorse.getEntryNumber(),
             standingOfThisHorse.getRoundReached()));
       }
     }
 
-    // creating the tree for the current data in the database:
-    TournamentStandingsTreeDto curTreeInDB = null;
-    if (existingStandings == true) {
+    // creating the bracket for the current data in the database:
+    Bracket curBracketInDB = null;
+    if (existingStandings) {
       LOG.debug("Existing standings found for this tournament");
-      curTreeInDB = tournamentMapper.tournamentDetailsDtoToTournamentStandingTree(
-          new TournamentDetailDto(
-              tournamentEntity.getId(),
-              tournamentEntity.getName(),
-              tournamentEntity.getStartDate(),
-              tournamentEntity.getEndDate(),
-              participants.toArray(new TournamentDetailParticipantDto[participants.size()])));
-      LOG.debug("This tree is currently in the database for tournament " + tournamentEntity.getId() + ": " + curTreeInDB.toStringSmaller());
+      curBracketInDB = Bracket.of(participants.toArray(new TournamentDetailParticipantDto[participants.size()]), format);
+      LOG.debug("This bracket is currently in the database for tournament {}: {}", tournamentEntity.getId(), curBracketInDB);
     }
 
-    // creating the tree for the new data to be saved in the database:
+    // creating the bracket for the new data to be saved in the database:
     participants = new ArrayList<>();
     for (int i = 0; i < horses.length; i++) {
-      int finalI = i;
-      List<TournamentDetailParticipantDto> horseOfNewTree =
-          Arrays.stream(tournament.participants()).filter(horse -> horse.horseId() == horses[finalI].getId()).toList();
-      Long newEntryNum;
-      Long newRoundNum;
-      if (horseOfNewTree.isEmpty()) {
-        newEntryNum = null;
-        newRoundNum = null;
-      } else {
-        newEntryNum = horseOfNewTree.getFirst().entryNumber();
-        newRoundNum = horseOfNewTree.getFirst().roundReached();
-      }
+      // the horses were read in the order of the provided participants
       participants.add(new TournamentDetailParticipantDto(
           horses[i].getId(),
           horses[i].getName(),
           horses[i].getDateOfBirth(),
-          newEntryNum,
-          newRoundNum));
+          tournament.participants()[i].entryNumber(),
+          tournament.participants()[i].roundReached()));
     }
-    TournamentStandingsTreeDto newTreeInDB = tournamentMapper.tournamentDetailsDtoToTournamentStandingTree(
-        new TournamentDetailDto(
-            tournamentEntity.getId(),
-            tournamentEntity.getName(),
-            tournamentEntity.getStartDate(),
-            tournamentEntity.getEndDate(),
-            participants.toArray(new TournamentDetailParticipantDto[participants.size()])));
-    LOG.debug("This tree will be the new tree for the tournament " + tournamentEntity.getId() + ": " + newTreeInDB.toStringSmaller());
-    if (!existingStandings) {
-      LOG.debug("Since there is no standings tree in database, the new standings tree will be kept\n" + "The new standing tree will be:\n"
-          + newTreeInDB.toStringSmaller());
-    } else {
-      LOG.debug("The new standingsTree will now be compared with the standingsTree in the database\n" + "\nThis is the new tree:\n"
-          + newTreeInDB.toStringSmaller() + "\nIt will be compared to the existing tree:\n" + curTreeInDB.toStringSmaller());
+    Bracket newBracketInDB = Bracket.of(participants.toArray(new TournamentDetailParticipantDto[participants.size()]), format);
+    LOG.debug("This bracket will be the new bracket for the tournament {}: {}", tournamentEntity.getId(), newBracketInDB);
+    if (existingStandings) {
       try {
-        validator.validateTreeCompability(newTreeInDB, curTreeInDB);
+        validator.validateTreeCompability(newBracketInDB, curBracketInDB);
       } catch (ValidationException e) {
         throw new ConflictException("The new standings tree is not compatible with the old one",
             Collections.singletonList(e.getMessage()));
       }
     }
-    for (int i = 0; i < participants.size(); i++) {
-      horseMappedToTournamentDao.update(participants.get(i), tournament.id());
+    // only the standings which actually changed are written to the database
+    List<TournamentDetailParticipantDto> changedParticipants = participants.stream()
+        .filter(participant -> {
+          Standing standing = standingsByHorseId.get(participant.horseId());
+          return !Objects.equals(standing.getEntryNumber(), participant.entryNumber())
+              || !Objects.equals(standing.getRoundReached(), participant.roundReached());
+        })
+        .toList();
+    LOG.debug("{} of {} standings changed for the tournament {}", changedParticipants.size(), participants.size(), tournament.id());
+    long version = tournamentEntity.getVersion();
+    if (!changedParticipants.isEmpty()) {
+      horseMappedToTournamentDao.updateAll(tournament.id(), changedParticipants);
+      if (expectedVersion != null) {
+        // fails if a concurrent update based on the same standings was committed first, which rolls back this update
+        version = tournamentDao.incrementVersion(tournament.id(), version);
+      } else {
+        long readVersion = version;
+        version = tournamentDao.incrementVersion(tournament.id()); // waits until concurrent changes are committed
+        if (version != readVersion + 1) {
+          // the client didn't send a version, its update was only checked against standings changed in the meantime
+          throw new ConflictException("The standings of the tournament were changed while they were updated",
+              Collections.singletonList("the tournament was changed since version " + readVersion));
+        }
+      }
+      eventPublisher.publishEvent(new TournamentChangedEvent(tournament.id()));
+    }
+    return new TournamentDetailDto(
+        tournamentEntity.getId(),
+        tournamentEntity.getName(),
+        tournamentEntity.getStartDate(),
+        tournamentEntity.getEndDate(),
+        participants.toArray(new TournamentDetailParticipantDto[0]),
+        version);
+  }
+
+  /**
+   * Checks that the tournament still has the version the client based its update on.
+   * This rejects outdated updates early, the version is checked again when it is incremented together with the changes.
+   *
+   * @param tournament the tournament as read at the beginning of the update
+   * @param expectedVersion the version expected by the client, {@code null} if the client doesn't expect any version
+   * @throws VersionMismatchException if the tournament doesn't have the expected version
+   */
+  private static void checkVersion(Tournament tournament, Long expectedVersion) throws VersionMismatchException {
+    if (expectedVersion != null && expectedVersion != tournament.getVersion()) {
+      throw new VersionMismatchException("The tournament was changed since version " + expectedVersion);
+    }
+  }
+
+  @Override
+  @Transactional(rollbackFor = Exception.class)
+  public TournamentUpdateParticipantDto advanceHorse(long id, MatchResultDto result, Long expectedVersion)
+      throws ValidationException, NotFoundException, ConflictException, VersionMismatchException {
+    LOG.trace("advanceHorse({}, {}, {})", id, result, expectedVersion);
+    validator.validateForAdvance(result);
+    final Tournament tournament = tournamentDao.getTournamentDetailsById(id); // throws NotFoundException if the tournament doesn't exist
+    checkVersion(tournament, expectedVersion);
+    if (tournamentSnapshotDao.existsById(id)) {
+      throw new ConflictException("The tournament is finalized, its standings can't be changed anymore",
+          Collections.singletonList("snapshot of the tournament found in database"));
+    }
+    Standing winner;
+    try {
+      winner = horseMappedToTournamentDao.getSingleMapping(result.horseId(), id);
+    } catch (NotFoundException e) {
+      throw new ConflictException("A provided horse isn't part of this tournament", Collections.singletonList(e.getMessage()));
+    }
+    final long round = result.round();
+    if (winner.getEntryNumber() == null || !Objects.equals(winner.getRoundReached(), round)) {
+      throw new ConflictException("The horse can't win a match of this round",
+          Collections.singletonList("the horse is in round " + winner.getRoundReached() + " instead of round " + round));
+    }
+    BracketFormat format = BracketFormat.of(horseMappedToTournamentDao.countHorsesInTournament(id));
+    if (round >= format.winnerRound()) {
+      throw new ConflictException("The horse already won the tournament", Collections.singletonList("there is no match in round " + round));
+    }
+    // the opponent comes from the other half of the part of the bracket which is decided by this match
+    long span = 1L << (round - 1); // the number of entry slots each horse of the match won (or got a bye for)
+    long opponentsFirstEntryNumber = ((winner.getEntryNumber() / span) ^ 1) * span;
+    Standing opponent = horseMappedToTournamentDao.getFurthestInEntryRange(id, opponentsFirstEntryNumber, opponentsFirstEntryNumber + span - 1);
+    if (opponent == null || opponent.getRoundReached() < round) {
+      throw new ConflictException("The match can't be decided yet", Collections.singletonList("the opponent of round " + round + " isn't decided yet"));
+    }
+    if (opponent.getRoundReached() > round) {
+      throw new ConflictException("The match was already decided", Collections.singletonList("the opponent already won the match of round " + round));
+    }
+    horseMappedToTournamentDao.advance(result.horseId(), id, round);
+    if (expectedVersion != null) {
+      // fails if the standings were changed since the version the client based the result on, which rolls back this result
+      tournamentDao.incrementVersion(id, expectedVersion);
+    } else {
+      // results of other matches don't conflict with this one, so the version is only used to wait for concurrent results
+      tournamentDao.incrementVersion(id);
+    }
+    // a concurrent result of the same match advanced the opponent as well, it was committed while this one waited for the version
+    Standing opponentNow = horseMappedToTournamentDao.getFurthestInEntryRange(id, opponentsFirstEntryNumber, opponentsFirstEntryNumber + span - 1);
+    if (opponentNow == null || opponentNow.getRoundReached() > round) {
+      throw new ConflictException("The match was decided concurrently", Collections.singletonList("the opponent already won the match of round " + round));
+    }
+    LOG.debug("The horse {} won its match of round {} against the horse {} in the tournament {}", result.horseId(), round, opponent.getHorseId(), id);
+    eventPublisher.publishEvent(new TournamentChangedEvent(id));
+    return new TournamentUpdateParticipantDto(result.horseId(), winner.getEntryNumber(), round + 1);
+  }
+
+  @Override
+  @Transactional(rollbackFor = Exception.class) // the snapshot must contain the standings which were checked for a winner
+  public TournamentDetailDto finalizeTournament(long id) throws NotFoundException, ConflictException {
+    LOG.trace("finalizeTournament({})", id);
+    if (tournamentSnapshotDao.existsById(id)) {
+      throw new ConflictException("The tournament is already finalized", Collections.singletonList("snapshot of the tournament found in database"));
+    }
+    TournamentDetailDto tournament = tournamentDao.getTournamentWithParticipantsById(id); // the version is read together with the standings
+    try {
+      validator.validateForFinalize(tournament);
+    } catch (ValidationException e) {
+      throw new ConflictException("The tournament can't be finalized yet", e.errors());
+    }
+    long version;
+    try {
+      // fails if the standings were updated since they were read, so the snapshot can't contain outdated standings
+      version = tournamentDao.incrementVersion(id, tournament.version());
+    } catch (VersionMismatchException e) {
+      // the client didn't send a version, it only lost the race against a concurrent update and can simply try again
+      throw new ConflictException("The standings of the tournament were changed while it was finalized", Collections.singletonList(e.getMessage()));
+    }
+    tournament = new TournamentDetailDto(tournament.id(), tournament.name(), tournament.startDate(), tournament.endDate(), tournament.participants(), version);
+    byte[] standings;
+    try {
+      standings = objectMapper.writeValueAsBytes(tournament);
+    } catch (JsonProcessingException e) {
+      // This should never happen - the DTO can always be serialized!!
+      throw new FatalException("Couldn't serialize the standings of the tournament " + id, e);
     }
+    tournamentSnapshotDao.add(new TournamentSnapshotDto(id, standings, LocalDateTime.now()));
+    LOG.debug("Finalized the tournament {} with a snapshot of {} bytes", id, standings.length);
+    eventPublisher.publishEvent(new TournamentChangedEvent(id)); // cached standings are replaced by the snapshot
     return tournament;
   }
 
+  @Override
+  public TournamentSnapshotDto getSnapshotById(long id) {
+    LOG.trace("getSnapshotById({})", id);
+    return tournamentSnapshotDao.findById(id);
+  }
+
   @Override
   public TournamentDetailDto generateRound1ById(long id) throws NotFoundException, ConflictException {
     Tournament tournament = tournamentDao.getTournamentDetailsById(id); // throws NotFoundException if the tournament doesn't exist
-    List<Standing> standings = horseMappedToTournamentDao.getHorsesInTournament(id); // throws NotFoundException if mappings for this tournament doesn't exist
-    for (int i = 0; i < standings.size(); i++) { // throws ConflictException if horses are already in a round
+    // one query for the horses of this tournament and the points they collected in the 12 months before it
+    List<TournamentDetailsParticipantsWithPointsDto> horsesWithScores = horseMappedToTournamentDao.getHorsesInTournamentWithPoints(
+        id,
+        tournament.getStartDate().minusMonths(12),
+        tournament.getEndDate()); // throws NotFoundException if mappings for this tournament doesn't exist
+    for (TournamentDetailsParticipantsWithPointsDto horse : horsesWithScores) { // throws ConflictException if horses are already in a round
       // tests if both entry and round number are set. If one is set, the other one should be set as well. But still tested both for good measure
-      if (standings.get(i).getEntryNumber() != null || standings.get(i).getRoundReached() != null) {
+      if (horse.getEntryNumber() != null || horse.getRoundReached() != null) {
         throw new ConflictException("Can't generate first round if horses are already placed in a round",
             Collections.singletonList("Found horse which is already placed in a round"));
       }
     }
-    ArrayList<TournamentDetailsParticipantsWithPointsDto> horsesWithScores = new ArrayList<>(); // will contain the score for each horse
-    for (Standing horse : standings) {
-      List<Standing> allStandingsOfThisHorse; // contains all standings in all tournaments for a single horse
-      allStandingsOfThisHorse = horseMappedToTournamentDao.getTournamentsForHorseInTimeFrame(
-          horse.getHorseId(),
-          tournament.getStartDate().minusMonths(12),
-          tournament.getEndDate());
-      long score = 0;
-      for (int i = 0; i < allStandingsOfThisHorse.size(); i++) {
-        if (allStandingsOfThisHorse.get(i).getRoundReached() != null) {
-          switch ((int) allStandingsOfThisHorse.get(i).getRoundReached().longValue()) { // we check what round the horse reached in the current standing
-            case 2: // Points are only awarded for round 2 and above
-              score += 1;
-              break;
-            case 3:
-              score += 3;
-              break;
-            case 4:
-              score += 5;
-              break;
-            default:
-              break;
-          }
-        }
-      }
-      // need to retrieve horse because the TournamentDetailsParticipantsWithPointsDto needs these basic infos which will later be returned to the user
-      Horse horseEntity = horseDao.getById(horse.getHorseId());
-      horsesWithScores.add(
-          new TournamentDetailsParticipantsWithPointsDto(
-              horseEntity.getId(),
-              horseEntity.getName(),
-              horseEntity.getDateOfBirth(),
-              score
-          ));
-    }
     horsesWithScores.sort((horse1, horse2) -> {
       if (horse1.getPoints() == horse2.getPoints()) {
         return horse1.getName().compareTo(horse2.getName());
@@ -282,12 +419,19 @@ public class TournamentServiceImpl implements TournamentService {
         return Double.compare(horse1.getPoints(), horse2.getPoints()) == -1 ? 1 : -1; // we want to sort in descending order starting with the largest number
       }
     });
-    long curEntryNumber = 0;
-    for (int i = 0; i < horsesWithScores.size() / 2; i++) {
+    // if the horses don't fill the bracket, the best horses get a bye: their opponent's entry slot stays empty and they advance to round 2
+    // the other horses are paired in the remaining matches of round 1, the best remaining horse against the worst remaining horse
+    BracketFormat format = BracketFormat.of(horsesWithScores.size());
+    for (int i = 0; i < format.byes(); i++) {
+      horsesWithScores.get(i).setRoundReached(2L);
+      horsesWithScores.get(i).setEntryNumber(2L * i);
+    }
+    long curEntryNumber = 2L * format.byes();
+    for (int i = format.byes(), j = horsesWithScores.size() - 1; i < j; i++, j--) {
       horsesWithScores.get(i).setRoundReached(1L);
       horsesWithScores.get(i).setEntryNumber(curEntryNumber++);
-      horsesWithScores.get(horsesWithScores.size() - 1 - i).setRoundReached(1L);
-      horsesWithScores.get(horsesWithScores.size() - 1 - i).setEntryNumber(curEntryNumber++);
+      horsesWithScores.get(j).setRoundReached(1L);
+      horsesWithScores.get(j).setEntryNumber(curEntryNumber++);
     }
     LOG.debug("created matching of the horses for round 1: ");
     horsesWithScores.stream().forEach(h -> LOG.debug(h.toString())); // for debugging purposes
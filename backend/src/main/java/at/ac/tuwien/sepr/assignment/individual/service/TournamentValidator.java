@@ -1,20 +1,25 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
-import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsTreeDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
-import at.ac.tuwien.sepr.assignment.individual.mapper.TournamentMapper;
+import at.ac.tuwien.sepr.assignment.individual.type.BracketFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Validator class for performing validation checks on tournament data.
@@ -49,6 +54,13 @@ public class TournamentValidator {
     if (searchParameters.name() != null) {
       validationErrors.addAll(validateNameWithoutRegex(searchParameters.name()));
     }
+    if (searchParameters.cursor() != null) {
+      try {
+        LocalDate.parse(SearchCursor.decode(searchParameters.cursor()).sortKey()); // tournaments are paged by their start date
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        validationErrors.add("The cursor is not valid");
+      }
+    }
     if (!validationErrors.isEmpty()) {
       throw new ValidationException("Validation of the search parameters failed", validationErrors);
     }
@@ -69,11 +81,12 @@ public class TournamentValidator {
     if (tournament.startDate() == null) {
       validStartDate = false; // will skip the horse checks for which the date is needed
     }
-    if (tournament.participants() == null || tournament.participants().length != 8) {
-      validationErrors.add("A tournament must have exactly 8 horses");
+    if (tournament.participants() == null || tournament.participants().length < BracketFormat.MIN_PARTICIPANTS
+        || tournament.participants().length > BracketFormat.MAX_PARTICIPANTS) {
+      validationErrors.add("A tournament must have between " + BracketFormat.MIN_PARTICIPANTS + " and " + BracketFormat.MAX_PARTICIPANTS + " horses");
     }
     if (tournament.participants() != null) { // tournament.participants().length can only be accessed if horses is not null
-      ArrayList<Long> horsesComparison = new ArrayList<>(); // used to check if the same horse was added multiple times to the tournament
+      Set<Long> horsesComparison = new HashSet<>(); // used to check if the same horse was added multiple times to the tournament
       for (int i = 0; i < tournament.participants().length; i++) {
         if (tournament.participants()[i] == null) {
           validationErrors.add("A horse containing no data was provided");
@@ -102,158 +115,146 @@ public class TournamentValidator {
   }
 
   /**
-   * Validates the provided tournament details before performing an update operation (updating a tournament in the persistence storage).
+   * Validates the provided standings on their own, before the tournament is read for an update operation.
+   * Only checks which don't depend on the tournament are done here, so an invalid request is rejected without reading
+   * (and locking) the tournament, see {@link #validateForUpdate(TournamentDetailDto, BracketFormat)} for the other checks.
    *
-   * @param tournament the tournament to validate
+   * @param tournament the tournament to validate, {@code null} if no participants were provided
    * @throws ValidationException if validation fails due to invalid data
    */
-  public void validateForUpdate(TournamentDetailDto tournament) throws ValidationException {
-    LOG.trace("validateForUpdate({})", tournament);
+  public void validateBodyForUpdate(TournamentDetailDto tournament) throws ValidationException {
+    LOG.trace("validateBodyForUpdate({})", tournament);
     List<String> validationErrors = new ArrayList<>();
-    if (tournament.participants() == null || tournament.participants().length > 8) {
-      validationErrors.add("A tournament can only have between 0 and 8 horses currently competing against each other");
-    }
-    if (tournament.participants() != null) { // tournament.participants().length can only be accessed if horses are not null
-      ArrayList<Long> horsesIdComparison = new ArrayList<>(); // used to check if the same horse was added multiple times to the tournament
-      ArrayList<Long> horsesEntryNumberComparison = new ArrayList<>(); // used to check if the same entry number was added multiple times to the tournament
-      int horsesInRound1 = 0;
-      int horsesInRound2 = 0;
-      int horsesInRound3 = 0;
-      int horsesInRound4 = 0;
-      for (int i = 0; i < tournament.participants().length; i++) {
-        if (tournament.participants()[i] == null) {
+    if (tournament == null || tournament.participants() == null) {
+      validationErrors.add("The participants of the tournament must be provided");
+    } else {
+      Set<Long> horsesIdComparison = new HashSet<>(); // used to check if the same horse was added multiple times to the tournament
+      Set<Long> horsesEntryNumberComparison = new HashSet<>(); // used to check if the same entry number was added multiple times to the tournament
+      for (TournamentDetailParticipantDto participant : tournament.participants()) {
+        if (participant == null) {
           validationErrors.add("A horse containing no data was provided");
         } else {
-          if (horsesIdComparison.contains(tournament.participants()[i].horseId())) {
+          if (!horsesIdComparison.add(participant.horseId())) {
             validationErrors.add("The same horse appears multiple times in this tournament");
           }
-          if (tournament.participants()[i].entryNumber() != null && (tournament.participants()[i].entryNumber() < 0
-              || tournament.participants()[i].entryNumber() > 7)) {
-            validationErrors.add("The entry number for horses can only be between 0 and 7");
+          if (participant.entryNumber() != null && participant.entryNumber() < 0) {
+            validationErrors.add("The entry number for horses can't be negative");
+          } else if (participant.entryNumber() != null && !horsesEntryNumberComparison.add(participant.entryNumber())) {
+            validationErrors.add("The entry number " + participant.entryNumber() + " is used by multiple horses");
           }
-          if (tournament.participants()[i].roundReached() != null && (tournament.participants()[i].roundReached() < 1
-              || tournament.participants()[i].roundReached() > 4)) {
-            validationErrors.add("A round must be between 1 and 4");
+          if (participant.roundReached() != null && participant.roundReached() < 1) {
+            validationErrors.add("A round can't be before round 1");
           }
-          if (tournament.participants()[i].roundReached() != null) {
-            switch ((int) tournament.participants()[i].roundReached().longValue()) {
-              case 1:
-                horsesInRound1++;
-                break;
-              case 2:
-                horsesInRound2++;
-                break;
-              case 3:
-                horsesInRound3++;
-                break;
-              case 4:
-                horsesInRound4++;
-                break;
-              default:
-                validationErrors.add("An invalid round number " + tournament.participants()[i].roundReached() + " was found");
-            }
-          }
-          horsesIdComparison.add(tournament.participants()[i].horseId());
-          horsesEntryNumberComparison.add(tournament.participants()[i].entryNumber());
         }
       }
-      if (horsesInRound1 < 0 || horsesInRound1 > 8) {
-        validationErrors.add("There can only be 8 horses in round 1");
-      }
-      if (horsesInRound2 < 0 || horsesInRound2 > 4) {
-        validationErrors.add("There can only be 4 horses in round 2");
-      }
-      if (horsesInRound3 < 0 || horsesInRound3 > 2) {
-        validationErrors.add("There can only be 2 horses in round 3");
-      }
-      if (horsesInRound4 < 0 || horsesInRound4 > 1) {
-        validationErrors.add("There can only be 1 horse in round 4");
-      }
     }
-    TournamentStandingsTreeDto tree = new TournamentMapper().tournamentDetailsDtoToTournamentStandingTree(tournament);
-    validationErrors.addAll(validateTreeStructure(4, 0, 7, tree));
     if (!validationErrors.isEmpty()) {
       throw new ValidationException("Validation of the tournament failed", validationErrors);
     }
   }
 
-  private List<String> validateTreeStructure(long curRound, long startEntryNumber, long endEntryNumber, TournamentStandingsTreeDto tournamentTree) {
+  /**
+   * Validates the provided tournament details against the bracket of the tournament, before performing an update operation
+   * (updating a tournament in the persistence storage). The standings must already have passed {@link #validateBodyForUpdate(TournamentDetailDto)}.
+   *
+   * @param tournament the tournament to validate
+   * @param format the format of the bracket of the tournament, derived from all of its participants
+   * @throws ValidationException if validation fails due to invalid data
+   */
+  public void validateForUpdate(TournamentDetailDto tournament, BracketFormat format) throws ValidationException {
+    LOG.trace("validateForUpdate({}, {})", tournament, format);
     List<String> validationErrors = new ArrayList<>();
-    if (curRound <= 1) {
-      return validationErrors;
+    if (tournament.participants().length > format.participants()) {
+      validationErrors.add("A tournament can only have between 0 and " + format.participants() + " horses currently competing against each other");
     }
-    if (tournamentTree.getThisParticipant() != null) {
-      if (tournamentTree.getThisParticipant().entryNumber() < startEntryNumber || tournamentTree.getThisParticipant().entryNumber() > endEntryNumber) {
-        validationErrors.add("The horse " + tournamentTree.getThisParticipant().name() + " is in an invalid position in the tree (opposite site of expected)");
-        LOG.debug("The horse " + tournamentTree.getThisParticipant().horseId() + " has the entry number " + tournamentTree.getThisParticipant().entryNumber()
-            + " and it's number is not between [" + startEntryNumber + ", " + endEntryNumber + "]");
+    int[] horsesInRound = new int[format.winnerRound() + 1];
+    for (TournamentDetailParticipantDto participant : tournament.participants()) {
+      if (participant.entryNumber() != null && participant.entryNumber() >= format.size()) {
+        validationErrors.add("The entry number for horses can only be between 0 and " + (format.size() - 1));
       }
-      if (tournamentTree.getBranches().getFirst().getThisParticipant() != null && tournamentTree.getBranches().getLast().getThisParticipant() != null
-          && tournamentTree.getBranches().getFirst().getThisParticipant().horseId() != tournamentTree.getThisParticipant().horseId()
-          && tournamentTree.getBranches().getLast().getThisParticipant().horseId() != tournamentTree.getThisParticipant().horseId()) {
-
-        validationErrors.add("Unexpected child horses for the winner " + tournamentTree.getThisParticipant().name() + " of the "
-            + tournamentTree.getThisParticipant().roundReached() + " round");
+      if (participant.roundReached() != null) {
+        if (participant.roundReached() > format.winnerRound()) {
+          validationErrors.add("A round must be between 1 and " + format.winnerRound());
+        } else {
+          horsesInRound[participant.roundReached().intValue()]++;
+        }
       }
-      if (tournamentTree.getBranches().getFirst().getThisParticipant() == null && tournamentTree.getBranches().getLast().getThisParticipant() == null) {
-        validationErrors.add("The winning horse " + tournamentTree.getThisParticipant().name() + " of round "
-            + tournamentTree.getThisParticipant().roundReached() + " had no opponent in the previous round");
+    }
+    for (int round = 1; round <= format.winnerRound(); round++) {
+      if (horsesInRound[round] > format.horsesInRound(round)) {
+        String horses = round == format.winnerRound() ? " horse" : " horses";
+        validationErrors.add("There can only be " + format.horsesInRound(round) + horses + " in round " + round);
       }
     }
-    long split = (endEntryNumber - startEntryNumber) / 2 + startEntryNumber;
-    validationErrors.addAll(validateTreeStructure(curRound - 1, 0, split,
-        tournamentTree.getBranches().get(0)));
-    validationErrors.addAll(validateTreeStructure(curRound - 1, split + 1, endEntryNumber,
-        tournamentTree.getBranches().get(1)));
-    return validationErrors;
+    validationErrors.addAll(Bracket.of(tournament.participants(), format).structureErrors());
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of the tournament failed", validationErrors);
+    }
   }
 
   /**
-   * Checks if the current tournament standings tree curTree is compatible with the new tree structure of newTree.
+   * Validates the result of a single match before its winner is advanced to the next round.
+   * Whether the match can be decided depends on the current standings, which are checked when the result is recorded.
    *
-   * @param newTree the new tree which should replace the current tree in the database
-   * @param curTree the current tree to compare the newTree to (mostly just the current tree in the database)
-   * @throws ValidationException if the new tree isn't compatible with the current tree
+   * @param result the result of the match
+   * @throws ValidationException if the round of the match is missing or before round 1
    */
-  public void validateTreeCompability(TournamentStandingsTreeDto newTree, TournamentStandingsTreeDto curTree) throws ValidationException {
-    LOG.trace("validateTreeCompability({}, {})", newTree, curTree);
+  public void validateForAdvance(MatchResultDto result) throws ValidationException {
+    LOG.trace("validateForAdvance({})", result);
     List<String> validationErrors = new ArrayList<>();
-    validationErrors.addAll(treeNodeComperator(newTree, curTree));
+    if (result.round() == null) {
+      validationErrors.add("The round of the match must be provided");
+    } else if (result.round() < 1) {
+      validationErrors.add("A match can't be played before round 1");
+    }
     if (!validationErrors.isEmpty()) {
-      throw new ValidationException("Validation of compatibility of the the new with the current tree structure failed", validationErrors);
+      throw new ValidationException("Validation of the match result failed", validationErrors);
     }
   }
 
-  private List<String> treeNodeComperator(TournamentStandingsTreeDto newTreeNode, TournamentStandingsTreeDto curTreeNode) {
+  /**
+   * Validates that the final round of the tournament is decided, before the tournament is finalized.
+   * The winner of the final round is the only horse reaching the round after it, see {@link BracketFormat#winnerRound()}.
+   *
+   * @param tournament the tournament with its current standings
+   * @throws ValidationException if no horse or more than one horse won the final round
+   */
+  public void validateForFinalize(TournamentDetailDto tournament) throws ValidationException {
+    LOG.trace("validateForFinalize({})", tournament);
     List<String> validationErrors = new ArrayList<>();
-    if (curTreeNode.getBranches() == null) {
-      return validationErrors;
-    }
-    if (curTreeNode.getThisParticipant() != null) {
-      TournamentDetailParticipantDto childOfLeftBranchNew = newTreeNode.getBranches().getFirst().getThisParticipant();
-      TournamentDetailParticipantDto childOfRightBranchNew = newTreeNode.getBranches().getLast().getThisParticipant();
-      TournamentDetailParticipantDto childOfLeftBranchCur = curTreeNode.getBranches().getFirst().getThisParticipant();
-      TournamentDetailParticipantDto childOfRightBranchCur = curTreeNode.getBranches().getLast().getThisParticipant();
-      if (
-          !(
-              (childOfLeftBranchCur == null && childOfLeftBranchNew == null)
-                  || (childOfLeftBranchCur != null && childOfLeftBranchNew != null && childOfLeftBranchCur.horseId() == childOfLeftBranchNew.horseId())
-          )
-      ) {
-        validationErrors.add("Found an inconsistency where horses of previously completed rounds don't match the already existing standing");
-      }
-      if (
-          !(
-              (childOfRightBranchCur == null && childOfRightBranchNew == null)
-                  || (childOfRightBranchCur != null && childOfRightBranchNew != null && childOfRightBranchCur.horseId() == childOfRightBranchNew.horseId())
-          )
-      ) {
-        validationErrors.add("Found an inconsistency where horses of previously completed rounds don't match the already existing standing");
+    int participants = tournament.participants() == null ? 0 : tournament.participants().length;
+    if (participants < BracketFormat.MIN_PARTICIPANTS || participants > BracketFormat.MAX_PARTICIPANTS) {
+      validationErrors.add("A tournament needs between " + BracketFormat.MIN_PARTICIPANTS + " and " + BracketFormat.MAX_PARTICIPANTS
+          + " horses to have a winner");
+    } else {
+      long winnerRound = BracketFormat.of(participants).winnerRound();
+      long winners = Arrays.stream(tournament.participants())
+          .filter(participant -> participant != null && participant.roundReached() != null && participant.roundReached() == winnerRound)
+          .count();
+      if (winners == 0) {
+        validationErrors.add("The final round of the tournament isn't decided yet");
+      } else if (winners > 1) {
+        validationErrors.add("There can only be 1 horse in round " + winnerRound);
       }
     }
-    validationErrors.addAll(treeNodeComperator(newTreeNode.getBranches().getFirst(), curTreeNode.getBranches().getFirst()));
-    validationErrors.addAll(treeNodeComperator(newTreeNode.getBranches().getLast(), curTreeNode.getBranches().getLast()));
-    return validationErrors;
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of the tournament for finalizing failed", validationErrors);
+    }
+  }
+
+  /**
+   * Checks if the current bracket of the tournament curBracket is compatible with the new bracket newBracket.
+   *
+   * @param newBracket the new bracket which should replace the current bracket in the database
+   * @param curBracket the current bracket to compare the newBracket to (mostly just the current bracket in the database)
+   * @throws ValidationException if the new bracket isn't compatible with the current bracket
+   */
+  void validateTreeCompability(Bracket newBracket, Bracket curBracket) throws ValidationException {
+    LOG.trace("validateTreeCompability({}, {})", newBracket, curBracket);
+    List<String> validationErrors = newBracket.compatibilityErrors(curBracket);
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of compatibility of the the new with the current tree structure failed", validationErrors);
+    }
   }
 
   /**
@@ -0,0 +1,54 @@
+package at.ac.tuwien.sepr.assignment.individual.type;
+
+/**
+ * The format of the knockout bracket of a tournament, derived from the number of its participants.
+ * The bracket has a power of two entry slots (entry numbers {@code 0} to {@code size - 1}), the horses of two neighbouring slots
+ * compete against each other in round 1 and the winner advances to the next round, until the winner of the final round
+ * reaches the {@link #winnerRound()}. If the number of participants isn't a power of two, the remaining slots stay empty
+ * and the horses whose opponent slot is empty advance without a match (a bye).
+ *
+ * @param participants the number of horses taking part in the tournament
+ * @param size the number of entry slots of the bracket, the smallest power of two not less than the participants
+ * @param winnerRound the round reached by the winner of the tournament, one more than the rounds played
+ */
+public record BracketFormat(
+    int participants,
+    int size,
+    int winnerRound
+) {
+  public static final int MIN_PARTICIPANTS = 2;
+  public static final int MAX_PARTICIPANTS = 1024;
+
+  /**
+   * Gets the bracket format of a tournament with the given number of participants.
+   *
+   * @param participants the number of horses taking part in the tournament, at least {@link #MIN_PARTICIPANTS}
+   * @return the bracket format
+   */
+  public static BracketFormat of(int participants) {
+    if (participants < MIN_PARTICIPANTS || participants > MAX_PARTICIPANTS) {
+      throw new IllegalArgumentException("A bracket needs between " + MIN_PARTICIPANTS + " and " + MAX_PARTICIPANTS + " participants");
+    }
+    int rounds = Integer.SIZE - Integer.numberOfLeadingZeros(participants - 1); // the rounds needed to halve the field down to 1 horse
+    return new BracketFormat(participants, 1 << rounds, rounds + 1);
+  }
+
+  /**
+   * Gets the number of horses of the tournament advancing to round 2 without a match.
+   *
+   * @return the number of byes
+   */
+  public int byes() {
+    return size - participants;
+  }
+
+  /**
+   * Gets the maximal number of horses reaching a round.
+   *
+   * @param round the round, between 1 and the {@link #winnerRound()}
+   * @return the number of horses reaching this round if all matches are decided
+   */
+  public int horsesInRound(long round) {
+    return size >> (round - 1);
+  }
+}
@@ -33,4 +33,75 @@ CREATE TABLE IF NOT EXISTS horse_mapped_to_tournament
     PRIMARY KEY (tournament_id, horse_id),
     entry_number BIGINT,
     round_reached BIGINT
-);
\ No newline at end of file
+);
+
+-- upper case copies of the names, so name filters don't have to normalize every row of a table while searching
+-- they are added with ALTER TABLE, so that they are also created in already existing databases
+ALTER TABLE horse ADD COLUMN IF NOT EXISTS name_normalized VARCHAR(255) GENERATED ALWAYS AS (UPPER(name));
+ALTER TABLE tournament ADD COLUMN IF NOT EXISTS name_normalized VARCHAR(255) GENERATED ALWAYS AS (UPPER(name));
+
+-- incremented by every update, so concurrent updates based on the same state can detect each other without locking (exposed as ETag)
+ALTER TABLE horse ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE tournament ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- secondary indexes for the access paths used by the application
+-- the primary key of horse_mapped_to_tournament starts with tournament_id, so it can't be used to look up the tournaments of a horse
+CREATE INDEX IF NOT EXISTS horse_mapped_to_tournament_horse_id_idx ON horse_mapped_to_tournament (horse_id);
+-- a single match result only reads the horses of one part of the bracket, which are neighbours by their entry numbers
+CREATE INDEX IF NOT EXISTS horse_mapped_to_tournament_tournament_id_entry_number_idx ON horse_mapped_to_tournament (tournament_id, entry_number);
+-- tournament search filters by the start and end date and orders by the start date
+CREATE INDEX IF NOT EXISTS tournament_start_date_end_date_idx ON tournament (start_date, end_date);
+-- horse search filters by the breed and the date of birth and orders (and pages) by the name and id
+CREATE INDEX IF NOT EXISTS horse_breed_id_idx ON horse (breed_id);
+CREATE INDEX IF NOT EXISTS horse_date_of_birth_idx ON horse (date_of_birth);
+CREATE INDEX IF NOT EXISTS horse_name_id_idx ON horse (name, id);
+-- the name filters search substrings (LIKE '%...%'), which no index on the names can seek, they are narrowed down by the trigrams below
+
+-- trigram index for the name search, every name is split into all of its substrings of length 3 (see NameTrigrams)
+-- a name can only contain a search term if it contains all trigrams of the term, which makes substring searches indexable
+CREATE TABLE IF NOT EXISTS name_trigram
+(
+    entity VARCHAR(16) NOT NULL,
+    trigram VARCHAR(3) NOT NULL,
+    id BIGINT NOT NULL,
+    PRIMARY KEY (entity, trigram, id)
+);
+CREATE INDEX IF NOT EXISTS name_trigram_entity_id_idx ON name_trigram (entity, id);
+
+-- the triggers keep the trigrams up to date, they also add the trigrams of already existing rows when they are first created
+CREATE TRIGGER IF NOT EXISTS horse_name_trigram AFTER INSERT, UPDATE, DELETE ON horse
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.NameTrigramTrigger';
+CREATE TRIGGER IF NOT EXISTS tournament_name_trigram AFTER INSERT, UPDATE, DELETE ON tournament
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.NameTrigramTrigger';
+
+-- the standings of finalized tournaments, serialized once as JSON when the final round was decided
+-- they never change again, so they are served as they are instead of being read and serialized for every request
+CREATE TABLE IF NOT EXISTS tournament_snapshot
+(
+    tournament_id BIGINT PRIMARY KEY REFERENCES tournament (id),
+    standings BINARY LARGE OBJECT NOT NULL,
+    finalized_at TIMESTAMP NOT NULL
+);
+
+-- number of changes of every cached table, read by every backend instance sharing the database (see DataChangePoller)
+-- so changes made by one instance also drop the outdated copies of the tables cached by the other instances
+-- every table has several counters (slots), so concurrent transactions don't wait for each other's locked counter
+CREATE TABLE IF NOT EXISTS data_change
+(
+    table_name VARCHAR(64) NOT NULL,
+    slot INT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (table_name, slot)
+);
+
+-- the triggers count the changed rows, they add the rows of their table with the first change
+CREATE TRIGGER IF NOT EXISTS breed_data_change AFTER INSERT, UPDATE, DELETE ON breed
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangeTrigger';
+CREATE TRIGGER IF NOT EXISTS horse_data_change AFTER INSERT, UPDATE, DELETE ON horse
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangeTrigger';
+CREATE TRIGGER IF NOT EXISTS tournament_data_change AFTER INSERT, UPDATE, DELETE ON tournament
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangeTrigger';
+CREATE TRIGGER IF NOT EXISTS horse_mapped_to_tournament_data_change AFTER INSERT, UPDATE, DELETE ON horse_mapped_to_tournament
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangeTrigger';
+CREATE TRIGGER IF NOT EXISTS tournament_snapshot_data_change AFTER INSERT, UPDATE, DELETE ON tournament_snapshot
+    FOR EACH ROW CALL 'at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangeTrigger';
@@ -7,6 +7,7 @@ ALTER TABLE horse_mapped_to_tournament DROP CONSTRAINT IF EXISTS horse_id;
 -- drop foreign key constraint in horse
 ALTER TABLE horse DROP CONSTRAINT IF EXISTS breed_id;
 
+DELETE FROM tournament_snapshot;
 DELETE FROM horse_mapped_to_tournament;
 DELETE FROM horse;
 DELETE FROM breed;
@@ -18,6 +18,7 @@ ALTER TABLE horse_mapped_to_tournament ADD FOREIGN KEY (tournament_id) REFERENCE
 ALTER TABLE horse_mapped_to_tournament ADD FOREIGN KEY (horse_id) REFERENCES horse (id);
 
 DELETE FROM breed WHERE id < 0;
+DELETE FROM tournament_snapshot WHERE tournament_id < 0;
 DELETE FROM tournament WHERE id < 0;
 
 -- adds breeds as test data
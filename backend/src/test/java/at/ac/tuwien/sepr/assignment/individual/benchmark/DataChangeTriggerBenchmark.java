@@ -0,0 +1,78 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many concurrent transactions changing different horses can commit, while the {@code DataChangeTrigger}
+ * counts their changes. Every transaction updates one horse and then holds its locks for a millisecond, like a transaction
+ * doing more work would. Transactions waiting for each other's change counter can't commit more often than once per millisecond.
+ *
+ * <p>The benchmark isn't run by the tests, run it with {@code mvn -Pbenchmark test}.
+ * The number of writers and the measured duration (in seconds) can be changed with {@code -Dbenchmark.writers} and {@code -Dbenchmark.duration}.
+ */
+@ActiveProfiles({"test", "datagen"})
+@SpringBootTest(properties = {
+    "logging.level.root=WARN",
+    "logging.level.at.ac.tuwien.sepr.assignment.individual=WARN"
+})
+public class DataChangeTriggerBenchmark extends TestBase {
+  private static final int WRITERS = Integer.getInteger("benchmark.writers", 16);
+  private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.duration", 20));
+  private static final Duration WORK = Duration.ofMillis(1);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  public void measureCommittedTransactions() throws Exception {
+    var transactionTemplate = new TransactionTemplate(transactionManager);
+    var start = new CountDownLatch(1);
+    var commits = new LongAdder();
+    long end = System.nanoTime() + DURATION.toNanos();
+    List<Thread> writers = new ArrayList<>(WRITERS);
+    for (int i = 0; i < WRITERS; i++) {
+      long horseId = -1 - i % 32;
+      writers.add(Thread.ofPlatform().start(() -> {
+        try {
+          start.await();
+          while (System.nanoTime() < end) {
+            transactionTemplate.executeWithoutResult(status -> updateHorse(horseId));
+            commits.increment();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+    start.countDown();
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    System.out.printf("%s: %d writers, %.0f commits/s%n", getClass().getSimpleName(), WRITERS, commits.sum() / (double) DURATION.toSeconds());
+  }
+
+  private void updateHorse(long horseId) {
+    jdbcTemplate.update("UPDATE horse SET weight = weight WHERE id = ?", horseId);
+    try {
+      Thread.sleep(WORK);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
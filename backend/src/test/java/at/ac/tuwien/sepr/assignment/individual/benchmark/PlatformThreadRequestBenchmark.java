@@ -0,0 +1,10 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the {@link RequestThroughputBenchmark} with the requests executed by Tomcat's pool of platform threads (the default).
+ */
+@ActiveProfiles({"test", "datagen"})
+public class PlatformThreadRequestBenchmark extends RequestThroughputBenchmark {
+}
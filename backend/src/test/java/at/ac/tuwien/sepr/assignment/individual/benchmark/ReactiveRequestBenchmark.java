@@ -0,0 +1,11 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the {@link RequestThroughputBenchmark} against the reactive read endpoints, served by WebFlux on Netty's few event loop threads
+ * and reading the database with R2DBC.
+ */
+@ActiveProfiles({"test", "datagen", "reactive"})
+public class ReactiveRequestBenchmark extends RequestThroughputBenchmark {
+}
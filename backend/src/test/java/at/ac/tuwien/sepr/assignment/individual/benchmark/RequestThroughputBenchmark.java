@@ -0,0 +1,135 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.config.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the throughput and the latency of the backend under many concurrent clients, each sending its next request
+ * as soon as it got the response to the previous one. The requests are a mix of the reads spectators send during a tournament:
+ * horses by their id, standings and searches with varying parameters, so some of them are answered from the caches and some by the database.
+ * The subclasses run it with request execution on platform threads, on virtual threads and with the reactive read endpoints
+ * (WebFlux and R2DBC), to compare these modes.
+ *
+ * <p>The benchmarks aren't run by the tests, run them with {@code mvn -Pbenchmark test}.
+ * The number of clients and the measured duration (in seconds) can be changed with {@code -Dbenchmark.clients} and {@code -Dbenchmark.duration}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    // logging every request would be measured instead of the request execution, warnings like the pinned virtual threads are still logged
+    "logging.level.root=WARN",
+    "logging.level.at.ac.tuwien.sepr.assignment.individual=WARN"
+})
+abstract class RequestThroughputBenchmark extends TestBase {
+  private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1000);
+  private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.duration", 20));
+  private static final Duration WARMUP = Duration.ofSeconds(5);
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+  @Test
+  public void measureThroughputAndLatency() throws Exception {
+    try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build()) {
+      run(client, WARMUP);
+      Result result = run(client, DURATION);
+      System.out.printf("%s: %d clients, %.0f requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d errors%n",
+          getClass().getSimpleName(), CLIENTS, result.requests() / (double) DURATION.toSeconds(),
+          result.percentile(0.5), result.percentile(0.99), result.percentile(1), result.errors());
+      pinningMonitor.ifAvailable(monitor -> System.out.printf("%s: pinned virtual threads %s%n", getClass().getSimpleName(), monitor.pinnedSites()));
+      assertThat(result.errors()).isZero();
+    }
+  }
+
+  private Result run(HttpClient client, Duration duration) throws InterruptedException {
+    var start = new CountDownLatch(1);
+    var errors = new LongAdder();
+    var latencies = new long[CLIENTS][];
+    var threads = new ArrayList<Thread>(CLIENTS);
+    for (int i = 0; i < CLIENTS; i++) {
+      int clientNumber = i;
+      threads.add(Thread.ofVirtual().start(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        latencies[clientNumber] = sendRequests(client, clientNumber, System.nanoTime() + duration.toNanos(), errors);
+      }));
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+    return new Result(all, errors.sum());
+  }
+
+  private long[] sendRequests(HttpClient client, int clientNumber, long end, LongAdder errors) {
+    List<String> paths = List.of(
+        "/horses/" + (-1 - clientNumber % 32),
+        "/tournaments/standings/" + (-1 - clientNumber % 5),
+        "/horses?name=" + (char) ('a' + clientNumber % 26) + "&limit=" + (1 + clientNumber % 20),
+        "/tournaments?limit=" + (1 + clientNumber % 10));
+    long[] latencies = new long[1024];
+    int count = 0;
+    while (System.nanoTime() < end) {
+      String path = paths.get(count % paths.size());
+      long started = System.nanoTime();
+      try {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+          errors.increment();
+        }
+      } catch (Exception e) {
+        errors.increment();
+      }
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = System.nanoTime() - started;
+    }
+    return Arrays.copyOf(latencies, count);
+  }
+
+  /**
+   * The latencies of all requests sent while measuring.
+   *
+   * @param sortedLatencies the latencies in nanoseconds, in ascending order
+   * @param errors the number of requests which failed or weren't answered with 200
+   */
+  private record Result(long[] sortedLatencies, long errors) {
+    long requests() {
+      return sortedLatencies.length;
+    }
+
+    double percentile(double percentile) {
+      if (sortedLatencies.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+      return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+  }
+}
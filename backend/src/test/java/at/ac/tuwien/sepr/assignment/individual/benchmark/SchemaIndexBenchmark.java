@@ -0,0 +1,127 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the queries on the access paths indexed by {@code createSchema.sql} on a generated dataset with a million tournament
+ * participants, once seeking the index and once forced to scan the table ({@code USE INDEX ()}), like they did without the index.
+ * The participants are spread over {@value #HORSES} horses, in tournaments of 8 participants each.
+ *
+ * <p>The benchmark isn't run by the tests, run it with {@code mvn -Pbenchmark test}.
+ * The number of participants and the number of measured queries can be changed with {@code -Dbenchmark.rows} and {@code -Dbenchmark.queries}.
+ */
+@ActiveProfiles({"test", "datagen"})
+@SpringBootTest(properties = {
+    "logging.level.root=WARN",
+    "logging.level.at.ac.tuwien.sepr.assignment.individual=WARN"
+})
+public class SchemaIndexBenchmark extends TestBase {
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+  private static final int QUERIES = Integer.getInteger("benchmark.queries", 50);
+  private static final int HORSES = 10_000;
+  private static final int PARTICIPANTS_PER_TOURNAMENT = 8;
+  private static final LocalDate FIRST_START_DATE = LocalDate.of(2000, 1, 1);
+  private static final int DAYS = 10_000;
+  // rows inserted (and deleted) by a single statement, all rows in a single transaction wouldn't fit into the memory of the tests
+  private static final int CHUNK = 50_000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void generateParticipants() {
+    jdbcTemplate.update("INSERT INTO horse (id, name, sex, date_of_birth) SELECT X, 'Horse ' || X, 'MALE', DATE '1995-01-01' FROM SYSTEM_RANGE(1, ?)",
+        HORSES);
+    int tournaments = ROWS / PARTICIPANTS_PER_TOURNAMENT;
+    for (int first = 0; first < tournaments; first += CHUNK / PARTICIPANTS_PER_TOURNAMENT) {
+      jdbcTemplate.update("INSERT INTO tournament (id, name, start_date, end_date)"
+          + " SELECT X, CAST(X AS VARCHAR), DATEADD(DAY, MOD(X, ?), CAST(? AS DATE)), DATEADD(DAY, MOD(X, ?) + 3, CAST(? AS DATE))"
+          + " FROM SYSTEM_RANGE(?, ?)",
+          DAYS, FIRST_START_DATE, DAYS, FIRST_START_DATE, first + 1, Math.min(first + CHUNK / PARTICIPANTS_PER_TOURNAMENT, tournaments));
+    }
+    // every tournament gets 8 consecutive horses, so every horse takes part in ROWS / HORSES tournaments
+    for (int first = 0; first < tournaments * PARTICIPANTS_PER_TOURNAMENT; first += CHUNK) {
+      jdbcTemplate.update("INSERT INTO horse_mapped_to_tournament (tournament_id, horse_id, entry_number, round_reached)"
+          + " SELECT X / ? + 1, MOD(X, ?) + 1, MOD(X, ?) + 1, 1 FROM SYSTEM_RANGE(?, ?)",
+          PARTICIPANTS_PER_TOURNAMENT, HORSES, PARTICIPANTS_PER_TOURNAMENT, first, Math.min(first + CHUNK, tournaments * PARTICIPANTS_PER_TOURNAMENT) - 1);
+    }
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @AfterEach
+  public void deleteParticipants() {
+    // the generated participants and tournaments are deleted in chunks as well, before the test data is cleared
+    deleteInChunks("DELETE FROM horse_mapped_to_tournament WHERE tournament_id > 0 FETCH FIRST ? ROWS ONLY");
+    deleteInChunks("DELETE FROM tournament WHERE id > 0 FETCH FIRST ? ROWS ONLY");
+  }
+
+  private void deleteInChunks(String delete) {
+    int deleted;
+    do {
+      deleted = jdbcTemplate.update(delete, CHUNK);
+    } while (deleted > 0);
+  }
+
+  @Test
+  public void measureTournamentsOfHorse() {
+    measure("tournaments of a horse", "SELECT COUNT(*) FROM horse_mapped_to_tournament%s WHERE horse_id = ?",
+        random -> new Object[] {1 + random.nextInt(HORSES)});
+  }
+
+  @Test
+  public void measurePointsOfParticipants() {
+    // the past tournaments of the participants of one tournament, which the standings sum up as the points of the participants
+    measure("points of the participants of a tournament", "SELECT COUNT(*) FROM horse_mapped_to_tournament m"
+            + " INNER JOIN horse_mapped_to_tournament p%s ON (p.horse_id = m.horse_id)"
+            + " INNER JOIN tournament t ON (t.id = p.tournament_id)"
+            + " WHERE m.tournament_id = ? AND t.start_date >= ? AND t.end_date <= ?",
+        random -> new Object[] {1 + random.nextInt(ROWS / PARTICIPANTS_PER_TOURNAMENT), FIRST_START_DATE, FIRST_START_DATE.plusDays(DAYS)});
+  }
+
+  /**
+   * Runs a query with and without its index and prints the average duration of both.
+   *
+   * @param name the name of the access path printed with the result
+   * @param query the query, {@code %s} is replaced by the index hint of its table
+   * @param arguments creates the arguments of a single execution of the query
+   */
+  private void measure(String name, String query, Function<Random, Object[]> arguments) {
+    String seekQuery = query.formatted("");
+    String scanQuery = query.formatted(" USE INDEX ()");
+    assertThat(jdbcTemplate.queryForObject("EXPLAIN " + seekQuery, String.class, arguments.apply(new Random())))
+        .doesNotContainIgnoringCase("tableScan");
+    assertThat(jdbcTemplate.queryForObject("EXPLAIN " + scanQuery, String.class, arguments.apply(new Random())))
+        .containsIgnoringCase("tableScan");
+
+    double seek = averageMillis(seekQuery, arguments);
+    double scan = averageMillis(scanQuery, arguments);
+    System.out.printf("%s: %s, %d rows, seek %.3f ms, scan %.3f ms, %.0fx faster%n",
+        getClass().getSimpleName(), name, ROWS, seek, scan, scan / seek);
+  }
+
+  private double averageMillis(String query, Function<Random, Object[]> arguments) {
+    // the warmup and the measured queries use the same arguments for the seek and the scan
+    Random random = new Random(42);
+    for (int i = 0; i < QUERIES / 10; i++) {
+      jdbcTemplate.queryForObject(query, Long.class, arguments.apply(random));
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < QUERIES; i++) {
+      jdbcTemplate.queryForObject(query, Long.class, arguments.apply(random));
+    }
+    return (System.nanoTime() - start) / 1e6 / QUERIES;
+  }
+}
@@ -0,0 +1,11 @@
+package at.ac.tuwien.sepr.assignment.individual.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the {@link RequestThroughputBenchmark} with the requests executed on virtual threads,
+ * and reports where virtual threads were pinned to their carrier thread meanwhile.
+ */
+@ActiveProfiles({"test", "datagen", "virtual-threads"})
+public class VirtualThreadRequestBenchmark extends RequestThroughputBenchmark {
+}
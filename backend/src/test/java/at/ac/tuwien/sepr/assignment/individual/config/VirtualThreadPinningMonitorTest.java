@@ -0,0 +1,55 @@
+package at.ac.tuwien.sepr.assignment.individual.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadPinningMonitorTest {
+  private final Object lock = new Object();
+
+  @Test
+  public void blockingWhileHoldingMonitorIsReportedAtItsSite() throws Exception {
+    var monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20));
+    monitor.start();
+    try {
+      Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+      Thread.ofVirtual().start(this::sleepHoldingLock).join();
+
+      // the recorded events are streamed to the monitor about once per second
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (monitor.pinnedSites().isEmpty() && System.nanoTime() < deadline) {
+        Thread.sleep(100);
+      }
+      assertThat(monitor.pinnedSites()).hasSize(1);
+      assertThat(monitor.pinnedSites().keySet().iterator().next()).startsWith(getClass().getName() + ".sleepHoldingMonitor");
+    } finally {
+      monitor.stop();
+    }
+  }
+
+  private void sleepHoldingMonitor() {
+    synchronized (lock) {
+      try {
+        Thread.sleep(100); // blocks in this method, which is reported as the site of the pin
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void sleepHoldingLock() {
+    var reentrantLock = new ReentrantLock();
+    reentrantLock.lock();
+    try {
+      Thread.sleep(100); // a virtual thread holding a lock can be unmounted, it isn't pinned
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      reentrantLock.unlock();
+    }
+  }
+}
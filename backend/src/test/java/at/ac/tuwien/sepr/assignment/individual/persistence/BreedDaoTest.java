@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
@@ -17,6 +18,8 @@ import org.springframework.test.context.ActiveProfiles;
 public class BreedDaoTest extends TestBase {
   @Autowired
   BreedDao dao;
+  @Autowired
+  DataGeneratorBean dataGenerator;
 
   @Test
   public void searchForOneExistingBreedSuccessfullyFindsBreed() {
@@ -60,4 +63,22 @@ public class BreedDaoTest extends TestBase {
     assertNotNull(foundBreeds);
     assertThat(foundBreeds).isEmpty();
   }
+
+  @Test
+  public void changedBreedsAreReadAgainWithNewVersion() throws Exception {
+    final String version = catalogVersion();
+    assertThat(dao.findBreedsById(Set.of(-1L))).isNotEmpty();
+
+    dataGenerator.clearData();
+    assertThat(dao.findBreedsById(Set.of(-1L))).isEmpty();
+    assertThat(catalogVersion()).isNotEqualTo(version);
+
+    dataGenerator.generateData();
+    assertThat(dao.findBreedsById(Set.of(-1L))).isNotEmpty();
+    assertThat(catalogVersion()).isEqualTo(version);
+  }
+
+  private String catalogVersion() {
+    return dao.searchWithVersion(new BreedSearchDto(null, null)).version();
+  }
 }
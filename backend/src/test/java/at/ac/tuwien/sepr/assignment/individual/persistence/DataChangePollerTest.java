@@ -0,0 +1,73 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import at.ac.tuwien.sepr.assignment.individual.SeprIndividualAssignmentApplication;
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.persistence.impl.DataChangePoller;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a second backend instance on the same in-memory database,
+ * to check that the caches of an instance are dropped when another instance changes the data.
+ */
+@ActiveProfiles({"test", "datagen"})
+@SpringBootTest
+public class DataChangePollerTest extends TestBase {
+  private static ConfigurableApplicationContext otherInstance;
+
+  @Autowired
+  HorseDao horseDao;
+  @Autowired
+  DataChangePoller dataChangePoller;
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  public static void startOtherInstance() {
+    // without the datagen profile, the data is generated by this instance only
+    otherInstance = new SpringApplicationBuilder(SeprIndividualAssignmentApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("test")
+        .run();
+  }
+
+  @AfterAll
+  public static void stopOtherInstance() {
+    otherInstance.close();
+  }
+
+  @Test
+  public void horseUpdatedByOtherInstanceIsReadAfterPoll() throws Exception {
+    HorseDao otherHorseDao = otherInstance.getBean(HorseDao.class);
+    assertThat(otherHorseDao.getById(-1).getName()).isEqualTo("Wendy"); // now cached by the other instance
+
+    Horse horse = horseDao.getById(-1);
+    horseDao.update(new HorseDetailDto(horse.getId(), "Wendy Renamed", horse.getSex(), horse.getDateOfBirth(),
+        horse.getHeight(), horse.getWeight(), null));
+    otherInstance.getBean(DataChangePoller.class).poll();
+
+    assertThat(otherHorseDao.getById(-1).getName()).isEqualTo("Wendy Renamed");
+  }
+
+  @Test
+  public void horseUpdatedWithoutDaoIsReadAfterPoll() throws Exception {
+    assertThat(horseDao.getById(-1).getName()).isEqualTo("Wendy"); // now cached
+
+    jdbcTemplate.update("UPDATE horse SET name = 'Wendy Renamed' WHERE id = -1");
+    dataChangePoller.poll();
+
+    assertThat(horseDao.getById(-1).getName()).isEqualTo("Wendy Renamed");
+  }
+}
@@ -13,8 +13,14 @@ import org.opentest4j.AssertionFailedError;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -32,6 +38,9 @@ public class HorseDaoTest extends TestBase {
   @Autowired
   HorseDao horseDao;
 
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
   @Test
   public void deleteHorseWithExistingIDReturnsVoid() {
     int existingID = -1; // All horses in the test data have negative id.
@@ -86,9 +95,81 @@ public class HorseDaoTest extends TestBase {
     assertNull(horse[0]);
   }
 
+  @Test
+  public void getByIdsWithExistingIdsReturnsAllHorses() throws NotFoundException {
+    Map<Long, Horse> horses = horseDao.getByIds(List.of(-1L, -2L, -32L, -2L));
+    assertThat(horses).containsOnlyKeys(-1L, -2L, -32L);
+    assertThat(horses.get(-32L).getName()).isEqualTo("Luna");
+  }
+
+  @Test
+  public void getByIdsWithNotExistingIdsShouldThrowListingAllMissingIds() {
+    NotFoundException e = assertThrows(NotFoundException.class, () -> horseDao.getByIds(List.of(-1L, 1L, 2L)));
+    assertThat(e.getMessage()).contains("1").contains("2").doesNotContain("-1");
+  }
+
+  @Test
+  public void gettingHorseAgainReturnsItsChangesAndNotTheCachedHorse() throws Exception {
+    Horse horse = horseDao.getById(-1L);
+    horse.setName("Changed without saving"); // must not change the cached horse
+    assertThat(horseDao.getById(-1L).getName()).isNotEqualTo("Changed without saving");
+
+    horseDao.update(new HorseDetailDto(-1L, "Renamed", horse.getSex(), horse.getDateOfBirth(), horse.getHeight(), horse.getWeight(), null));
+    assertThat(horseDao.getById(-1L).getName()).isEqualTo("Renamed");
+    assertThat(horseDao.getByIds(List.of(-1L, -2L)).get(-1L).getName()).isEqualTo("Renamed");
+
+    horseDao.deleteById(-1L);
+    assertThrows(NotFoundException.class, () -> horseDao.getById(-1L));
+  }
+
+  @Test
+  public void horseUpdatedInRolledBackTransactionIsNotCached() throws Exception {
+    String name = horseDao.getById(-1L).getName();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      try {
+        Horse horse = horseDao.getById(-1L);
+        horseDao.update(new HorseDetailDto(-1L, "Rolled back", horse.getSex(), horse.getDateOfBirth(), horse.getHeight(), horse.getWeight(), null));
+        assertThat(horseDao.getById(-1L).getName()).isEqualTo("Rolled back");
+        // other threads must not get the uncommitted change from the cache
+        assertThat(CompletableFuture.supplyAsync(() -> nameOfHorse(-1L)).join()).isEqualTo(name);
+      } catch (Exception e) {
+        throw new AssertionFailedError("Updating the horse failed", e);
+      }
+      status.setRollbackOnly();
+    });
+
+    assertThat(horseDao.getById(-1L).getName()).isEqualTo(name);
+    assertThat(horseDao.getByIds(List.of(-1L)).get(-1L).getName()).isEqualTo(name);
+  }
+
+  private String nameOfHorse(long id) {
+    try {
+      return horseDao.getById(id).getName();
+    } catch (NotFoundException e) {
+      throw new AssertionFailedError("The horse should exist", e);
+    }
+  }
+
+  @Test
+  public void searchByNameFindsHorseOnlyByItsCurrentName() throws Exception {
+    Horse added = horseDao.add(new HorseDetailDto(null, "Umbrella", Sex.FEMALE, LocalDate.of(2017, 3, 5), 1, 1, null));
+    assertThat(horseDao.search(new HorseSearchDto("bRel", null, null, null, null, null, null, null)))
+        .extracting(Horse::getId)
+        .containsExactly(added.getId());
+
+    horseDao.update(new HorseDetailDto(added.getId(), "Parasol", Sex.FEMALE, LocalDate.of(2017, 3, 5), 1, 1, null));
+    assertThat(horseDao.search(new HorseSearchDto("brel", null, null, null, null, null, null, null))).isEmpty();
+    assertThat(horseDao.search(new HorseSearchDto("raso", null, null, null, null, null, null, null)))
+        .extracting(Horse::getId)
+        .containsExactly(added.getId());
+
+    horseDao.deleteById(added.getId());
+    assertThat(horseDao.search(new HorseSearchDto("raso", null, null, null, null, null, null, null))).isEmpty();
+  }
+
   @Test
   public void searchByBreedWelFindsThreeHorses() {
-    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null);
+    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null, null, null);
     var horses = horseDao.search(searchDto);
     assertNotNull(horses);
     assertThat(horses)
@@ -120,12 +201,23 @@ public class HorseDaoTest extends TestBase {
                 .setBreedId(-20L));
   }
 
+  @Test
+  public void searchByBreedIdsFindsOnlyHorsesOfTheseBreeds() {
+    assertThat(horseDao.search(new HorseSearchDto(null, null, null, null, null, null, null, Set.of(-19L))))
+        .extracting(Horse::getId)
+        .containsExactlyInAnyOrder(-32L, -21L);
+    assertThat(horseDao.search(new HorseSearchDto(null, null, null, null, "Wel", null, null, Set.of(-20L, -1L))))
+        .extracting(Horse::getId)
+        .containsExactly(-2L);
+    assertThat(horseDao.search(new HorseSearchDto(null, null, null, null, "Wel", null, null, Set.of(-1L)))).isEmpty();
+  }
+
   @Test
   public void searchByBirthDateBetween2017And2018ReturnsFourHorses() {
     var searchDto = new HorseSearchDto(null, null,
         LocalDate.of(2017, 3, 5),
         LocalDate.of(2018, 10, 10),
-        null, null);
+        null, null, null, null);
     var horses = horseDao.search(searchDto);
     assertNotNull(horses);
     assertThat(horses)
@@ -0,0 +1,39 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LruCacheTest {
+
+  @Test
+  public void fullCacheEvictsLeastRecentlyUsedEntry() {
+    LruCache<Long, String> cache = new LruCache<>(2);
+    cache.putIfUnchanged(1L, "one", cache.loadTicket());
+    cache.putIfUnchanged(2L, "two", cache.loadTicket());
+    assertThat(cache.get(1L)).isEqualTo("one"); // 2 is now the least recently used entry
+
+    cache.putIfUnchanged(3L, "three", cache.loadTicket());
+
+    assertThat(cache.get(2L)).isNull();
+    assertThat(cache.get(1L)).isEqualTo("one");
+    assertThat(cache.get(3L)).isEqualTo("three");
+    LruCache.CacheStatistics statistics = cache.statistics();
+    assertThat(statistics.hits()).isEqualTo(3);
+    assertThat(statistics.misses()).isEqualTo(1);
+    assertThat(statistics.evictions()).isEqualTo(1);
+    assertThat(statistics.size()).isEqualTo(2);
+    assertThat(statistics.hitRate()).isEqualTo(0.75);
+  }
+
+  @Test
+  public void valueReadBeforeInvalidationIsNotCached() {
+    LruCache<Long, String> cache = new LruCache<>(10);
+    long ticket = cache.loadTicket();
+    cache.invalidate(1L); // the value changed while it was read
+
+    cache.putIfUnchanged(1L, "outdated", ticket);
+
+    assertThat(cache.get(1L)).isNull();
+  }
+}
@@ -0,0 +1,77 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the queries on the hot access paths are answered by an index seek instead of a table scan.
+ * The plans are taken from H2's EXPLAIN, which names the index and the condition it uses for every table of the query
+ * (or {@code tableScan} if there is no usable index).
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class SchemaIndexTest extends TestBase {
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private String explain(String query) {
+    return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class).toUpperCase();
+  }
+
+  private String explain(SearchQuery query) {
+    return new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject("EXPLAIN " + query.sql(), query.params(), String.class).toUpperCase();
+  }
+
+  private void assertIndexSeek(String query, String column) {
+    assertPlanSeeks(explain(query), column);
+  }
+
+  private void assertPlanSeeks(String plan, String column) {
+    assertThat(plan)
+        .doesNotContain("TABLESCAN")
+        .containsPattern("/\\* PUBLIC\\.[A-Z0-9_]+: " + column);
+  }
+
+  @Test
+  public void lookingUpTournamentsOfHorseUsesHorseIdIndex() {
+    assertIndexSeek("SELECT COUNT(*) FROM horse_mapped_to_tournament WHERE horse_id = -3", "HORSE_ID");
+  }
+
+  @Test
+  public void lookingUpPartOfBracketUsesEntryNumberIndex() {
+    assertIndexSeek("SELECT * FROM horse_mapped_to_tournament WHERE tournament_id = -1 AND entry_number BETWEEN 2 AND 3",
+        "TOURNAMENT_ID = [^\\n]+\\s+AND ENTRY_NUMBER");
+  }
+
+  @Test
+  public void searchingTournamentsByStartDateUsesDateIndex() {
+    assertIndexSeek("SELECT * FROM tournament WHERE start_date >= DATE '2020-01-01' AND end_date <= DATE '2021-01-01'", "START_DATE");
+  }
+
+  @Test
+  public void searchingHorsesByBreedUsesBreedIndex() {
+    assertIndexSeek("SELECT * FROM horse WHERE breed_id = -19", "BREED_ID");
+  }
+
+  @Test
+  public void searchingHorsesByDateOfBirthUsesDateOfBirthIndex() {
+    assertIndexSeek("SELECT * FROM horse WHERE date_of_birth BETWEEN DATE '2017-03-05' AND DATE '2018-10-10'", "DATE_OF_BIRTH");
+  }
+
+  @Test
+  public void searchingHorsesByNameUsesTrigramIndex() {
+    // the query as it is issued by the DAO, the LIKE on the name can't seek any index, but the trigrams of the name can
+    String plan = explain(HorseJdbcDao.searchQuery(new HorseSearchDto("Wen", null, null, null, null, null, null, null), null));
+    assertPlanSeeks(plan, "ID IN");
+    assertPlanSeeks(plan, "ENTITY = 'HORSE'\\s+AND TRIGRAM");
+  }
+}
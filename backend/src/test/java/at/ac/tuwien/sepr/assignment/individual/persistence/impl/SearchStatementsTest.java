@@ -0,0 +1,44 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchStatementsTest {
+  private final SearchStatements statements = new SearchStatements("SELECT * FROM horse h", " ORDER BY h.name", " LIMIT :limit");
+  private final SearchStatements.Predicate namePredicate = statements.predicate("h.name = :name");
+  private final SearchStatements.Predicate sexPredicate = statements.predicate("h.sex = :sex");
+
+  @Test
+  public void searchWithoutFiltersHasNoWhereClause() {
+    SearchQuery query = statements.query()
+        .where(namePredicate, false)
+        .where(sexPredicate, false)
+        .build();
+    assertThat(query.sql()).isEqualTo("SELECT * FROM horse h ORDER BY h.name");
+  }
+
+  @Test
+  public void searchOnlyContainsActivePredicates() {
+    SearchQuery query = statements.query()
+        .where(namePredicate, false)
+        .param("name", null, Types.VARCHAR)
+        .where(sexPredicate, true)
+        .param("sex", "FEMALE", Types.VARCHAR)
+        .limit(5)
+        .build();
+    assertThat(query.sql()).isEqualTo("SELECT * FROM horse h WHERE h.sex = :sex ORDER BY h.name LIMIT :limit");
+    assertThat(query.params().getValue("sex")).isEqualTo("FEMALE");
+    assertThat(query.params().getValue("limit")).isEqualTo(5);
+  }
+
+  @Test
+  public void searchesWithSameShapeReuseTheStatement() {
+    SearchQuery first = statements.query().where(namePredicate, true).where(sexPredicate, true).build();
+    SearchQuery second = statements.query().where(namePredicate, true).where(sexPredicate, true).build();
+    assertThat(second.sql()).isSameAs(first.sql());
+    assertThat(second.sql()).isEqualTo("SELECT * FROM horse h WHERE h.name = :name AND h.sex = :sex ORDER BY h.name");
+  }
+}
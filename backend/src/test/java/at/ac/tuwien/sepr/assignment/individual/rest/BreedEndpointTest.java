@@ -0,0 +1,72 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+@EnableWebMvc
+@WebAppConfiguration
+public class BreedEndpointTest extends TestBase {
+
+  @Autowired
+  private WebApplicationContext webAppContext;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  public void setup() {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext).build();
+  }
+
+  @Test
+  public void searchingBreedsAgainWithKnownEtagReturns304() throws Exception {
+    String entityTag = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/breeds")
+            .queryParam("name", "Wel")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(entityTag).startsWith("\"").endsWith("\"");
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/breeds")
+            .queryParam("name", "Wel")
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, entityTag))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  public void searchingBreedsWithOutdatedEtagReturnsBreeds() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/breeds")
+            .queryParam("name", "Wel")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"outdated\"")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(content().json("[{\"name\":\"Welsh Cob\"},{\"name\":\"Welsh Pony\"}]"));
+  }
+}
@@ -3,12 +3,14 @@ package at.ac.tuwien.sepr.assignment.individual.rest;
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -27,6 +29,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
@@ -47,6 +53,80 @@ public class HorseEndpointTest extends TestBase {
     this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext).build();
   }
 
+  @Test
+  public void searchingPageByPageWithCursorReturnsAllHorsesExactlyOnce() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    List<HorseListDto> allHorses = objectMapper.readerFor(HorseListDto.class).<HorseListDto>readValues(body).readAll();
+
+    List<HorseListDto> pagedHorses = new ArrayList<>();
+    String cursor = null;
+    do {
+      var request = MockMvcRequestBuilders
+          .get("/horses")
+          .queryParam("limit", "7")
+          .accept(MediaType.APPLICATION_JSON);
+      if (cursor != null) {
+        request.queryParam("cursor", cursor);
+      }
+      var response = mockMvc.perform(request)
+          .andExpect(status().isOk())
+          .andReturn().getResponse();
+      List<HorseListDto> page = objectMapper.readerFor(HorseListDto.class).<HorseListDto>readValues(response.getContentAsByteArray()).readAll();
+      assertThat(page).hasSizeLessThanOrEqualTo(7);
+      pagedHorses.addAll(page);
+      cursor = response.getHeader(SearchCursor.NEXT_CURSOR_HEADER);
+    } while (cursor != null);
+
+    assertThat(pagedHorses).containsExactlyElementsOf(allHorses);
+  }
+
+  @Test
+  public void streamingSearchReturnsSameHorsesAsNdjson() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .queryParam("breed", "Wel")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    List<HorseListDto> horses = objectMapper.readerFor(HorseListDto.class).<HorseListDto>readValues(body).readAll();
+
+    var asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/stream")
+            .queryParam("breed", "Wel")
+            .accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    var response = mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andReturn().getResponse();
+    String[] lines = response.getContentAsString().split("\n");
+    List<HorseListDto> streamedHorses = new ArrayList<>();
+    for (String line : lines) {
+      streamedHorses.add(objectMapper.readValue(line, HorseListDto.class));
+    }
+
+    assertThat(horses).hasSize(3);
+    assertThat(streamedHorses).containsExactlyElementsOf(horses);
+  }
+
+  @Test
+  public void searchingWithInvalidCursorReturns422() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .queryParam("cursor", "not a cursor")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   @Test
   public void deleteHorseWithExistingIdReturns200() throws Exception {
     int existingID = -1; // All horses in the test data have negative id.
@@ -146,6 +226,38 @@ public class HorseEndpointTest extends TestBase {
         .andExpect(status().isNotFound());  // Ensure the response status is Created (404)
   }
 
+  @Test
+  public void putHorseWithOutdatedEntityTagReturns412() throws Exception {
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andReturn().getResponse();
+    byte[] requestBody = response.getContentAsByteArray();
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/horses/-1")
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(requestBody)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+    // the second update is based on the same version as the first one, which isn't the current version anymore
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/horses/-1")
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(requestBody)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isPreconditionFailed());
+  }
+
   @Test
   public void gettingNonexistentUrlReturns404() throws Exception {
     mockMvc
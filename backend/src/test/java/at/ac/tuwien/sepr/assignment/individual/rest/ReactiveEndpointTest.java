@@ -0,0 +1,157 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.containsString;
+
+@ActiveProfiles({"test", "datagen", "reactive"}) // serves the read endpoints with WebFlux and R2DBC
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveEndpointTest extends TestBase {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private HorseService horseService;
+
+  @Autowired
+  private TournamentService tournamentService;
+
+  @Test
+  public void searchByBreedWelFindsThreeHorses() {
+    List<HorseListDto> horses = webTestClient.get()
+        .uri("/horses?breed=Wel")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(HorseListDto.class)
+        .returnResult().getResponseBody();
+
+    assertThat(horses)
+        .extracting("id", "name", "sex", "dateOfBirth", "breed.name")
+        .as("ID, Name, Sex, Date of Birth, Breed Name")
+        .containsExactlyInAnyOrder(
+            tuple(-32L, "Luna", Sex.FEMALE, LocalDate.of(2018, 10, 10), "Welsh Cob"),
+            tuple(-21L, "Bella", Sex.FEMALE, LocalDate.of(2003, 7, 6), "Welsh Cob"),
+            tuple(-2L, "Hugo", Sex.MALE, LocalDate.of(2020, 2, 20), "Welsh Pony")
+        );
+  }
+
+  @Test
+  public void searchingPageByPageReturnsTheSameHorsesAsTheServletStack() throws Exception {
+    List<HorseListDto> expected = horseService.search(new HorseSearchDto(null, null, null, null, null, null, null, null)).toList();
+
+    List<HorseListDto> horses = new ArrayList<>();
+    String cursor = null;
+    do {
+      Optional<String> currentCursor = Optional.ofNullable(cursor);
+      EntityExchangeResult<List<HorseListDto>> page = webTestClient.get()
+          .uri(uri -> uri.path("/horses").queryParam("limit", 7).queryParamIfPresent("cursor", currentCursor).build())
+          .exchange()
+          .expectStatus().isOk()
+          .expectBodyList(HorseListDto.class)
+          .returnResult();
+      horses.addAll(page.getResponseBody());
+      cursor = page.getResponseHeaders().getFirst(SearchCursor.NEXT_CURSOR_HEADER);
+    } while (cursor != null && horses.size() < 100);
+
+    assertThat(horses).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void gettingHorseByIdReturnsItWithItsVersionAsEtag() {
+    HorseDetailDto horse = webTestClient.get()
+        .uri("/horses/-1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+        .expectBody(HorseDetailDto.class)
+        .returnResult().getResponseBody();
+    assertThat(horse).isNotNull();
+    assertThat(horse.id()).isEqualTo(-1L);
+  }
+
+  @Test
+  public void gettingNonexistentHorseReturns404() {
+    webTestClient.get()
+        .uri("/horses/-1000")
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void searchingTournamentsWithInvalidTimeFrameReturns422() {
+    webTestClient.get()
+        .uri("/tournaments?earliestTournamentDay=2015-01-01&latestTournamentDay=2012-01-01")
+        .exchange()
+        .expectStatus().isEqualTo(422);
+  }
+
+  @Test
+  public void standingsAreServedFromTheDatabaseAndFromTheSnapshotOnceFinalized() throws Exception {
+    TournamentDetailDto standings = webTestClient.get()
+        .uri("/tournaments/standings/-1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .expectBody(TournamentDetailDto.class)
+        .returnResult().getResponseBody();
+    assertThat(standings).usingRecursiveComparison().isEqualTo(tournamentService.getTournamentDetailsById(-1));
+
+    tournamentService.finalizeTournament(-1);
+    String entityTag = webTestClient.get()
+        .uri("/tournaments/standings/-1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().value(HttpHeaders.CACHE_CONTROL, containsString("immutable"))
+        .expectBody(TournamentDetailDto.class)
+        .returnResult().getResponseHeaders().getETag();
+    assertThat(entityTag).isNotNull();
+
+    webTestClient.get()
+        .uri("/tournaments/standings/-1")
+        .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+        .exchange()
+        .expectStatus().isNotModified();
+  }
+
+  @Test
+  public void searchingBreedsAgainWithKnownEtagReturns304() {
+    String entityTag = webTestClient.get()
+        .uri("/breeds?name=Wel")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().json("[{\"name\":\"Welsh Cob\"},{\"name\":\"Welsh Pony\"}]")
+        .returnResult().getResponseHeaders().getETag();
+    assertThat(entityTag).startsWith("\"").endsWith("\"");
+
+    webTestClient.get()
+        .uri("/breeds?name=Wel")
+        .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+        .exchange()
+        .expectStatus().isNotModified();
+  }
+}
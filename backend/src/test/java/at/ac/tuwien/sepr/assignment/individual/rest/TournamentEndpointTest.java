@@ -1,28 +1,49 @@
 package at.ac.tuwien.sepr.assignment.individual.rest;
 
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.SearchCursor;
+import at.ac.tuwien.sepr.assignment.individual.dto.StandingsDeltaDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
@@ -66,6 +87,446 @@ public class TournamentEndpointTest extends TestBase {
             tuple(-6L, "Trivial Matters", LocalDate.of(2012, 8, 5), LocalDate.of(2012, 8, 10)));
   }
 
+  @Test
+  public void searchingSecondPageWithCursorContinuesAfterFirstPage() throws Exception {
+    var firstPage = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments")
+            .queryParam("limit", "3")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse();
+    String cursor = firstPage.getHeader(SearchCursor.NEXT_CURSOR_HEADER);
+    assertNotNull(cursor);
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments")
+            .queryParam("limit", "3")
+            .queryParam("cursor", cursor)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<TournamentListDto> firstTournaments = objectMapper.readerFor(TournamentListDto.class)
+        .<TournamentListDto>readValues(firstPage.getContentAsByteArray()).readAll();
+    List<TournamentListDto> secondTournaments = objectMapper.readerFor(TournamentListDto.class)
+        .<TournamentListDto>readValues(body).readAll();
+    // tournaments are ordered by their descending start date
+    assertThat(firstTournaments).extracting(TournamentListDto::id).containsExactly(-5L, -4L, -2L);
+    assertThat(secondTournaments).extracting(TournamentListDto::id).containsExactly(-1L, -3L, -10L);
+  }
+
+  @Test
+  public void addingTournamentWithEightExistingHorsesStoresAllParticipants() throws Exception {
+    HorseSelectionDto[] participants = new HorseSelectionDto[8];
+    for (int i = 0; i < participants.length; i++) {
+      participants[i] = new HorseSelectionDto(-3L - i, "Horse", LocalDate.of(2000, 1, 1));
+    }
+    TournamentCreateDto toAdd = new TournamentCreateDto("New Tournament", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3), participants);
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/tournaments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(toAdd))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto added = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/" + added.id())
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto stored = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    assertThat(stored.participants())
+        .extracting(TournamentDetailParticipantDto::horseId)
+        .containsExactlyInAnyOrder(-3L, -4L, -5L, -6L, -7L, -8L, -9L, -10L);
+  }
+
+  @Test
+  public void updatingStandingsReturnsAndStoresTheNewStandings() throws Exception {
+    TournamentUpdateParticipantDto[] participants = new TournamentUpdateParticipantDto[8];
+    for (int i = 0; i < participants.length; i++) {
+      participants[i] = new TournamentUpdateParticipantDto(-3L - i, (long) i, 1L);
+    }
+    TournamentUpdateDto toUpdate = new TournamentUpdateDto(-5, participants);
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-5")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(toUpdate))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto updated = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-5")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto stored = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    assertThat(updated.name()).isEqualTo("Who is the real Spongebob?");
+    assertThat(updated.participants())
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::name, TournamentDetailParticipantDto::entryNumber)
+        .contains(tuple(-3L, "Bella", 0L), tuple(-4L, "Thunder", 1L));
+    assertThat(stored.participants())
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::entryNumber, TournamentDetailParticipantDto::roundReached)
+        .containsExactlyInAnyOrder(
+            tuple(-3L, 0L, 1L), tuple(-4L, 1L, 1L), tuple(-5L, 2L, 1L), tuple(-6L, 3L, 1L),
+            tuple(-7L, 4L, 1L), tuple(-8L, 5L, 1L), tuple(-9L, 6L, 1L), tuple(-10L, 7L, 1L));
+  }
+
+  @Test
+  public void renamingParticipantChangesAlreadyViewedStandings() throws Exception {
+    TournamentDetailDto before = getStandings(-5);
+    assertThat(before.participants()).extracting(TournamentDetailParticipantDto::name).contains("Bella");
+    String entityTagBefore = getStandingsEntityTag(-5);
+
+    HorseDetailDto renamed = new HorseDetailDto(-3L, "Isabella", Sex.FEMALE, LocalDate.of(2005, 4, 8), 1.45f, 550, new BreedDto(-1L, "Andalusian"));
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/horses/-3")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(renamed))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    TournamentDetailDto after = getStandings(-5);
+    assertThat(after.participants())
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::name)
+        .contains(tuple(-3L, "Isabella"));
+    // the version of the standings stays the same, but their ETag has to change with their body
+    String entityTagAfter = getStandingsEntityTag(-5);
+    assertThat(entityTagAfter).isNotEqualTo(entityTagBefore);
+    assertThat(EntityTags.expectedVersion(entityTagAfter)).isEqualTo(EntityTags.expectedVersion(entityTagBefore));
+  }
+
+  @Test
+  public void gettingStandingsWithGzipReturnsCompressedStandings() throws Exception {
+    TournamentDetailDto uncompressed = getStandings(-1);
+
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andReturn().getResponse();
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      TournamentDetailDto compressed = objectMapper.readValue(gzip.readAllBytes(), TournamentDetailDto.class);
+      assertThat(compressed).usingRecursiveComparison().isEqualTo(uncompressed);
+    }
+  }
+
+  @Test
+  public void finalizedTournamentIsServedFromImmutableSnapshot() throws Exception {
+    TournamentDetailDto before = getStandings(-1);
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/tournaments/standings/finalize/-1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+        .andReturn().getResponse();
+    String entityTag = response.getHeader(HttpHeaders.ETAG);
+    assertNotNull(entityTag);
+    assertThat(objectMapper.readValue(response.getContentAsByteArray(), TournamentDetailDto.class)).usingRecursiveComparison()
+        .ignoringFields("version") // finalizing is a change of the standings
+        .isEqualTo(before);
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1")
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified());
+
+    TournamentUpdateParticipantDto[] participants = new TournamentUpdateParticipantDto[8];
+    for (int i = 0; i < participants.length; i++) {
+      participants[i] = new TournamentUpdateParticipantDto(-3L - i, (long) i, 1L);
+    }
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(new TournamentUpdateDto(-1, participants)))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  public void finalizingTournamentWithoutWinnerIsRejected() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/tournaments/standings/finalize/-5")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  public void generatingRound1ForSixHorsesGivesTwoByesAndStoresThem() throws Exception {
+    HorseSelectionDto[] horses = new HorseSelectionDto[6];
+    for (int i = 0; i < horses.length; i++) {
+      horses[i] = new HorseSelectionDto(-3L - i, "Horse", LocalDate.of(2000, 1, 1));
+    }
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/tournaments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(new TournamentCreateDto("Six Horses", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3), horses)))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    long id = objectMapper.readValue(body, TournamentDetailDto.class).id();
+
+    body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/generate/" + id)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto generated = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    // the bracket has 8 slots, so the 2 best horses advance without a match and the other 4 play in round 1
+    assertThat(generated.participants())
+        .extracting(TournamentDetailParticipantDto::entryNumber, TournamentDetailParticipantDto::roundReached)
+        .containsExactlyInAnyOrder(tuple(0L, 2L), tuple(2L, 2L), tuple(4L, 1L), tuple(5L, 1L), tuple(6L, 1L), tuple(7L, 1L));
+
+    List<TournamentUpdateParticipantDto> participants = new ArrayList<>();
+    for (TournamentDetailParticipantDto participant : generated.participants()) {
+      participants.add(new TournamentUpdateParticipantDto(participant.horseId(), participant.entryNumber(), participant.roundReached()));
+    }
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(new TournamentUpdateDto(id, participants.toArray(new TournamentUpdateParticipantDto[0]))))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void advancingWinnerOfMatchChecksOnlyItsMatch() throws Exception {
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+
+    byte[] body = patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 1L))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(objectMapper.readValue(body, TournamentUpdateParticipantDto.class))
+        .isEqualTo(new TournamentUpdateParticipantDto(horseByEntryNumber[1], 1L, 2L));
+    assertThat(getStandings(-5).participants())
+        .filteredOn(participant -> participant.horseId() == horseByEntryNumber[1])
+        .extracting(TournamentDetailParticipantDto::roundReached)
+        .containsExactly(2L);
+
+    // the same result is only recorded once, and the opponent can't win the decided match anymore
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 1L)).andExpect(status().isConflict());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[0], 1L)).andExpect(status().isConflict());
+    // the opponent of round 2 comes from the match of the entry numbers 2 and 3, which isn't decided yet
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 2L)).andExpect(status().isConflict());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 0L)).andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  public void updatingStandingsWithInvalidBodyReturns422BeforeLookingUpTheTournament() throws Exception {
+    var participants = new TournamentUpdateParticipantDto[] {
+        new TournamentUpdateParticipantDto(-1, 0L, 1L), new TournamentUpdateParticipantDto(-1, 0L, 0L)
+    };
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-1000")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(new TournamentUpdateDto(-1000, participants)))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-1000")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"id\": -1000}")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  public void updatingOutdatedStandingsReturns412() throws Exception {
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+    String entityTag = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-5")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(entityTag).startsWith("\"1.");
+
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 1L), entityTag).andExpect(status().isOk());
+    // the second result is based on the standings before the first one was recorded
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[2], 1L), entityTag).andExpect(status().isPreconditionFailed());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[2], 1L), "\"2\"").andExpect(status().isOk());
+  }
+
+  @Test
+  public void ifMatchListMatchesWhenOneOfItsTagsMatches() throws Exception {
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 1L), "W/\"1\", \"other\", \"1-gzip\"").andExpect(status().isOk());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[2], 1L), "\"1\", W/\"2\"").andExpect(status().isPreconditionFailed());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[2], 1L), "*").andExpect(status().isOk());
+    // a list of several versions can't be checked against the single expected version, neither can a malformed header
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[3], 1L), "\"2\", \"3\"").andExpect(status().isBadRequest());
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[3], 1L), "3").andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void subscribersOfLiveStandingsReceiveOnlyChangedParticipants() throws Exception {
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/events/-5")
+            .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+    TournamentDetailDto initial = objectMapper.readValue(awaitEvents(response, "standings", 1).get(0), TournamentDetailDto.class);
+    assertThat(initial.participants()).hasSize(8);
+
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+    patchMatchResult(-5, new MatchResultDto(horseByEntryNumber[1], 1L)).andExpect(status().isOk());
+
+    List<String> deltas = awaitEvents(response, "delta", 2);
+    assertThat(objectMapper.readValue(deltas.get(0), StandingsDeltaDto.class).participants()).hasSize(8);
+    StandingsDeltaDto result = objectMapper.readValue(deltas.get(1), StandingsDeltaDto.class);
+    assertThat(result.version()).isEqualTo(2L);
+    assertThat(result.participants())
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::roundReached)
+        .containsExactly(tuple(horseByEntryNumber[1], 2L));
+  }
+
+  @Test
+  public void subscribingToLiveStandingsOfNonexistentTournamentReturns404() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/events/1")
+            .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Waits until the stream of Server-Sent Events contains the expected number of events with the name.
+   */
+  private static List<String> awaitEvents(MockHttpServletResponse response, String name, int count) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    List<String> data = new ArrayList<>();
+    while (System.nanoTime() < deadline) {
+      data.clear();
+      for (String event : response.getContentAsString().split("\n\n")) {
+        if (event.startsWith("event:" + name + "\n")) {
+          data.add(event.substring(event.indexOf("data:") + "data:".length()));
+        }
+      }
+      if (data.size() >= count) {
+        return data;
+      }
+      Thread.sleep(20); // the events are sent by a background thread
+    }
+    throw new AssertionError("Received only " + data.size() + " " + name + " events: " + response.getContentAsString());
+  }
+
+  private long[] putGeneratedStandings(long tournamentId) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/generate/" + tournamentId)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    TournamentDetailDto generated = objectMapper.readValue(body, TournamentDetailDto.class);
+    long[] horseByEntryNumber = new long[8];
+    List<TournamentUpdateParticipantDto> participants = new ArrayList<>();
+    for (TournamentDetailParticipantDto participant : generated.participants()) {
+      horseByEntryNumber[participant.entryNumber().intValue()] = participant.horseId();
+      participants.add(new TournamentUpdateParticipantDto(participant.horseId(), participant.entryNumber(), participant.roundReached()));
+    }
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/" + tournamentId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(new TournamentUpdateDto(tournamentId, participants.toArray(new TournamentUpdateParticipantDto[0]))))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    return horseByEntryNumber;
+  }
+
+  private ResultActions patchMatchResult(long tournamentId, MatchResultDto result) throws Exception {
+    return patchMatchResult(tournamentId, result, null);
+  }
+
+  private ResultActions patchMatchResult(long tournamentId, MatchResultDto result, String ifMatch) throws Exception {
+    var request = MockMvcRequestBuilders
+        .patch("/tournaments/standings/" + tournamentId);
+    if (ifMatch != null) {
+      request.header(HttpHeaders.IF_MATCH, ifMatch);
+    }
+    return mockMvc
+        .perform(request
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(result))
+            .accept(MediaType.APPLICATION_JSON));
+  }
+
+  private String getStandingsEntityTag(long tournamentId) throws Exception {
+    return mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/" + tournamentId)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+  }
+
+  private TournamentDetailDto getStandings(long tournamentId) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/" + tournamentId)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andReturn().getResponse().getContentAsByteArray();
+    return objectMapper.readValue(body, TournamentDetailDto.class);
+  }
+
+  @Test
+  public void generatingRound1PairsHorseWithMostPointsWithHorseWithLeastPoints() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/generate/-5")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    TournamentDetailDto tournament = objectMapper.readValue(body, TournamentDetailDto.class);
+
+    assertNotNull(tournament);
+    // in the 12 months before tournament -5 horse -4 collected 7 points and horse -3 collected none
+    assertThat(tournament.participants())
+        .hasSize(8)
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::entryNumber, TournamentDetailParticipantDto::roundReached)
+        .contains(
+            tuple(-4L, 0L, 1L),
+            tuple(-3L, 1L, 1L));
+  }
+
   @Test
   public void searchByNameBigFindsTwoTournaments() throws Exception {
     var body = mockMvc
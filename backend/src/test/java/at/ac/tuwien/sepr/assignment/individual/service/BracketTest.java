@@ -0,0 +1,76 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.type.BracketFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BracketTest {
+  private static final BracketFormat FORMAT = BracketFormat.of(4);
+
+  private static TournamentDetailParticipantDto horse(long id, long entryNumber, long roundReached) {
+    return new TournamentDetailParticipantDto(id, "Horse " + id, null, entryNumber, roundReached);
+  }
+
+  @Test
+  public void winnersArePlacedAtTheNodesOfTheirRounds() {
+    Bracket bracket = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 3), horse(2, 1, 1), horse(3, 2, 2), horse(4, 3, 1)
+    }, FORMAT);
+    assertThat(bracket.nodes()).isEqualTo(7);
+    assertThat(bracket.participant(0).horseId()).isEqualTo(1);
+    assertThat(bracket.participant(1).horseId()).isEqualTo(1);
+    assertThat(bracket.participant(2).horseId()).isEqualTo(3);
+    assertThat(bracket.participant(bracket.slot(1)).horseId()).isEqualTo(2);
+    assertThat(bracket.isSlot(bracket.slot(0))).isTrue();
+    assertThat(bracket.round(0)).isEqualTo(3);
+    assertThat(bracket.round(bracket.slot(3))).isEqualTo(1);
+    assertThat(bracket.structureErrors()).isEmpty();
+  }
+
+  @Test
+  public void matchesWithoutWinnerStayEmpty() {
+    Bracket bracket = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 2), horse(2, 1, 1), horse(3, 2, 1), horse(4, 3, 1)
+    }, FORMAT);
+    assertThat(bracket.participant(0)).isNull();
+    assertThat(bracket.participant(1).horseId()).isEqualTo(1);
+    assertThat(bracket.participant(2)).isNull();
+    assertThat(bracket.structureErrors()).isEmpty();
+  }
+
+  @Test
+  public void horseWithEmptyOpponentSlotAdvancesByBye() {
+    Bracket bracket = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 2), horse(2, 2, 1), horse(3, 3, 1)
+    }, BracketFormat.of(3));
+    assertThat(bracket.participant(1).horseId()).isEqualTo(1);
+    assertThat(bracket.participant(bracket.slot(1))).isNull();
+    assertThat(bracket.structureErrors()).isEmpty();
+  }
+
+  @Test
+  public void twoWinnersOfTheSameMatchAreAStructureError() {
+    Bracket bracket = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 2), horse(2, 1, 2), horse(3, 2, 1), horse(4, 3, 1)
+    }, FORMAT);
+    assertThat(bracket.participant(1).horseId()).isEqualTo(1);
+    assertThat(bracket.structureErrors()).singleElement().asString().contains("Horse 2", "Horse 1");
+  }
+
+  @Test
+  public void changedEarlierRoundIsIncompatible() {
+    Bracket current = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 2), horse(2, 1, 1), horse(3, 2, 1), horse(4, 3, 1)
+    }, FORMAT);
+    Bracket decided = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 0, 3), horse(2, 1, 1), horse(3, 2, 2), horse(4, 3, 1)
+    }, FORMAT);
+    Bracket swapped = Bracket.of(new TournamentDetailParticipantDto[] {
+        horse(1, 1, 2), horse(2, 0, 1), horse(3, 2, 1), horse(4, 3, 1)
+    }, FORMAT);
+    assertThat(decided.compatibilityErrors(current)).isEmpty();
+    assertThat(swapped.compatibilityErrors(current)).hasSize(2);
+  }
+}
@@ -141,7 +141,7 @@ public class HorseServiceTest extends TestBase {
   @Test
   public void searchWhenGivenInvalidYearSpanFrom2018To2017ShouldThrow() {
     // Searches for horses born in an invalid time frame. (A valid search should start at earlier date and end with later date)
-    var searchDto = new HorseSearchDto(null, null, LocalDate.of(2018, 8, 19), LocalDate.of(2017, 8, 19), "Wel", null);
+    var searchDto = new HorseSearchDto(null, null, LocalDate.of(2018, 8, 19), LocalDate.of(2017, 8, 19), "Wel", null, null, null);
     assertThrows(AssertionFailedError.class, () -> {
       try {
         horseService.search(searchDto);
@@ -153,7 +153,7 @@ public class HorseServiceTest extends TestBase {
 
   @Test
   public void searchByBreedWelFindsThreeHorses() {
-    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null);
+    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null, null, null);
     Stream<HorseListDto>[] horseStream = new Stream[1]; // We work with arrays since lambda statements only allow final variables
     assertDoesNotThrow(() -> {
       try {
@@ -179,7 +179,7 @@ public class HorseServiceTest extends TestBase {
     var searchDto = new HorseSearchDto(null, null,
         LocalDate.of(2017, 3, 5),
         LocalDate.of(2018, 10, 10),
-        null, null);
+        null, null, null, null);
     Stream<HorseListDto>[] horseStream = new Stream[1]; // We work with arrays since lambda statements only allow final variables
     assertDoesNotThrow(() -> {
       try {
@@ -202,4 +202,16 @@ public class HorseServiceTest extends TestBase {
             tuple(-32L, "Luna", Sex.FEMALE, LocalDate.of(2018, 10, 10),
                 "Welsh Cob"));
   }
+
+  @Test
+  public void searchingAgainAfterChangeReturnsChangedHorses() throws Exception {
+    var searchDto = new HorseSearchDto("wen", null, null, null, null, null, null, null);
+    assertThat(horseService.search(searchDto)).extracting(HorseListDto::name).containsExactly("Wendy");
+    assertThat(horseService.search(new HorseSearchDto("WEN", null, null, null, null, null, null, null)))
+        .extracting(HorseListDto::name).containsExactly("Wendy");
+
+    horseService.add(new HorseDetailDto(null, "Wendolin", Sex.MALE, LocalDate.of(2019, 1, 1), 1.5f, 500, null));
+
+    assertThat(horseService.search(searchDto)).extracting(HorseListDto::name).containsExactly("Wendolin", "Wendy");
+  }
 }
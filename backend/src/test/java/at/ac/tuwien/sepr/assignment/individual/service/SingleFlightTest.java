@@ -0,0 +1,88 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  @Test
+  public void concurrentReadsOfSameKeyShareOneRead() throws Exception {
+    AtomicInteger reads = new AtomicInteger();
+    CountDownLatch readStarted = new CountDownLatch(1);
+    CountDownLatch finishRead = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+        readStarted.countDown();
+        finishRead.await();
+        return "result " + reads.incrementAndGet();
+      })));
+      assertThat(readStarted.await(5, TimeUnit.SECONDS)).isTrue();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> singleFlight.execute("key", () -> "result " + reads.incrementAndGet())));
+      }
+      // the read only finishes once all other reads wait for it, otherwise they could start reads of their own
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (singleFlight.waitingCallers("key") < 4 && System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+      assertThat(singleFlight.waitingCallers("key")).isEqualTo(4);
+      finishRead.countDown();
+
+      for (Future<String> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result 1");
+      }
+      assertThat(reads).hasValue(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void interruptedWaitingReadFailsAndKeepsInterruptFlag() throws Exception {
+    CountDownLatch readStarted = new CountDownLatch(1);
+    CountDownLatch finishRead = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<String> running = executor.submit(() -> singleFlight.execute("key", () -> {
+        readStarted.countDown();
+        finishRead.await();
+        return "result";
+      }));
+      assertThat(readStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+      Thread.currentThread().interrupt();
+      assertThrows(FatalException.class, () -> singleFlight.execute("key", () -> "own result"));
+      assertThat(Thread.interrupted()).isTrue();
+
+      finishRead.countDown();
+      assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedReadIsNotSharedWithLaterReads() throws Exception {
+    assertThrows(NotFoundException.class, () -> singleFlight.execute("key", () -> {
+      throw new NotFoundException("not found");
+    }));
+
+    assertThat(singleFlight.execute("key", () -> "found")).isEqualTo("found");
+  }
+}
@@ -0,0 +1,119 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.MatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class TournamentServiceTest extends TestBase {
+
+  @Autowired
+  TournamentService tournamentService;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private long[] putGeneratedStandings(long tournamentId) throws Exception {
+    TournamentDetailDto generated = tournamentService.generateRound1ById(tournamentId);
+    long[] horseByEntryNumber = new long[generated.participants().length];
+    var participants = new TournamentUpdateParticipantDto[generated.participants().length];
+    for (int i = 0; i < participants.length; i++) {
+      TournamentDetailParticipantDto participant = generated.participants()[i];
+      horseByEntryNumber[participant.entryNumber().intValue()] = participant.horseId();
+      participants[i] = new TournamentUpdateParticipantDto(participant.horseId(), participant.entryNumber(), participant.roundReached());
+    }
+    tournamentService.updateTournament(new TournamentUpdateDto(tournamentId, participants), null);
+    return horseByEntryNumber;
+  }
+
+  /**
+   * Records the first result in a transaction which is only committed once the second result waits for it,
+   * so the second result is based on the standings without the first one.
+   *
+   * @return the result of the second match
+   */
+  private CompletableFuture<Void> recordWhileAnotherResultIsUncommitted(MatchResultDto first, MatchResultDto second) throws Exception {
+    var firstRecorded = new CountDownLatch(1);
+    var commitFirst = new CountDownLatch(1);
+    final CompletableFuture<Void> firstResult = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      try {
+        tournamentService.advanceHorse(-5, first, null);
+        firstRecorded.countDown();
+        commitFirst.await();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }));
+    assertThat(firstRecorded.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Void> secondResult = CompletableFuture.runAsync(() -> {
+      try {
+        tournamentService.advanceHorse(-5, second, null);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    // the second result waits for the version of the tournament, which is locked by the first one
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!secondResult.isDone() && blockedSessions() == 0 && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertThat(secondResult).isNotDone();
+    commitFirst.countDown();
+    firstResult.get(5, TimeUnit.SECONDS);
+    return secondResult;
+  }
+
+  private int blockedSessions() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Integer.class);
+  }
+
+  @Test
+  public void resultsOfDifferentMatchesWithoutVersionAreRecordedConcurrently() throws Exception {
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+    CompletableFuture<Void> secondResult = recordWhileAnotherResultIsUncommitted(
+        new MatchResultDto(horseByEntryNumber[0], 1L), new MatchResultDto(horseByEntryNumber[2], 1L));
+
+    secondResult.get(5, TimeUnit.SECONDS);
+    assertThat(tournamentService.getTournamentDetailsById(-5).participants())
+        .filteredOn(participant -> participant.roundReached() == 2)
+        .extracting(TournamentDetailParticipantDto::horseId)
+        .containsExactlyInAnyOrder(horseByEntryNumber[0], horseByEntryNumber[2]);
+  }
+
+  @Test
+  public void concurrentResultsOfTheSameMatchConflict() throws Exception {
+    long[] horseByEntryNumber = putGeneratedStandings(-5);
+    CompletableFuture<Void> secondResult = recordWhileAnotherResultIsUncommitted(
+        new MatchResultDto(horseByEntryNumber[0], 1L), new MatchResultDto(horseByEntryNumber[1], 1L));
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> secondResult.get(5, TimeUnit.SECONDS));
+    assertThat(e).rootCause().isInstanceOf(ConflictException.class);
+    assertThat(tournamentService.getTournamentDetailsById(-5).participants())
+        .filteredOn(participant -> participant.roundReached() == 2)
+        .extracting(TournamentDetailParticipantDto::horseId)
+        .containsExactly(horseByEntryNumber[0]);
+  }
+}
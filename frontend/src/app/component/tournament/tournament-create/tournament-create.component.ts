@@ -9,6 +9,7 @@ import {HorseSelection} from "../../../dto/horse";
 import {map, Observable} from "rxjs";
 import {HorseService} from "../../../service/horse.service";
 import {Location} from "@angular/common";
+import {MAX_PARTICIPANTS, MIN_PARTICIPANTS} from "../../../util/bracket-helper";
 
 @Component({
   selector: 'app-tournament-create',
@@ -22,7 +23,7 @@ export class TournamentCreateComponent {
     endDate: new Date(), //dummy
     participants: [], // dummy
   };
-  participants: (HorseSelection | null)[] = new Array(8);
+  participants: HorseSelection[] = []; // the bracket is sized by the backend from the number of participants
   dummyHorseSelectionModel: unknown; // Just needed for the autocomplete
   startDateSet = false;
   endDateSet = false;
@@ -69,13 +70,11 @@ export class TournamentCreateComponent {
     console.log(form.valid, this.tournament);
     if (form.invalid)
       return;
-    const participants= <HorseSelection[]>this.participants
-      .filter(x => x != null);
-    if (participants.length != 8) {
-      this.notification.error("A tournament must have exactly 8 participants", "Not Enough Participants");
+    if (this.participants.length < MIN_PARTICIPANTS) {
+      this.notification.error(`A tournament must have at least ${MIN_PARTICIPANTS} participants`, "Not Enough Participants");
       return;
     }
-    this.tournament.participants = participants;
+    this.tournament.participants = this.participants.slice();
     this.service.create(this.tournament)
       .subscribe({
         next: data => {
@@ -118,26 +117,20 @@ export class TournamentCreateComponent {
     // This should happen late, when the ngModelChange hook has completed,
     // so that changing dummyHorseSelectionModel works
     setTimeout(() => {
-      const participants = this.participants;
-      for (let i = 0; i < 8; i++) {
-        if (participants[i]?.id === horse.id) {
-          this.notification.error(`${horse.name} is already in participant list`, "Duplicate Participant");
-          this.dummyHorseSelectionModel = null;
-          return;
-        }
-        if (participants[i] == null) {
-          participants[i] = horse;
-          this.dummyHorseSelectionModel = null;
-          return;
-        }
+      this.dummyHorseSelectionModel = null;
+      if (this.participants.some(participant => participant.id === horse.id)) {
+        this.notification.error(`${horse.name} is already in participant list`, "Duplicate Participant");
+        return;
+      }
+      if (this.participants.length >= MAX_PARTICIPANTS) {
+        this.notification.error(`All ${MAX_PARTICIPANTS} slots are full`, "Could Not Add Participant");
+        return;
       }
-      // If the above has not returned, we could not add the horse because all 8 slots are full
-      this.notification.error("All 8 slots are full", "Could Not Add Participant");
+      this.participants.push(horse);
     });
   }
 
   public removeHorse(index: number) {
     this.participants.splice(index, 1);
-    this.participants.push(null);
   }
 }
@@ -1,8 +1,8 @@
-import {Component, OnInit} from '@angular/core';
+import {Component, OnDestroy, OnInit} from '@angular/core';
 import {
   TournamentDetailDto,
   TournamentDetailParticipantDto,
-  TournamentStandingsDto,
+  TournamentStandingsDto, TournamentStandingsEvent,
   TournamentStandingsTreeDto, TournamentUpdateDto, TournamentUpdateParticipantDto
 } from "../../../dto/tournament";
 import {TournamentService} from "../../../service/tournament.service";
@@ -11,14 +11,15 @@ import {NgForm} from "@angular/forms";
 import {Location} from "@angular/common";
 import {ToastrService} from "ngx-toastr";
 import {ErrorFormatterService} from "../../../service/error-formatter.service";
-import {Observable} from "rxjs";
+import {Observable, Subscription} from "rxjs";
+import {bracketSize, winnerRound} from "../../../util/bracket-helper";
 
 @Component({
   selector: 'app-tournament-standings',
   templateUrl: './tournament-standings.component.html',
   styleUrls: ['./tournament-standings.component.scss']
 })
-export class TournamentStandingsComponent implements OnInit {
+export class TournamentStandingsComponent implements OnInit, OnDestroy {
   standings: TournamentStandingsDto = { // we fill the TournamentStandingsDto object with dummy data, so we don't get the error that it could be undefined when submitting it.
     id: -1,
     name: "",
@@ -29,6 +30,9 @@ export class TournamentStandingsComponent implements OnInit {
   endDate: Date = new Date();
   participantEntryNumberUpdateHelper: TournamentDetailParticipantDto[] = []; // used to temporarily save the entry numbers of participants when the tree is disassembled
   participantRoundReachedUpdateHelper: TournamentDetailParticipantDto[] = []; // used to temporarily save the round numbers of participants when the tree is disassembled
+  liveStandings?: Subscription; // pushes the results entered by others, instead of reloading the standings
+  unsavedEdits = false; // while the judge edits the tree, the pushed results are kept aside instead of replacing the edits
+  pendingParticipants = new Map<number, TournamentDetailParticipantDto>(); // the pushed participants kept aside, by their horse id
 
   public constructor(
     private service: TournamentService,
@@ -52,6 +56,7 @@ export class TournamentStandingsComponent implements OnInit {
             participants: data.participants,
             tree: this.generateStandingsTree(data.participants)
           }
+          this.followStandings(data.id);
         },
         error: error => {
           console.error('Error fetching horses', error);
@@ -61,6 +66,61 @@ export class TournamentStandingsComponent implements OnInit {
     })
   }
 
+  public ngOnDestroy() {
+    this.liveStandings?.unsubscribe();
+  }
+
+  private followStandings(id: number) {
+    this.liveStandings?.unsubscribe();
+    this.liveStandings = this.service.followStandings(id).subscribe({
+      next: event => this.applyStandingsEvent(event),
+      error: error => console.error('Error following the standings', error)
+    });
+  }
+
+  // replaces the changed participants and rebuilds the tree from them, unless the judge is editing the tree
+  private applyStandingsEvent(event: TournamentStandingsEvent) {
+    const changed: TournamentDetailParticipantDto[] = event.standings?.participants ?? event.delta?.participants ?? [];
+    const alreadyPending = this.pendingParticipants.size > 0;
+    changed.forEach(p => {
+      if (this.isShown(p)) {
+        this.pendingParticipants.delete(p.horseId);
+      } else {
+        this.pendingParticipants.set(p.horseId, p);
+      }
+    });
+    if (this.pendingParticipants.size == 0) {
+      return; // e.g. the current standings sent first, which were just loaded
+    }
+    if (this.unsavedEdits) {
+      if (!alreadyPending) {
+        this.notification.info('The standings were changed by someone else, saving will overwrite these changes.');
+      }
+      return;
+    }
+    this.applyPendingParticipants();
+  }
+
+  private isShown(participant: TournamentDetailParticipantDto): boolean {
+    const shown = this.standings.participants.find(p => p.horseId == participant.horseId);
+    return shown != undefined
+      && shown.name == participant.name
+      && shown.dateOfBirth == participant.dateOfBirth
+      && shown.entryNumber == participant.entryNumber
+      && shown.roundReached == participant.roundReached;
+  }
+
+  private applyPendingParticipants() {
+    const participants = this.standings.participants.map(p => this.pendingParticipants.get(p.horseId) ?? p);
+    this.pendingParticipants.clear();
+    this.standings = {
+      id: this.standings.id,
+      name: this.standings.name,
+      participants: participants,
+      tree: this.generateStandingsTree(participants)
+    };
+  }
+
   public submit(form: NgForm) {
       console.log('is form valid?', form.valid);
       if (form.valid) {
@@ -81,6 +141,9 @@ export class TournamentStandingsComponent implements OnInit {
         observable = this.service.updateTournamentStandings(tournamentUpdateInfo);
         observable.subscribe({
           next: data => {
+            // the saved standings replace the ones pushed meanwhile, the changes saved are pushed back afterwards
+            this.unsavedEdits = false;
+            this.pendingParticipants.clear();
             this.notification.success(`Tournament ${this.standings.name} successfully updated.`);
           },
           error: error => {
@@ -102,6 +165,8 @@ export class TournamentStandingsComponent implements OnInit {
           next: data => {
             this.startDate = data.startDate;
             this.endDate = data.endDate;
+            this.unsavedEdits = false;
+            this.pendingParticipants.clear();
             this.standings = {
               id: data.id,
               name: data.name,
@@ -140,6 +205,7 @@ export class TournamentStandingsComponent implements OnInit {
 
   // update tree with tree received from the tree root
   public updateTree(treeToUpdate: TournamentStandingsTreeDto) {
+    this.unsavedEdits = true;
     this.standings.tree = treeToUpdate;
   }
 
@@ -147,7 +213,8 @@ export class TournamentStandingsComponent implements OnInit {
   private getParticipantsDetailDto(): TournamentDetailParticipantDto[] {
     this.participantRoundReachedUpdateHelper = []; // each entry has their roundReached value set to their round reached in this tournament
     this.participantEntryNumberUpdateHelper = []; // each entry is ordered according to their entry number
-    this.treeValueExctractorHelper(this.standings.tree, 4, 0); // fills the two array above with the tree entries
+    // fills the two array above with the tree entries
+    this.treeValueExctractorHelper(this.standings.tree, winnerRound(this.standings.participants.length), 0);
     let participants: TournamentDetailParticipantDto[] = [];
     this.participantEntryNumberUpdateHelper.forEach(orderedParticipants => {
       let foundSameParticipant: boolean = false;
@@ -210,18 +277,11 @@ export class TournamentStandingsComponent implements OnInit {
   }
 
   private generateStandingsTree(participants: TournamentDetailParticipantDto[]): TournamentStandingsTreeDto {
-    let orderedParticipants: TournamentDetailParticipantDto[] = [];
-    let wantedEntryNumber: number = 0;
-    for (let i = 0; i < 8; i++) {
-      participants.forEach(participant => {
-        if (participant.entryNumber != undefined && participant.entryNumber == wantedEntryNumber) {
-          orderedParticipants.push(participant);
-        };
-      });
-      wantedEntryNumber++;
-    }
-    orderedParticipants.forEach(participant => console.log(participant))
-    const root: TournamentStandingsTreeDto = this.treeGenerationHelper(4, 0, 7,orderedParticipants);
+    // the bracket has a power of two entry slots, the slots without a participant stay empty (byes)
+    const size = bracketSize(participants.length);
+    const enteredParticipants: TournamentDetailParticipantDto[] = participants.filter(participant =>
+      participant.entryNumber != undefined && participant.entryNumber >= 0 && participant.entryNumber < size);
+    const root: TournamentStandingsTreeDto = this.treeGenerationHelper(winnerRound(participants.length), 0, size - 1, enteredParticipants);
     return root;
   }
 
@@ -29,6 +29,17 @@ export interface TournamentDetailDto {
   participants: TournamentDetailParticipantDto[];
 }
 
+export interface StandingsDeltaDto {
+  tournamentId: number;
+  version?: number;
+  participants: TournamentDetailParticipantDto[]; // only the participants changed since the previous event
+}
+
+export interface TournamentStandingsEvent {
+  standings?: TournamentDetailDto; // the complete standings, sent first and when the tournament was finalized
+  delta?: StandingsDeltaDto;
+}
+
 export interface TournamentDetailParticipantDto {
   horseId: number;
   name: string;
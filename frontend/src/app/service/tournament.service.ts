@@ -7,7 +7,7 @@ import {
   TournamentCreateDto, TournamentDetailDto, TournamentDetailParticipantDto,
   TournamentListDto,
   TournamentSearchParams,
-  TournamentStandingsDto, TournamentStandingsTreeDto, TournamentUpdateDto
+  TournamentStandingsDto, TournamentStandingsEvent, TournamentStandingsTreeDto, TournamentUpdateDto
 } from "../dto/tournament";
 
 
@@ -46,6 +46,27 @@ export class TournamentService {
     return this.http.get<TournamentDetailDto>(`${baseUri}/standings/${id}`)
   }
 
+  /**
+   * Follow the standings of a tournament live.
+   * The current standings are emitted first, after every change only the participants which changed.
+   * The browser reconnects by itself if the connection is lost, and receives the current standings again.
+   *
+   * @param id the id of the tournament
+   * @return an Observable for the events of the standings, the connection is closed when it is unsubscribed
+   */
+  public followStandings(id: number): Observable<TournamentStandingsEvent> {
+    return new Observable(subscriber => {
+      const events = new EventSource(`${baseUri}/standings/events/${id}`);
+      events.addEventListener('standings', event => subscriber.next({standings: JSON.parse((event as MessageEvent).data)}));
+      events.addEventListener('delta', event => subscriber.next({delta: JSON.parse((event as MessageEvent).data)}));
+      events.addEventListener('finalized', event => {
+        subscriber.next({standings: JSON.parse((event as MessageEvent).data)});
+        subscriber.complete(); // the standings of a finalized tournament never change
+      });
+      return () => events.close();
+    });
+  }
+
   public generateRound1ById(id: number):Observable<TournamentDetailDto> {
     return this.http.get<TournamentDetailDto>(`${baseUri}/standings/generate/${id}`)
   }
@@ -0,0 +1,17 @@
+// the number of horses a tournament can have, as validated by the backend
+export const MIN_PARTICIPANTS = 2;
+export const MAX_PARTICIPANTS = 1024;
+
+// the number of entry slots of the bracket, the smallest power of two not less than the participants
+export function bracketSize(participants: number): number {
+  let size = 1;
+  while (size < participants) {
+    size *= 2;
+  }
+  return size;
+}
+
+// the round reached by the winner of the tournament, one more than the rounds played
+export function winnerRound(participants: number): number {
+  return Math.log2(bracketSize(participants)) + 1;
+}